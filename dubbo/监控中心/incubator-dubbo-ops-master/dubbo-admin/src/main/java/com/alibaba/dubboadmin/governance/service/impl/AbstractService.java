@@ -17,13 +17,15 @@
 package com.alibaba.dubboadmin.governance.service.impl;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
 
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
 import com.alibaba.dubbo.registry.RegistryService;
+import com.alibaba.dubboadmin.governance.sync.RegistryEntry;
+import com.alibaba.dubboadmin.governance.sync.RegistryIndex;
 import com.alibaba.dubboadmin.governance.sync.RegistryServerSync;
+import com.alibaba.dubboadmin.governance.sync.RegistrySnapshot;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -39,8 +41,20 @@ public class AbstractService {
     @Autowired
     private RegistryServerSync sync;
 
-    public ConcurrentMap<String, ConcurrentMap<String, Map<Long, URL>>> getRegistryCache() {
+    public RegistrySnapshot getSnapshot() {
+        return sync.getSnapshot();
+    }
+
+    public Map<String, Map<String, Map<Long, URL>>> getRegistryCache() {
         return sync.getRegistryCache();
     }
 
+    public RegistryIndex getRegistryIndex(String category) {
+        return sync.getRegistryIndex(category);
+    }
+
+    public RegistryEntry getRegistryEntry(Long id) {
+        return sync.getRegistryEntry(id);
+    }
+
 }
@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
 
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
@@ -43,7 +42,7 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
     }
 
     private Pair<Long, URL> findConsumerUrl(Long id) {
-        return SyncUtils.filterFromCategory(getRegistryCache(), Constants.CONSUMERS_CATEGORY, id);
+        return SyncUtils.filterFromEntry(getRegistryEntry(id), Constants.CONSUMERS_CATEGORY);
     }
 
     public List<Consumer> findAll() {
@@ -53,42 +52,18 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
     private Map<Long, URL> findAllConsumerUrl() {
         Map<String, String> filter = new HashMap<String, String>();
         filter.put(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY);
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<String> findAddresses() {
-        List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
-        if (null == consumerUrls) return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : consumerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                String app = u.getAddress();
-                if (app != null) ret.add(app);
-            }
-        }
-
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.CONSUMERS_CATEGORY).getAddresses());
     }
 
     public List<String> findAddressesByApplication(String application) {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
-
-        if(consumerUrls == null)
-            return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : consumerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (application.equals(u.getParameter(Constants.APPLICATION_KEY))) {
-                    String addr = u.getAddress();
-                    if (addr != null) ret.add(addr);
-                }
-            }
+        for (URL u : getRegistryIndex(Constants.CONSUMERS_CATEGORY).findByApplication(application).values()) {
+            String addr = u.getAddress();
+            if (addr != null) ret.add(addr);
         }
 
         return ret;
@@ -96,7 +71,7 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
 
     public List<String> findAddressesByService(String service) {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
+        Map<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
         if (null == consumerUrls) return ret;
 
         for (Map.Entry<Long, URL> e2 : consumerUrls.get(service).entrySet()) {
@@ -113,22 +88,9 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
     }
 
     public List<String> findServicesByAddress(String address) {
-        List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
-        if (consumerUrls == null || address == null || address.length() == 0) return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : consumerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (address.equals(u.getAddress())) {
-                    ret.add(e1.getKey());
-                    break;
-                }
-            }
-        }
+        if (address == null || address.length() == 0) return new ArrayList<String>();
 
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.CONSUMERS_CATEGORY).findServicesByAddress(address));
     }
 
     private Map<Long, URL> findConsumerUrlByAddress(String address) {
@@ -136,29 +98,16 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
         filter.put(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY);
         filter.put(SyncUtils.ADDRESS_FILTER_KEY, address);
 
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<String> findApplications() {
-        List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
-        if (consumerUrls == null) return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : consumerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                String app = u.getParameter(Constants.APPLICATION_KEY);
-                if (app != null) ret.add(app);
-            }
-        }
-
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.CONSUMERS_CATEGORY).getApplications());
     }
 
     public List<String> findApplicationsByServiceName(String service) {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
+        Map<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
         if (consumerUrls == null) return ret;
 
         Map<Long, URL> value = consumerUrls.get(service);
@@ -183,31 +132,18 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
         filter.put(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY);
         filter.put(Constants.APPLICATION_KEY, application);
 
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<String> findServicesByApplication(String application) {
-        List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
-        if (consumerUrls == null || application == null || application.length() == 0) return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : consumerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (application.equals(u.getParameter(Constants.APPLICATION_KEY))) {
-                    ret.add(e1.getKey());
-                    break;
-                }
-            }
-        }
+        if (application == null || application.length() == 0) return new ArrayList<String>();
 
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.CONSUMERS_CATEGORY).findServicesByApplication(application));
     }
 
     public List<String> findServices() {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
+        Map<String, Map<Long, URL>> consumerUrls = getRegistryCache().get(Constants.CONSUMERS_CATEGORY);
         if (consumerUrls != null) ret.addAll(consumerUrls.keySet());
         return ret;
     }
@@ -217,7 +153,7 @@ public class ConsumerServiceImpl extends AbstractService implements ConsumerServ
         filter.put(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY);
         filter.put(SyncUtils.SERVICE_FILTER_KEY, service);
 
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
 }
@@ -115,7 +115,7 @@ public class OverrideServiceImpl extends AbstractService implements OverrideServ
         if (application != null && application.length() > 0) {
             filter.put(Constants.APPLICATION_KEY, application);
         }
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<Override> findByAddress(String address) {
@@ -143,7 +143,7 @@ public class OverrideServiceImpl extends AbstractService implements OverrideServ
     }
 
     private Pair<Long, URL> findOverrideUrlPair(Long id) {
-        return SyncUtils.filterFromCategory(getRegistryCache(), Constants.CONFIGURATORS_CATEGORY, id);
+        return SyncUtils.filterFromEntry(getRegistryEntry(id), Constants.CONFIGURATORS_CATEGORY);
     }
 
     public Override findById(Long id) {
@@ -21,7 +21,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentMap;
 
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
@@ -232,46 +231,25 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     }
 
     public Pair<Long, URL> findProviderUrlPair(Long id) {
-        return SyncUtils.filterFromCategory(getRegistryCache(), Constants.PROVIDERS_CATEGORY, id);
+        return SyncUtils.filterFromEntry(getRegistryEntry(id), Constants.PROVIDERS_CATEGORY);
     }
 
     public List<String> findServices() {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
         if (providerUrls != null) ret.addAll(providerUrls.keySet());
         return ret;
     }
 
     public List<String> findAddresses() {
-        List<String> ret = new ArrayList<String>();
-
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        if (null == providerUrls) return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : providerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                String app = u.getAddress();
-                if (app != null) ret.add(app);
-            }
-        }
-
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.PROVIDERS_CATEGORY).getAddresses());
     }
 
     public List<String> findAddressesByApplication(String application) {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        for (Map.Entry<String, Map<Long, URL>> e1 : providerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (application.equals(u.getParameter(Constants.APPLICATION_KEY))) {
-                    String addr = u.getAddress();
-                    if (addr != null) ret.add(addr);
-                }
-            }
+        for (URL u : getRegistryIndex(Constants.PROVIDERS_CATEGORY).findByApplication(application).values()) {
+            String addr = u.getAddress();
+            if (addr != null) ret.add(addr);
         }
 
         return ret;
@@ -279,7 +257,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
 
     public List<String> findAddressesByService(String service) {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
         if (null == providerUrls) return ret;
 
         for (Map.Entry<Long, URL> e2 : providerUrls.get(service).entrySet()) {
@@ -293,7 +271,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
 
     public List<String> findApplicationsByServiceName(String service) {
         List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
         if (null == providerUrls) return ret;
 
         Map<Long, URL> value = providerUrls.get(service);
@@ -318,7 +296,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
         filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
         filter.put(SyncUtils.SERVICE_FILTER_KEY, service);
 
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<Provider> findAll() {
@@ -328,7 +306,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
     private Map<Long, URL> findAllProviderUrl() {
         Map<String, String> filter = new HashMap<String, String>();
         filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<Provider> findByAddress(String providerAddress) {
@@ -340,44 +318,17 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
         filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
         filter.put(SyncUtils.ADDRESS_FILTER_KEY, address);
 
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<String> findServicesByAddress(String address) {
-        List<String> ret = new ArrayList<String>();
-
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        if (providerUrls == null || address == null || address.length() == 0) return ret;
+        if (address == null || address.length() == 0) return new ArrayList<String>();
 
-        for (Map.Entry<String, Map<Long, URL>> e1 : providerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (address.equals(u.getAddress())) {
-                    ret.add(e1.getKey());
-                    break;
-                }
-            }
-        }
-
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.PROVIDERS_CATEGORY).findServicesByAddress(address));
     }
 
     public List<String> findApplications() {
-        List<String> ret = new ArrayList<String>();
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        if (providerUrls == null) return ret;
-
-        for (Map.Entry<String, Map<Long, URL>> e1 : providerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                String app = u.getParameter(Constants.APPLICATION_KEY);
-                if (app != null) ret.add(app);
-            }
-        }
-
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.PROVIDERS_CATEGORY).getApplications());
     }
 
     public List<Provider> findByApplication(String application) {
@@ -388,33 +339,19 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
         Map<String, String> filter = new HashMap<String, String>();
         filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
         filter.put(Constants.APPLICATION_KEY, application);
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<String> findServicesByApplication(String application) {
-        List<String> ret = new ArrayList<String>();
-
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
-        if (providerUrls == null || application == null || application.length() == 0) return ret;
+        if (application == null || application.length() == 0) return new ArrayList<String>();
 
-        for (Map.Entry<String, Map<Long, URL>> e1 : providerUrls.entrySet()) {
-            Map<Long, URL> value = e1.getValue();
-            for (Map.Entry<Long, URL> e2 : value.entrySet()) {
-                URL u = e2.getValue();
-                if (application.equals(u.getParameter(Constants.APPLICATION_KEY))) {
-                    ret.add(e1.getKey());
-                    break;
-                }
-            }
-        }
-
-        return ret;
+        return new ArrayList<String>(getRegistryIndex(Constants.PROVIDERS_CATEGORY).findServicesByApplication(application));
     }
 
     public List<String> findMethodsByService(String service) {
         List<String> ret = new ArrayList<String>();
 
-        ConcurrentMap<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Map<String, Map<Long, URL>> providerUrls = getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
         if (providerUrls == null || service == null || service.length() == 0) return ret;
 
         Map<Long, URL> providers = providerUrls.get(service);
@@ -449,7 +386,7 @@ public class ProviderServiceImpl extends AbstractService implements ProviderServ
         filter.put(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
         filter.put(SyncUtils.ADDRESS_FILTER_KEY, address);
 
-        Map<Long, URL> ret = SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        Map<Long, URL> ret = SyncUtils.filterFromCategory(getSnapshot(), filter);
         if (ret.isEmpty()) {
             return null;
         } else {
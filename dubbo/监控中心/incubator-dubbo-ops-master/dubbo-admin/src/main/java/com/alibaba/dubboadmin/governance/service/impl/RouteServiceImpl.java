@@ -108,7 +108,7 @@ public class RouteServiceImpl extends AbstractService implements RouteService {
         Map<String, String> filter = new HashMap<String, String>();
         filter.put(Constants.CATEGORY_KEY, Constants.ROUTERS_CATEGORY);
 
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public Route findRoute(Long id) {
@@ -116,7 +116,7 @@ public class RouteServiceImpl extends AbstractService implements RouteService {
     }
 
     public Pair<Long, URL> findRouteUrlPair(Long id) {
-        return SyncUtils.filterFromCategory(getRegistryCache(), Constants.ROUTERS_CATEGORY, id);
+        return SyncUtils.filterFromEntry(getRegistryEntry(id), Constants.ROUTERS_CATEGORY);
     }
 
     private URL findRouteUrl(Long id) {
@@ -135,7 +135,7 @@ public class RouteServiceImpl extends AbstractService implements RouteService {
         if (force) {
             filter.put("force", "true");
         }
-        return SyncUtils.filterFromCategory(getRegistryCache(), filter);
+        return SyncUtils.filterFromCategory(getSnapshot(), filter);
     }
 
     public List<Route> findByService(String serviceName) {
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import com.alibaba.dubbo.common.URL;
+
+/**
+ * RegistryEntry
+ * <p>
+ * Locates a url of the registry cache by its id.
+ */
+public class RegistryEntry {
+
+    private final Long id;
+
+    private final String category;
+
+    private final String service;
+
+    private final URL url;
+
+    public RegistryEntry(Long id, String category, String service, URL url) {
+        this.id = id;
+        this.category = category;
+        this.service = service;
+        this.url = url;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+
+/**
+ * RegistryIndex
+ * <p>
+ * Indexes the urls of one category of the registry cache by address and application. It is immutable, every
+ * change of the category makes a new index that shares the untouched entries with the old one.
+ */
+public class RegistryIndex {
+
+    static final RegistryIndex EMPTY = new RegistryIndex(Collections.<String, Map<Long, URL>>emptyMap(),
+            Collections.<String, Map<Long, URL>>emptyMap());
+
+    private static final int ADDRESS = 0;
+
+    private static final int APPLICATION = 1;
+
+    private final Map<String, Map<Long, URL>> addresses;
+
+    private final Map<String, Map<Long, URL>> applications;
+
+    private RegistryIndex(Map<String, Map<Long, URL>> addresses, Map<String, Map<Long, URL>> applications) {
+        this.addresses = addresses;
+        this.applications = applications;
+    }
+
+    /**
+     * Make the index with the urls removed and then the urls added, an url in both is kept.
+     */
+    RegistryIndex update(Map<Long, URL> removed, Map<Long, URL> added) {
+        return new RegistryIndex(update(addresses, ADDRESS, removed, added),
+                update(applications, APPLICATION, removed, added));
+    }
+
+    private static Map<String, Map<Long, URL>> update(Map<String, Map<Long, URL>> index, int type,
+                                                      Map<Long, URL> removed, Map<Long, URL> added) {
+        Map<String, Map<Long, URL>> result = new HashMap<String, Map<Long, URL>>(index);
+        // the entries of the changed keys, copied once
+        Map<String, Map<Long, URL>> changed = new HashMap<String, Map<Long, URL>>();
+        for (Map.Entry<Long, URL> entry : removed.entrySet()) {
+            Map<Long, URL> urls = getChanged(result, changed, getKey(entry.getValue(), type));
+            if (urls != null) {
+                urls.remove(entry.getKey());
+            }
+        }
+        for (Map.Entry<Long, URL> entry : added.entrySet()) {
+            Map<Long, URL> urls = getChanged(result, changed, getKey(entry.getValue(), type));
+            if (urls != null) {
+                urls.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Map<Long, URL>> entry : changed.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                result.remove(entry.getKey());
+            } else {
+                result.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static Map<Long, URL> getChanged(Map<String, Map<Long, URL>> index, Map<String, Map<Long, URL>> changed, String key) {
+        if (key == null) {
+            return null;
+        }
+        Map<Long, URL> urls = changed.get(key);
+        if (urls == null) {
+            Map<Long, URL> old = index.get(key);
+            urls = old == null ? new HashMap<Long, URL>() : new HashMap<Long, URL>(old);
+            changed.put(key, urls);
+        }
+        return urls;
+    }
+
+    private static String getKey(URL url, int type) {
+        return type == ADDRESS ? url.getAddress() : url.getParameter(Constants.APPLICATION_KEY);
+    }
+
+    private static Map<Long, URL> find(Map<String, Map<Long, URL>> index, String key) {
+        Map<Long, URL> urls = key == null ? null : index.get(key);
+        if (urls == null) {
+            return Collections.emptyMap();
+        }
+        return urls;
+    }
+
+    private static Set<String> findServices(Map<String, Map<Long, URL>> index, String key) {
+        Set<String> services = new HashSet<String>();
+        for (URL url : find(index, key).values()) {
+            services.add(url.getServiceKey());
+        }
+        return services;
+    }
+
+    public Map<Long, URL> findByAddress(String address) {
+        return find(addresses, address);
+    }
+
+    public Map<Long, URL> findByApplication(String application) {
+        return find(applications, application);
+    }
+
+    public Set<String> findServicesByAddress(String address) {
+        return findServices(addresses, address);
+    }
+
+    public Set<String> findServicesByApplication(String application) {
+        return findServices(applications, application);
+    }
+
+    public Set<String> getAddresses() {
+        return addresses.keySet();
+    }
+
+    public Set<String> getApplications() {
+        return applications.keySet();
+    }
+
+}
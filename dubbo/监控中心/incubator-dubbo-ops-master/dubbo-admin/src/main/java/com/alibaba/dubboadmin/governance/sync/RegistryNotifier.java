@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
+
+/**
+ * RegistryNotifier
+ * <p>
+ * Takes the notifications off the registry client thread and applies them on one thread. The notifications of an
+ * interface waiting to be applied are merged keeping the latest full list of each category, and all the interfaces
+ * waiting are applied together, so a burst of notifications publishes one snapshot and each interface stays in order.
+ */
+public abstract class RegistryNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistryNotifier.class);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("DubboAdminRegistryNotifier", true));
+
+    // Map<interface, Batch> waiting to be applied, in the order first notified
+    private Map<String, Batch> pending = new LinkedHashMap<String, Batch>();
+
+    // whether a drain of the pending interfaces is scheduled
+    private boolean scheduled;
+
+    private final AtomicLong notified = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong applied = new AtomicLong();
+
+    private volatile long lag;
+
+    private volatile long maxLag;
+
+    /**
+     * Apply the latest urls of the interfaces together.
+     *
+     * @param notifications the urls of each interface, by category
+     */
+    protected abstract void apply(List<List<URL>> notifications);
+
+    public void notify(List<URL> urls) {
+        if (urls == null || urls.isEmpty()) {
+            return;
+        }
+        notified.incrementAndGet();
+        // Map<interface, Map<category, List<URL>>>
+        Map<String, Map<String, List<URL>>> interfaces = new HashMap<String, Map<String, List<URL>>>();
+        for (URL url : urls) {
+            String category = url.getParameter(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
+            Map<String, List<URL>> categories = interfaces.get(url.getServiceInterface());
+            if (categories == null) {
+                categories = new HashMap<String, List<URL>>();
+                interfaces.put(url.getServiceInterface(), categories);
+            }
+            List<URL> list = categories.get(category);
+            if (list == null) {
+                list = new ArrayList<URL>();
+                categories.put(category, list);
+            }
+            list.add(url);
+        }
+        synchronized (this) {
+            for (Map.Entry<String, Map<String, List<URL>>> entry : interfaces.entrySet()) {
+                Batch batch = pending.get(entry.getKey());
+                if (batch == null) {
+                    batch = new Batch();
+                    pending.put(entry.getKey(), batch);
+                } else {
+                    coalesced.incrementAndGet();
+                }
+                // every list is full, the latest of a category replaces the one waiting
+                batch.categories.putAll(entry.getValue());
+            }
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(new Runnable() {
+                    public void run() {
+                        drain();
+                    }
+                });
+            }
+        }
+    }
+
+    private void drain() {
+        Map<String, Batch> batches;
+        synchronized (this) {
+            batches = pending;
+            pending = new LinkedHashMap<String, Batch>();
+            scheduled = false;
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+        List<List<URL>> notifications = new ArrayList<List<URL>>(batches.size());
+        long first = Long.MAX_VALUE;
+        for (Batch batch : batches.values()) {
+            List<URL> urls = new ArrayList<URL>();
+            for (List<URL> list : batch.categories.values()) {
+                urls.addAll(list);
+            }
+            notifications.add(urls);
+            first = Math.min(first, batch.timestamp);
+        }
+        try {
+            apply(notifications);
+            applied.addAndGet(notifications.size());
+        } catch (Throwable t) {
+            logger.warn("Failed to apply the notifications of " + notifications.size() + " interfaces together, apply them one by one, cause: " + t.getMessage(), t);
+            int i = 0;
+            for (String interfaceName : batches.keySet()) {
+                try {
+                    apply(Collections.singletonList(notifications.get(i)));
+                    applied.incrementAndGet();
+                } catch (Throwable e) {
+                    logger.error("Failed to apply the notification of " + interfaceName + ", cause: " + e.getMessage(), e);
+                }
+                i++;
+            }
+        } finally {
+            long time = System.currentTimeMillis() - first;
+            lag = time;
+            if (time > maxLag) {
+                maxLag = time;
+            }
+        }
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The number of interfaces waiting to be applied.
+     */
+    public synchronized int getBacklog() {
+        return pending.size();
+    }
+
+    public long getNotified() {
+        return notified.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getApplied() {
+        return applied.get();
+    }
+
+    /**
+     * The milliseconds from the first notification of the last applied batch until it was applied.
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    private static class Batch {
+
+        private final long timestamp = System.currentTimeMillis();
+
+        // Map<category, List<URL>>
+        private final Map<String, List<URL>> categories = new LinkedHashMap<String, List<URL>>();
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+
+/**
+ * RegistryNotifierStatusChecker
+ *
+ */
+public class RegistryNotifierStatusChecker implements StatusChecker {
+
+    private final RegistryNotifier notifier;
+
+    public RegistryNotifierStatusChecker(RegistryNotifier notifier) {
+        this.notifier = notifier;
+    }
+
+    public Status check() {
+        int backlog = notifier.getBacklog();
+        String msg = "backlog: " + backlog
+                + ", notified: " + notifier.getNotified()
+                + ", coalesced: " + notifier.getCoalesced()
+                + ", applied: " + notifier.getApplied()
+                + ", lag: " + notifier.getLag() + "ms"
+                + ", max lag: " + notifier.getMaxLag() + "ms";
+        return new Status(backlog > 1000 ? Status.Level.WARN : Status.Level.OK, msg);
+    }
+
+}
@@ -16,11 +16,11 @@
  */
 package com.alibaba.dubboadmin.governance.sync;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -33,6 +33,7 @@ import com.alibaba.dubbo.common.utils.NetUtils;
 import com.alibaba.dubbo.common.utils.StringUtils;
 import com.alibaba.dubbo.registry.NotifyListener;
 import com.alibaba.dubbo.registry.RegistryService;
+import com.alibaba.dubboadmin.registry.common.StatusManager;
 import com.alibaba.dubboadmin.web.pulltool.Tool;
 
 import org.springframework.beans.factory.DisposableBean;
@@ -60,54 +61,118 @@ public class RegistryServerSync implements InitializingBean, DisposableBean, Not
     private static final AtomicLong ID = new AtomicLong();
 
     /**
-     * Make sure ID never changed when the same url notified many times
+     * Make sure ID never changed when the same url notified many times, an url is mapped only while it is in the cache
      */
-    private final ConcurrentHashMap<String, Long> URL_IDS_MAPPER = new ConcurrentHashMap<String, Long>();
+    private final ConcurrentHashMap<URL, Long> URL_IDS_MAPPER = new ConcurrentHashMap<URL, Long>();
+
+    // the latest snapshot of Map<category, Map<servicename, Map<Long, URL>>> and its indexes
+    private volatile RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+
+    // ConcurrentMap<id, RegistryEntry> of all the categories, checked against the snapshot when read
+    private final ConcurrentMap<Long, RegistryEntry> registryEntries = new ConcurrentHashMap<Long, RegistryEntry>();
 
-    // ConcurrentMap<category, ConcurrentMap<servicename, Map<Long, URL>>>
-    private final ConcurrentMap<String, ConcurrentMap<String, Map<Long, URL>>>
-        registryCache = new ConcurrentHashMap<String, ConcurrentMap<String, Map<Long, URL>>>();
     @Autowired
     private RegistryService registryService;
 
-    public ConcurrentMap<String, ConcurrentMap<String, Map<Long, URL>>> getRegistryCache() {
-        return registryCache;
+    private RegistryNotifier notifier;
+
+    public RegistrySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    public Map<String, Map<String, Map<Long, URL>>> getRegistryCache() {
+        return snapshot.getRegistryCache();
+    }
+
+    public RegistryIndex getRegistryIndex(String category) {
+        return snapshot.getRegistryIndex(category);
+    }
+
+    public RegistryNotifier getNotifier() {
+        return notifier;
+    }
+
+    /**
+     * The number of the urls mapped to ids, as many as the urls in the cache.
+     */
+    int getUrlIdCount() {
+        return URL_IDS_MAPPER.size();
+    }
+
+    public RegistryEntry getRegistryEntry(Long id) {
+        RegistryEntry entry = id == null ? null : registryEntries.get(id);
+        if (entry == null || !snapshot.contains(entry)) {
+            return null;
+        }
+        return entry;
     }
 
     public void afterPropertiesSet() throws Exception {
         logger.info("Init Dubbo Admin Sync Cache...");
+        notifier = new RegistryNotifier() {
+            @Override
+            protected void apply(List<List<URL>> notifications) {
+                applyAll(notifications);
+            }
+        };
+        StatusManager.getInstance().addStatusHandler("notifier", new RegistryNotifierStatusChecker(notifier));
         registryService.subscribe(SUBSCRIBE, this);
     }
 
     public void destroy() throws Exception {
         registryService.unsubscribe(SUBSCRIBE, this);
+        StatusManager.getInstance().removeStatusHandler("notifier");
+        notifier.destroy();
     }
 
     // Notification of of any service with any type (override、subcribe、route、provider) is full.
     public void notify(List<URL> urls) {
-        if (urls == null || urls.isEmpty()) {
-            return;
+        notifier.notify(urls);
+    }
+
+    void apply(List<URL> urls) {
+        applyAll(Collections.singletonList(urls));
+    }
+
+    /**
+     * Apply the notifications of the interfaces to one update, published as one snapshot.
+     */
+    synchronized void applyAll(List<List<URL>> notifications) {
+        Update update = new Update(snapshot);
+        for (List<URL> urls : notifications) {
+            if (urls != null && !urls.isEmpty()) {
+                apply(update, urls);
+            }
+        }
+        if (update.isChanged()) {
+            publish(update);
         }
+    }
+
+    private void apply(Update update, List<URL> urls) {
         // Map<category, Map<servicename, Map<Long, URL>>>
         final Map<String, Map<String, Map<Long, URL>>> categories = new HashMap<String, Map<String, Map<Long, URL>>>();
         String interfaceName = null;
         for (URL url : urls) {
             String category = url.getParameter(Constants.CATEGORY_KEY, Constants.PROVIDERS_CATEGORY);
             if (Constants.EMPTY_PROTOCOL.equalsIgnoreCase(url.getProtocol())) { // NOTE: group and version in empty protocol is *
-                ConcurrentMap<String, Map<Long, URL>> services = registryCache.get(category);
+                Map<String, Map<Long, URL>> services = update.getServices(category, false);
                 if (services != null) {
                     String group = url.getParameter(Constants.GROUP_KEY);
                     String version = url.getParameter(Constants.VERSION_KEY);
                     // NOTE: group and version in empty protocol is *
                     if (!Constants.ANY_VALUE.equals(group) && !Constants.ANY_VALUE.equals(version)) {
-                        services.remove(url.getServiceKey());
+                        update.remove(category, url.getServiceKey());
                     } else {
-                        for (Map.Entry<String, Map<Long, URL>> serviceEntry : services.entrySet()) {
-                            String service = serviceEntry.getKey();
+                        for (String service : new HashSet<String>(services.keySet())) {
                             if (Tool.getInterface(service).equals(url.getServiceInterface())
                                     && (Constants.ANY_VALUE.equals(group) || StringUtils.isEquals(group, Tool.getGroup(service)))
                                     && (Constants.ANY_VALUE.equals(version) || StringUtils.isEquals(version, Tool.getVersion(service)))) {
-                                services.remove(service);
+                                update.remove(category, service);
                             }
                         }
                     }
@@ -129,34 +194,153 @@ public class RegistryServerSync implements InitializingBean, DisposableBean, Not
                 }
 
                 // Make sure we use the same ID for the same URL
-                if (URL_IDS_MAPPER.containsKey(url.toFullString())) {
-                    ids.put(URL_IDS_MAPPER.get(url.toFullString()), url);
-                } else {
-                    long currentId = ID.incrementAndGet();
-                    ids.put(currentId, url);
-                    URL_IDS_MAPPER.putIfAbsent(url.toFullString(), currentId);
+                Long id = URL_IDS_MAPPER.get(url);
+                if (id == null) {
+                    id = ID.incrementAndGet();
+                    URL_IDS_MAPPER.put(url, id);
                 }
+                ids.put(id, url);
             }
         }
-        if (categories.size() == 0) {
-            return;
-        }
         for (Map.Entry<String, Map<String, Map<Long, URL>>> categoryEntry : categories.entrySet()) {
             String category = categoryEntry.getKey();
-            ConcurrentMap<String, Map<Long, URL>> services = registryCache.get(category);
+            Map<String, Map<Long, URL>> services = update.getServices(category, true);
+            // Fix map can not be cleared when service is unregistered: when a unique “group/service:version” service is unregistered, but we still have the same services with different version or group, so empty protocols can not be invoked.
+            for (String key : new HashSet<String>(services.keySet())) {
+                if (Tool.getInterface(key).equals(interfaceName) && !categoryEntry.getValue().containsKey(key)) {
+                    update.remove(category, key);
+                }
+            }
+            for (Map.Entry<String, Map<Long, URL>> serviceEntry : categoryEntry.getValue().entrySet()) {
+                update.put(category, serviceEntry.getKey(), serviceEntry.getValue());
+            }
+        }
+    }
+
+    private void publish(Update update) {
+        for (Map.Entry<String, Map<String, Map<Long, URL>>> categoryEntry : update.added.entrySet()) {
+            for (Map.Entry<String, Map<Long, URL>> serviceEntry : categoryEntry.getValue().entrySet()) {
+                for (Map.Entry<Long, URL> entry : serviceEntry.getValue().entrySet()) {
+                    registryEntries.put(entry.getKey(), new RegistryEntry(entry.getKey(), categoryEntry.getKey(),
+                            serviceEntry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        snapshot = update.toSnapshot();
+        for (Map.Entry<String, Map<Long, URL>> categoryEntry : update.removed.entrySet()) {
+            for (Map.Entry<Long, URL> urlEntry : categoryEntry.getValue().entrySet()) {
+                Long id = urlEntry.getKey();
+                RegistryEntry entry = registryEntries.get(id);
+                if (entry == null) {
+                    // added and removed again in the same batch, never published
+                    URL_IDS_MAPPER.remove(urlEntry.getValue(), id);
+                } else if (!snapshot.contains(entry)) {
+                    registryEntries.remove(id, entry);
+                    URL_IDS_MAPPER.remove(urlEntry.getValue(), id);
+                }
+            }
+        }
+    }
+
+    /**
+     * The changes of one notification, applied to copies of the categories it touches.
+     */
+    private static class Update {
+
+        private final RegistrySnapshot base;
+
+        // Map<category, Map<servicename, Map<Long, URL>>> copied from the base on first change
+        private final Map<String, Map<String, Map<Long, URL>>> changed = new HashMap<String, Map<String, Map<Long, URL>>>();
+
+        // Map<category, Map<Long, URL>>
+        private final Map<String, Map<Long, URL>> removed = new HashMap<String, Map<Long, URL>>();
+
+        // Map<category, Map<servicename, Map<Long, URL>>>
+        private final Map<String, Map<String, Map<Long, URL>>> added = new HashMap<String, Map<String, Map<Long, URL>>>();
+
+        Update(RegistrySnapshot base) {
+            this.base = base;
+        }
+
+        Map<String, Map<Long, URL>> getServices(String category, boolean create) {
+            Map<String, Map<Long, URL>> services = changed.get(category);
+            if (services == null) {
+                Map<String, Map<Long, URL>> old = base.getRegistryCache().get(category);
+                if (old == null && !create) {
+                    return null;
+                }
+                services = old == null ? new HashMap<String, Map<Long, URL>>() : new HashMap<String, Map<Long, URL>>(old);
+                changed.put(category, services);
+            }
+            return services;
+        }
+
+        void remove(String category, String service) {
+            Map<Long, URL> urls = getServices(category, true).remove(service);
+            if (urls != null) {
+                getRemoved(category).putAll(urls);
+                Map<String, Map<Long, URL>> services = added.get(category);
+                if (services != null) {
+                    services.remove(service);
+                }
+            }
+        }
+
+        void put(String category, String service, Map<Long, URL> urls) {
+            Map<String, Map<Long, URL>> current = changed.get(category);
+            if (current == null) {
+                current = base.getRegistryCache().get(category);
+            }
+            if (current != null && urls.equals(current.get(service))) {
+                return; // the same urls notified again
+            }
+            Map<Long, URL> replaced = getServices(category, true).put(service, Collections.unmodifiableMap(urls));
+            if (replaced != null) {
+                getRemoved(category).putAll(replaced);
+            }
+            Map<String, Map<Long, URL>> services = added.get(category);
             if (services == null) {
-                services = new ConcurrentHashMap<String, Map<Long, URL>>();
-                registryCache.put(category, services);
-            } else {// Fix map can not be cleared when service is unregistered: when a unique “group/service:version” service is unregistered, but we still have the same services with different version or group, so empty protocols can not be invoked.
-                Set<String> keys = new HashSet<String>(services.keySet());
-                for (String key : keys) {
-                    if (Tool.getInterface(key).equals(interfaceName) && !categoryEntry.getValue().entrySet().contains(key)) {
-                        services.remove(key);
+                services = new HashMap<String, Map<Long, URL>>();
+                added.put(category, services);
+            }
+            services.put(service, urls);
+        }
+
+        private Map<Long, URL> getRemoved(String category) {
+            Map<Long, URL> urls = removed.get(category);
+            if (urls == null) {
+                urls = new HashMap<Long, URL>();
+                removed.put(category, urls);
+            }
+            return urls;
+        }
+
+        boolean isChanged() {
+            return !removed.isEmpty() || !added.isEmpty();
+        }
+
+        RegistrySnapshot toSnapshot() {
+            Map<String, Map<String, Map<Long, URL>>> registryCache = new HashMap<String, Map<String, Map<Long, URL>>>(base.getRegistryCache());
+            Map<String, RegistryIndex> registryIndexes = new HashMap<String, RegistryIndex>();
+            for (String category : registryCache.keySet()) {
+                registryIndexes.put(category, base.getRegistryIndex(category));
+            }
+            for (Map.Entry<String, Map<String, Map<Long, URL>>> entry : changed.entrySet()) {
+                String category = entry.getKey();
+                registryCache.put(category, Collections.unmodifiableMap(entry.getValue()));
+                Map<Long, URL> removedUrls = removed.get(category);
+                Map<Long, URL> addedUrls = new HashMap<Long, URL>();
+                Map<String, Map<Long, URL>> services = added.get(category);
+                if (services != null) {
+                    for (Map<Long, URL> urls : services.values()) {
+                        addedUrls.putAll(urls);
                     }
                 }
+                registryIndexes.put(category, base.getRegistryIndex(category).update(
+                        removedUrls == null ? Collections.<Long, URL>emptyMap() : removedUrls, addedUrls));
             }
-            services.putAll(categoryEntry.getValue());
+            return new RegistrySnapshot(base.getVersion() + 1, Collections.unmodifiableMap(registryCache),
+                    Collections.unmodifiableMap(registryIndexes));
         }
     }
 }
-    
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.alibaba.dubbo.common.URL;
+
+/**
+ * RegistrySnapshot
+ * <p>
+ * An immutable view of the registry cache and its indexes. Each notification that changes the cache publishes a new
+ * snapshot with a greater version, so a reader sees either all of a notification or none of it without locking.
+ */
+public class RegistrySnapshot {
+
+    static final RegistrySnapshot EMPTY = new RegistrySnapshot(0, Collections.<String, Map<String, Map<Long, URL>>>emptyMap(),
+            Collections.<String, RegistryIndex>emptyMap());
+
+    private final long version;
+
+    // Map<category, Map<servicename, Map<Long, URL>>>
+    private final Map<String, Map<String, Map<Long, URL>>> registryCache;
+
+    private final Map<String, RegistryIndex> registryIndexes;
+
+    RegistrySnapshot(long version, Map<String, Map<String, Map<Long, URL>>> registryCache,
+                     Map<String, RegistryIndex> registryIndexes) {
+        this.version = version;
+        this.registryCache = registryCache;
+        this.registryIndexes = registryIndexes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, Map<String, Map<Long, URL>>> getRegistryCache() {
+        return registryCache;
+    }
+
+    public RegistryIndex getRegistryIndex(String category) {
+        RegistryIndex index = registryIndexes.get(category);
+        return index == null ? RegistryIndex.EMPTY : index;
+    }
+
+    public boolean contains(RegistryEntry entry) {
+        Map<String, Map<Long, URL>> services = registryCache.get(entry.getCategory());
+        if (services == null) {
+            return false;
+        }
+        Map<Long, URL> urls = services.get(entry.getService());
+        return urls != null && urls.containsKey(entry.getId());
+    }
+
+}
@@ -24,6 +24,9 @@ import java.util.Map;
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.utils.StringUtils;
+import com.alibaba.dubboadmin.governance.sync.RegistryEntry;
+import com.alibaba.dubboadmin.governance.sync.RegistryIndex;
+import com.alibaba.dubboadmin.governance.sync.RegistrySnapshot;
 import com.alibaba.dubboadmin.registry.common.domain.Consumer;
 import com.alibaba.dubboadmin.registry.common.domain.Override;
 import com.alibaba.dubboadmin.registry.common.domain.Provider;
@@ -183,6 +186,31 @@ public class SyncUtils {
         return filterFromService(urls.get(c), filter);
     }
 
+    // narrow the urls by the address or application index first, unless the service filter does it already
+    public static Map<Long, URL> filterFromCategory(RegistrySnapshot snapshot, Map<String, String> filter) {
+        String c = filter.get(Constants.CATEGORY_KEY);
+        if (c == null) throw new IllegalArgumentException("no category");
+
+        Map<String, Map<String, Map<Long, URL>>> urls = snapshot.getRegistryCache();
+        RegistryIndex index = snapshot.getRegistryIndex(c);
+
+        Map<Long, URL> candidates;
+        if (filter.containsKey(SERVICE_FILTER_KEY)) {
+            return filterFromCategory(urls, filter);
+        } else if (filter.containsKey(ADDRESS_FILTER_KEY)) {
+            candidates = index.findByAddress(filter.remove(ADDRESS_FILTER_KEY));
+        } else if (filter.containsKey(Constants.APPLICATION_KEY)) {
+            candidates = index.findByApplication(filter.remove(Constants.APPLICATION_KEY));
+        } else {
+            return filterFromCategory(urls, filter);
+        }
+        filter.remove(Constants.CATEGORY_KEY);
+
+        Map<Long, URL> ret = new HashMap<Long, URL>();
+        filterFromUrls(candidates, ret, filter);
+        return ret;
+    }
+
     public static List<Override> url2OverrideList(Map<Long, URL> cs) {
         List<Override>
             list = new ArrayList<Override>();
@@ -243,6 +271,11 @@ public class SyncUtils {
         }
     }
 
+    public static Pair<Long, URL> filterFromEntry(RegistryEntry entry, String category) {
+        if (entry == null || !category.equals(entry.getCategory())) return null;
+        return new Pair<Long, URL>(entry.getId(), entry.getUrl());
+    }
+
     public static <SM extends Map<String, Map<Long, URL>>> Pair<Long, URL> filterFromCategory(Map<String, SM> urls, String category, Long id) {
         SM services = urls.get(category);
         if (services == null) return null;
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.registry.common.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * LogTail
+ * <p>
+ * Reads the lines appended to a log file after an offset straight from its channel through a small buffer,
+ * so following a busy log never reads the tail again nor holds more than one buffer. The lines are filtered
+ * by a minimum level, which a line without level such as a stack trace inherits from the line above,
+ * and by a keyword. A tail keeps the state of one reader, it is not thread safe.
+ */
+public class LogTail {
+
+    public static final String[] LEVELS = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL"};
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final Charset DEFAULT_CHARSET = Charset.defaultCharset();
+
+    private final File file;
+
+    private final int level;
+
+    private final String keyword;
+
+    private final Charset charset;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private boolean accepted = true;
+
+    /**
+     * Read the log in the platform default charset, which log4j writes in when the appender sets none.
+     *
+     * @param level   the minimum level, null for all
+     * @param keyword the keyword the lines contain, null for all
+     */
+    public LogTail(File file, String level, String keyword) {
+        this(file, level, keyword, DEFAULT_CHARSET);
+    }
+
+    /**
+     * @param charset the charset the log is written in
+     */
+    public LogTail(File file, String level, String keyword, Charset charset) {
+        this.file = file;
+        this.level = level == null || level.length() == 0 ? 0 : getLevel(level.toUpperCase());
+        this.keyword = keyword == null || keyword.length() == 0 ? null : keyword;
+        this.charset = charset;
+    }
+
+    private static int getLevel(String name) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equals(name)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the level of the line, the first level name standing as a word.
+     *
+     * @return the index in {@link #LEVELS}, or -1 if the line has none
+     */
+    static int getLineLevel(String line) {
+        int found = -1;
+        int position = Integer.MAX_VALUE;
+        for (int i = 0; i < LEVELS.length; i++) {
+            int index = line.indexOf(LEVELS[i]);
+            while (index >= 0 && index < position) {
+                int end = index + LEVELS[i].length();
+                if ((index == 0 || !Character.isLetter(line.charAt(index - 1)))
+                        && (end == line.length() || !Character.isLetter(line.charAt(end)))) {
+                    found = i;
+                    position = index;
+                    break;
+                }
+                index = line.indexOf(LEVELS[i], end);
+            }
+        }
+        return found;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return file == null ? 0 : file.length();
+    }
+
+    /**
+     * Get the offset to start at: the offset if valid, the start of the first line in the last bytes if negative,
+     * or 0 if the file was truncated or rotated below the offset.
+     *
+     * @param last the bytes before the end to start in when the offset is negative
+     */
+    public long getStart(long offset, long last) throws IOException {
+        long size = size();
+        if (offset > size) {
+            return 0;
+        }
+        if (offset >= 0) {
+            return offset;
+        }
+        if (size <= last) {
+            return 0;
+        }
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel channel = input.getChannel();
+            long position = size - last;
+            int count;
+            while ((count = channel.read(ByteBuffer.wrap(buffer), position)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += count;
+            }
+            return size;
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Read the complete lines after the offset, up to the end of the file when called.
+     *
+     * @param limit the max bytes to read, a partial line at the end is left to the next read
+     * @return the offset after the last line read
+     */
+    public long read(long offset, long limit, LineHandler handler) throws IOException {
+        if (file == null || !file.exists()) {
+            return offset;
+        }
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel channel = input.getChannel();
+            long size = channel.size();
+            long end = limit < size - offset ? offset + limit : size;
+            // the position in the file of the first byte in the buffer
+            long position = offset;
+            int filled = 0;
+            while (position + filled < end) {
+                int length = (int) Math.min(buffer.length - filled, end - position - filled);
+                int count = channel.read(ByteBuffer.wrap(buffer, filled, length), position + filled);
+                if (count <= 0) {
+                    break;
+                }
+                int scan = filled;
+                filled += count;
+                int start = 0;
+                for (int i = scan; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        accept(start, i + 1, position + i + 1, handler);
+                        start = i + 1;
+                    }
+                }
+                if (start == 0 && filled == buffer.length) {
+                    // a line longer than the buffer is handed over in pieces
+                    accept(0, filled, position + filled, handler);
+                    start = filled;
+                }
+                System.arraycopy(buffer, start, buffer, 0, filled - start);
+                position += start;
+                filled -= start;
+            }
+            return position;
+        } finally {
+            input.close();
+        }
+    }
+
+    private void accept(int start, int end, long next, LineHandler handler) throws IOException {
+        while (end > start && (buffer[end - 1] == '\n' || buffer[end - 1] == '\r')) {
+            end--;
+        }
+        String line = new String(buffer, start, end - start, charset);
+        int lineLevel = getLineLevel(line);
+        if (lineLevel >= 0) {
+            accepted = lineLevel >= level;
+        }
+        if (accepted && (keyword == null || line.contains(keyword))) {
+            handler.handle(line, next);
+        }
+    }
+
+    /**
+     * LineHandler
+     */
+    public interface LineHandler {
+
+        /**
+         * @param line   the line without the line separator
+         * @param offset the offset after the line, to continue from
+         */
+        void handle(String line, long offset) throws IOException;
+
+    }
+
+}
@@ -17,19 +17,22 @@
 package com.alibaba.dubboadmin.web.mvc.sysinfo;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.alibaba.dubbo.common.logger.Level;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.ConfigUtils;
+import com.alibaba.dubbo.common.utils.StringUtils;
 import com.alibaba.dubboadmin.registry.common.domain.User;
+import com.alibaba.dubboadmin.registry.common.util.LogTail;
 import com.alibaba.dubboadmin.web.mvc.BaseController;
 
 import org.springframework.stereotype.Controller;
@@ -42,43 +45,129 @@ public class LogsController extends BaseController {
 
     private static final int SHOW_LOG_LENGTH = 30000;
 
+    private static final long POLL_INTERVAL = 1000;
+
+    private static final long HEARTBEAT_INTERVAL = 15000;
+
+    private static final long READ_LIMIT = 1024 * 1024;
+
+    private static final Semaphore FOLLOWERS = new Semaphore(Integer.parseInt(ConfigUtils.getProperty("dubbo.log.follow.max", "8")));
+
+    private static final long FOLLOW_TIMEOUT = Long.parseLong(ConfigUtils.getProperty("dubbo.log.follow.timeout", "300000"));
+
     @RequestMapping("")
     public String index(HttpServletRequest request, HttpServletResponse response, Model model) throws Exception {
         prepare(request, response, model, "index", "logs");
         long size;
+        long offset;
         String content;
         String modified;
+        String filterLevel = request.getParameter("filterLevel");
+        String keyword = request.getParameter("keyword");
         File file = LoggerFactory.getFile();
         if (file != null && file.exists()) {
-            FileInputStream fis = new FileInputStream(file);
-            FileChannel channel = fis.getChannel();
-            size = channel.size();
-            ByteBuffer bb;
-            if (size <= SHOW_LOG_LENGTH) {
-                bb = ByteBuffer.allocate((int) size);
-                channel.read(bb, 0);
-            } else {
-                int pos = (int) (size - SHOW_LOG_LENGTH);
-                bb = ByteBuffer.allocate(SHOW_LOG_LENGTH);
-                channel.read(bb, pos);
-            }
-            bb.flip();
-            content = new String(bb.array()).replace("<", "&lt;").replace(">", "&gt;");
+            LogTail tail = new LogTail(file, filterLevel, keyword);
+            size = tail.size();
+            long start = tail.getStart(-1, SHOW_LOG_LENGTH);
+            final StringBuilder lines = new StringBuilder();
+            offset = tail.read(start, size - start, new LogTail.LineHandler() {
+                public void handle(String line, long next) {
+                    lines.append(line).append('\n');
+                }
+            });
+            content = lines.toString().replace("<", "&lt;").replace(">", "&gt;");
             modified = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(file.lastModified()));
         } else {
             size = 0;
+            offset = 0;
             content = "";
             modified = "Not exist";
         }
         Level level = LoggerFactory.getLevel();
         model.addAttribute("name", file == null ? "" : file.getAbsoluteFile());
         model.addAttribute("size", String.valueOf(size));
+        model.addAttribute("offset", String.valueOf(offset));
         model.addAttribute("level", level == null ? "" : level);
+        model.addAttribute("filterLevel", filterLevel == null ? "" : filterLevel);
+        model.addAttribute("keyword", keyword == null ? "" : keyword);
         model.addAttribute("modified", modified);
         model.addAttribute("content", content);
         return "sysinfo/screen/logs/index";
     }
 
+    /**
+     * Stream the lines appended after the offset as server-sent events, the id of an event is the offset after its line.
+     * With follow the log is polled until the client leaves or the follow timeout, a reconnecting client resumes
+     * from its Last-Event-ID.
+     */
+    @RequestMapping("/stream")
+    public void stream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        File file = LoggerFactory.getFile();
+        if (file == null || !file.exists()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        boolean follow = "true".equals(request.getParameter("follow"));
+        if (follow && !FOLLOWERS.tryAcquire()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many log followers.");
+            return;
+        }
+        try {
+            LogTail tail = new LogTail(file, request.getParameter("filterLevel"), request.getParameter("keyword"));
+            String lastEventId = request.getHeader("Last-Event-ID");
+            String offset = StringUtils.isEmpty(lastEventId) ? request.getParameter("offset") : lastEventId;
+            long position = tail.getStart(StringUtils.isEmpty(offset) ? -1 : Long.parseLong(offset), SHOW_LOG_LENGTH);
+            response.setContentType("text/event-stream");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Cache-Control", "no-cache");
+            final PrintWriter writer = response.getWriter();
+            LogTail.LineHandler handler = new LogTail.LineHandler() {
+                public void handle(String line, long next) {
+                    writer.write("id: " + next + "\n");
+                    // a line break in a field would end it, so each piece goes in a data field
+                    for (String piece : line.split("\r\n|\r|\n", -1)) {
+                        writer.write("data: " + piece + "\n");
+                    }
+                    writer.write("\n");
+                }
+            };
+            long deadline = System.currentTimeMillis() + FOLLOW_TIMEOUT;
+            long heartbeat = System.currentTimeMillis() + HEARTBEAT_INTERVAL;
+            while (true) {
+                long next = tail.read(position, READ_LIMIT, handler);
+                if (writer.checkError()) {
+                    break;
+                }
+                if (next > position) {
+                    position = next;
+                    writer.flush();
+                    continue;
+                }
+                if (!follow || System.currentTimeMillis() > deadline) {
+                    break;
+                }
+                if (System.currentTimeMillis() > heartbeat) {
+                    writer.write(": " + position + "\n\n");
+                    writer.flush();
+                    heartbeat = System.currentTimeMillis() + HEARTBEAT_INTERVAL;
+                }
+                if (tail.size() < position) {
+                    position = 0;
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            writer.flush();
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (follow) {
+                FOLLOWERS.release();
+            }
+        }
+    }
+
     public boolean change(Map<String, Object> context) throws Exception {
         String contextLevel = (String) context.get("level");
         if (contextLevel == null || contextLevel.length() == 0) {
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * RegistryIndexTest
+ */
+public class RegistryIndexTest {
+
+    @Test
+    public void testUpdate() {
+        URL foo = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?application=foo");
+        URL bar = URL.valueOf("dubbo://10.0.0.1:20881/com.foo.BarService?application=bar");
+        URL baz = URL.valueOf("consumer://10.0.0.2/com.foo.FooService?application=foo");
+        Map<Long, URL> added = new HashMap<Long, URL>();
+        added.put(1L, foo);
+        added.put(2L, bar);
+        added.put(3L, baz);
+        RegistryIndex index = RegistryIndex.EMPTY.update(Collections.<Long, URL>emptyMap(), added);
+        Assert.assertEquals(3, index.getAddresses().size());
+        Assert.assertEquals(Collections.singletonMap(3L, baz), index.findByAddress("10.0.0.2"));
+        Assert.assertEquals(2, index.findByApplication("foo").size());
+        Assert.assertEquals(Collections.singleton("com.foo.FooService"), index.findServicesByApplication("foo"));
+
+        RegistryIndex removed = index.update(Collections.singletonMap(2L, bar), Collections.<Long, URL>emptyMap());
+        Assert.assertEquals(Collections.singletonMap(1L, foo), removed.findByAddress("10.0.0.1:20880"));
+        Assert.assertTrue(removed.findByAddress("10.0.0.1:20881").isEmpty());
+        // the keys left without urls are dropped
+        Assert.assertFalse(removed.getAddresses().contains("10.0.0.1:20881"));
+        Assert.assertFalse(removed.getApplications().contains("bar"));
+        Assert.assertEquals(2, removed.findByApplication("foo").size());
+        // the index updated from is unchanged
+        Assert.assertEquals(Collections.singletonMap(2L, bar), index.findByAddress("10.0.0.1:20881"));
+        Assert.assertTrue(index.getApplications().contains("bar"));
+
+        // an url removed and added again is kept
+        RegistryIndex replaced = removed.update(Collections.singletonMap(1L, foo), Collections.singletonMap(1L, foo));
+        Assert.assertEquals(Collections.singletonMap(1L, foo), replaced.findByAddress("10.0.0.1:20880"));
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * RegistryNotifierTest
+ */
+public class RegistryNotifierTest {
+
+    @Test
+    public void testCoalesce() throws Exception {
+        URL foo1 = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?category=providers");
+        URL foo2 = URL.valueOf("dubbo://10.0.0.2:20880/com.foo.FooService?category=providers");
+        URL foo3 = URL.valueOf("dubbo://10.0.0.3:20880/com.foo.FooService?category=providers");
+        URL fooConsumer = URL.valueOf("consumer://10.0.0.4/com.foo.FooService?category=consumers");
+        URL bar = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BarService?category=providers");
+        RecordingNotifier notifier = new RecordingNotifier();
+        try {
+            notifier.notify(Arrays.asList(foo1));
+            Assert.assertTrue(notifier.started.await(5, TimeUnit.SECONDS));
+            // waiting while the first is applied, the latest list of each category is kept
+            notifier.notify(Arrays.asList(foo2));
+            notifier.notify(Arrays.asList(bar));
+            notifier.notify(Arrays.asList(fooConsumer));
+            notifier.notify(Arrays.asList(foo3));
+            Assert.assertEquals(2, notifier.getBacklog());
+            notifier.release.countDown();
+
+            List<List<List<URL>>> applied = notifier.await(2);
+            Assert.assertEquals(Arrays.asList(Arrays.asList(foo1)), applied.get(0));
+            // applied together, each interface in the order first notified
+            Assert.assertEquals(Arrays.asList(Arrays.asList(foo3, fooConsumer), Arrays.asList(bar)), applied.get(1));
+            Assert.assertEquals(5, notifier.getNotified());
+            Assert.assertEquals(2, notifier.getCoalesced());
+            // counted after the notifications are applied
+            long deadline = System.currentTimeMillis() + 5000;
+            while (notifier.getApplied() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(3, notifier.getApplied());
+            Assert.assertEquals(0, notifier.getBacklog());
+        } finally {
+            notifier.destroy();
+        }
+    }
+
+    private static class RecordingNotifier extends RegistryNotifier {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final List<List<List<URL>>> applied = new ArrayList<List<List<URL>>>();
+
+        @Override
+        protected void apply(List<List<URL>> notifications) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                applied.add(notifications);
+                notifyAll();
+            }
+        }
+
+        synchronized List<List<List<URL>>> await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (applied.size() < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            Assert.assertEquals(count, applied.size());
+            return applied;
+        }
+
+    }
+
+}
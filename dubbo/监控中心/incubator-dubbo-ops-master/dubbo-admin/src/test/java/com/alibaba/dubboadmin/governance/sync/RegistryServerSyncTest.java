@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.governance.sync;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubboadmin.governance.sync.util.SyncUtils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * RegistryServerSyncTest
+ */
+public class RegistryServerSyncTest {
+
+    private static final URL FOO = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?application=foo&category=providers&version=1.0.0");
+
+    private static final URL FOO2 = URL.valueOf("dubbo://10.0.0.2:20880/com.foo.FooService?application=foo&category=providers&version=1.0.0");
+
+    private static final URL FOO_CONSUMER = URL.valueOf("consumer://10.0.0.3/com.foo.FooService?application=bar&category=consumers&version=1.0.0");
+
+    @Test
+    public void testApply() {
+        RegistryServerSync sync = new RegistryServerSync();
+        URL foo2 = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?application=foo&category=providers&version=2.0.0");
+        URL bar = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BarService?application=foo&category=providers");
+        // add
+        sync.apply(Arrays.asList(FOO, foo2));
+        sync.apply(Arrays.asList(bar));
+        Map<String, Map<Long, URL>> providers = sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Assert.assertEquals(3, providers.size());
+        Assert.assertEquals(3, sync.getRegistryIndex(Constants.PROVIDERS_CATEGORY).findByAddress("10.0.0.1:20880").size());
+        RegistrySnapshot added = sync.getSnapshot();
+
+        // replace, the version not notified any more is removed
+        sync.apply(Arrays.asList(FOO, FOO2));
+        providers = sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Assert.assertEquals(2, providers.size());
+        Assert.assertEquals(2, providers.get("com.foo.FooService:1.0.0").size());
+        Assert.assertNull(providers.get("com.foo.FooService:2.0.0"));
+        Assert.assertEquals(1, providers.get("com.foo.BarService").size());
+        Assert.assertEquals(2, sync.getRegistryIndex(Constants.PROVIDERS_CATEGORY).findByAddress("10.0.0.1:20880").size());
+        // the snapshot read before is unchanged
+        Assert.assertEquals(3, added.getRegistryCache().get(Constants.PROVIDERS_CATEGORY).size());
+
+        // remove one version
+        sync.apply(Arrays.asList(URL.valueOf("empty://10.0.0.1/com.foo.FooService?category=providers&version=1.0.0")));
+        providers = sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Assert.assertEquals(1, providers.size());
+        Assert.assertTrue(sync.getRegistryIndex(Constants.PROVIDERS_CATEGORY).findByAddress("10.0.0.2:20880").isEmpty());
+
+        // remove all the groups and versions of the interface
+        sync.apply(Arrays.asList(FOO, foo2));
+        Assert.assertEquals(3, sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY).size());
+        sync.apply(Arrays.asList(URL.valueOf("empty://10.0.0.1/com.foo.FooService?category=providers&group=*&version=*")));
+        providers = sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY);
+        Assert.assertEquals(Collections.singleton("com.foo.BarService"), providers.keySet());
+        Assert.assertEquals(Collections.singleton("com.foo.BarService"),
+                sync.getRegistryIndex(Constants.PROVIDERS_CATEGORY).findServicesByApplication("foo"));
+    }
+
+    @Test
+    public void testApplyAll() {
+        RegistryServerSync sync = new RegistryServerSync();
+        URL bar = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BarService?application=foo&category=providers");
+        List<List<URL>> notifications = new ArrayList<List<URL>>();
+        notifications.add(Arrays.asList(FOO, FOO2));
+        notifications.add(Arrays.asList(bar));
+        notifications.add(Arrays.asList(FOO_CONSUMER));
+        // the interfaces applied together are published as one snapshot
+        sync.applyAll(notifications);
+        Assert.assertEquals(1, sync.getVersion());
+        Assert.assertEquals(2, sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY).size());
+        Assert.assertEquals(1, sync.getRegistryCache().get(Constants.CONSUMERS_CATEGORY).size());
+        Assert.assertEquals(3, sync.getRegistryIndex(Constants.PROVIDERS_CATEGORY).findByApplication("foo").size());
+        Assert.assertEquals(4, sync.getUrlIdCount());
+    }
+
+    @Test
+    public void testGetRegistryEntry() {
+        RegistryServerSync sync = new RegistryServerSync();
+        sync.apply(Arrays.asList(FOO, FOO2));
+        sync.apply(Arrays.asList(FOO_CONSUMER));
+        Long foo = getId(sync, Constants.PROVIDERS_CATEGORY, FOO);
+        Long consumer = getId(sync, Constants.CONSUMERS_CATEGORY, FOO_CONSUMER);
+        RegistryEntry entry = sync.getRegistryEntry(foo);
+        Assert.assertEquals(FOO, entry.getUrl());
+        Assert.assertEquals(Constants.PROVIDERS_CATEGORY, entry.getCategory());
+        Assert.assertEquals("com.foo.FooService:1.0.0", entry.getService());
+        Assert.assertNull(sync.getRegistryEntry(null));
+        Assert.assertNull(sync.getRegistryEntry(-1L));
+
+        // the id of another category is not taken as a provider
+        Assert.assertNotNull(SyncUtils.filterFromEntry(sync.getRegistryEntry(foo), Constants.PROVIDERS_CATEGORY));
+        Assert.assertNull(SyncUtils.filterFromEntry(sync.getRegistryEntry(consumer), Constants.PROVIDERS_CATEGORY));
+
+        // a removed url is not found even by an old entry
+        sync.apply(Arrays.asList(FOO2));
+        Assert.assertNull(sync.getRegistryEntry(foo));
+        Assert.assertEquals(FOO2, sync.getRegistryEntry(getId(sync, Constants.PROVIDERS_CATEGORY, FOO2)).getUrl());
+        Assert.assertEquals(FOO_CONSUMER, sync.getRegistryEntry(consumer).getUrl());
+    }
+
+    @Test
+    public void testUrlIds() {
+        RegistryServerSync sync = new RegistryServerSync();
+        sync.apply(Arrays.asList(FOO, FOO2));
+        sync.apply(Arrays.asList(FOO_CONSUMER));
+        Assert.assertEquals(3, sync.getUrlIdCount());
+        Long foo = getId(sync, Constants.PROVIDERS_CATEGORY, FOO);
+        Long foo2 = getId(sync, Constants.PROVIDERS_CATEGORY, FOO2);
+
+        // the unchanged urls keep their ids
+        sync.apply(Arrays.asList(FOO));
+        Assert.assertEquals(2, sync.getUrlIdCount());
+        Assert.assertEquals(foo, getId(sync, Constants.PROVIDERS_CATEGORY, FOO));
+        // a url notified again after its removal gets a new id
+        sync.apply(Arrays.asList(FOO2, FOO));
+        Assert.assertEquals(3, sync.getUrlIdCount());
+        Assert.assertEquals(foo, getId(sync, Constants.PROVIDERS_CATEGORY, FOO));
+        Assert.assertNotEquals(foo2, getId(sync, Constants.PROVIDERS_CATEGORY, FOO2));
+
+        sync.apply(Arrays.asList(URL.valueOf("empty://10.0.0.1/com.foo.FooService?category=providers&group=*&version=*")));
+        Assert.assertEquals(1, sync.getUrlIdCount());
+        sync.apply(Arrays.asList(URL.valueOf("empty://10.0.0.3/com.foo.FooService?category=consumers&version=1.0.0")));
+        Assert.assertEquals(0, sync.getUrlIdCount());
+    }
+
+    @Test
+    public void testUrlIdsAddedAndRemovedInOneBatch() {
+        RegistryServerSync sync = new RegistryServerSync();
+        List<List<URL>> notifications = new ArrayList<List<URL>>();
+        notifications.add(Arrays.asList(FOO, FOO2));
+        notifications.add(Arrays.asList(FOO_CONSUMER));
+        notifications.add(Arrays.asList(FOO2));
+        notifications.add(Arrays.asList(URL.valueOf("empty://10.0.0.3/com.foo.FooService?category=consumers&version=1.0.0")));
+        sync.applyAll(notifications);
+        Assert.assertEquals(1, sync.getVersion());
+        Assert.assertEquals(1, sync.getRegistryCache().get(Constants.PROVIDERS_CATEGORY).get(FOO2.getServiceKey()).size());
+        Assert.assertEquals(1, sync.getUrlIdCount());
+    }
+
+    @Test
+    public void testSameUrlsNotifiedAgain() {
+        RegistryServerSync sync = new RegistryServerSync();
+        sync.apply(Arrays.asList(FOO, FOO2));
+        RegistrySnapshot snapshot = sync.getSnapshot();
+        Assert.assertEquals(1, snapshot.getVersion());
+        sync.apply(Arrays.asList(FOO2, FOO));
+        Assert.assertSame(snapshot, sync.getSnapshot());
+        sync.apply(Arrays.asList(FOO));
+        Assert.assertEquals(2, sync.getVersion());
+    }
+
+    private static Long getId(RegistryServerSync sync, String category, URL url) {
+        for (Map.Entry<Long, URL> entry : sync.getRegistryCache().get(category).get(url.getServiceKey()).entrySet()) {
+            if (entry.getValue().equals(url)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+}
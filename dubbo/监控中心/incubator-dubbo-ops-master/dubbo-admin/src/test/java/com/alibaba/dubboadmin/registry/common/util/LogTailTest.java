@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubboadmin.registry.common.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * LogTailTest
+ */
+public class LogTailTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadAppended() throws Exception {
+        File file = folder.newFile("dubbo.log");
+        append(file, "2018-05-01 10:00:00 [main] INFO admin - started\n"
+                + "2018-05-01 10:00:01 [main] ERROR admin - failed\n"
+                + "java.lang.IllegalStateException: INFORMATION\n"
+                + "\tat com.foo.Bar.run(Bar.java:1)\n"
+                + "2018-05-01 10:00:02 [main] DEBUG admin - detail\n"
+                + "2018-05-01 10:00:03 [main] WARN admin - slo");
+
+        List<String> lines = new ArrayList<String>();
+        long offset = new LogTail(file, null, null).read(0, Long.MAX_VALUE, collect(lines));
+        Assert.assertEquals(5, lines.size());
+        // the partial line is left to the next read
+        Assert.assertEquals(file.length() - "2018-05-01 10:00:03 [main] WARN admin - slo".length(), offset);
+
+        append(file, "w\n");
+        lines.clear();
+        LogTail warn = new LogTail(file, "warn", null);
+        Assert.assertEquals(file.length(), warn.read(offset, Long.MAX_VALUE, collect(lines)));
+        Assert.assertEquals("2018-05-01 10:00:03 [main] WARN admin - slow", lines.get(0));
+
+        // the stack trace follows the level of its error
+        lines.clear();
+        new LogTail(file, "WARN", null).read(0, Long.MAX_VALUE, collect(lines));
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals("\tat com.foo.Bar.run(Bar.java:1)", lines.get(2));
+
+        lines.clear();
+        new LogTail(file, null, "admin").read(0, Long.MAX_VALUE, collect(lines));
+        Assert.assertEquals(4, lines.size());
+
+        LogTail tail = new LogTail(file, null, null);
+        Assert.assertEquals(0, tail.getStart(file.length() + 1, 100));
+        Assert.assertEquals(file.length() - "2018-05-01 10:00:03 [main] WARN admin - slow\n".length(), tail.getStart(-1, 50));
+    }
+
+    @Test
+    public void testLongLine() throws Exception {
+        File file = folder.newFile("long.log");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            line.append('x');
+        }
+        append(file, line + "\nINFO next\n");
+        List<String> lines = new ArrayList<String>();
+        Assert.assertEquals(file.length(), new LogTail(file, null, null).read(0, Long.MAX_VALUE, collect(lines)));
+        Assert.assertEquals(4, lines.size());
+        Assert.assertEquals("INFO next", lines.get(3));
+    }
+
+    @Test
+    public void testCharset() throws Exception {
+        File file = folder.newFile("gbk.log");
+        Charset gbk = Charset.forName("GBK");
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write("INFO \u76d1\u63a7\u4e2d\u5fc3\n".getBytes(gbk));
+        } finally {
+            output.close();
+        }
+        List<String> lines = new ArrayList<String>();
+        new LogTail(file, null, null, gbk).read(0, Long.MAX_VALUE, collect(lines));
+        Assert.assertEquals("INFO \u76d1\u63a7\u4e2d\u5fc3", lines.get(0));
+    }
+
+    @Test
+    public void testDefaultCharset() throws Exception {
+        File file = folder.newFile("default.log");
+        append(file, "INFO caf\u00e9\n");
+        List<String> lines = new ArrayList<String>();
+        new LogTail(file, null, null).read(0, Long.MAX_VALUE, collect(lines));
+        // as the platform default writes it
+        Assert.assertEquals(new String("INFO caf\u00e9".getBytes()), lines.get(0));
+    }
+
+    @Test
+    public void testLineLevel() {
+        Assert.assertEquals(2, LogTail.getLineLevel("2018-05-01 [main]  INFO c.a.d.Foo - WARNING ERROR"));
+        Assert.assertEquals(-1, LogTail.getLineLevel("\tat com.foo.Bar.run(Bar.java:1)"));
+    }
+
+    private static LogTail.LineHandler collect(final List<String> lines) {
+        return new LogTail.LineHandler() {
+            public void handle(String line, long offset) {
+                lines.add(line);
+            }
+        };
+    }
+
+    private static void append(File file, String content) throws IOException {
+        FileOutputStream output = new FileOutputStream(file, true);
+        try {
+            output.write(content.getBytes());
+        } finally {
+            output.close();
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.benchmark.SyntheticDataset;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AggregateBenchmark
+ * <p>
+ * The write thread draining the queue into the aggregator and the lookup index, per record. It lives in the
+ * package of {@link SimpleMonitorService} to drive its aggregate() on the benchmark thread once the monitor
+ * is closed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AggregateBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Param({"10"})
+    public int services;
+
+    @Param({"10"})
+    public int methods;
+
+    @Param({"4"})
+    public int providers;
+
+    @Param({"16"})
+    public int consumers;
+
+    private File directory;
+
+    private SimpleMonitorService monitor;
+
+    private StatisticsRecord[] records;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticDataset.createDirectory("aggregate");
+        System.setProperty("dubbo.statistics.directory", new File(directory, "statistics").getPath());
+        System.setProperty("dubbo.charts.directory", new File(directory, "charts").getPath());
+        System.setProperty("dubbo.charts.prerender", "false");
+        System.setProperty("dubbo.monitor.queue", String.valueOf(BATCH_SIZE));
+        monitor = new SimpleMonitorService();
+        // stop the write thread, the queue is drained by the benchmark alone
+        monitor.close();
+        URL[] reports = new SyntheticDataset(services, methods, providers, consumers)
+                .newReports(System.currentTimeMillis() / MINUTE * MINUTE);
+        records = new StatisticsRecord[reports.length];
+        for (int i = 0; i < reports.length; i++) {
+            records[i] = StatisticsRecord.decode(reports[i], monitor.getSymbols());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticDataset.delete(directory);
+    }
+
+    /**
+     * Fill and drain a batch of the queue as the write thread does, per record.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int aggregate() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (next == records.length) {
+                next = 0;
+            }
+            monitor.offer(records[next++]);
+        }
+        return monitor.aggregate();
+    }
+
+}
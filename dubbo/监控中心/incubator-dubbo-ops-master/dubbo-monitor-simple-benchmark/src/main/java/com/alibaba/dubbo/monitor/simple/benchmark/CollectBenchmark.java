@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.benchmark;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollectBenchmark
+ * <p>
+ * The reports a running monitor absorbs per second from concurrent producers, the writer thread draining
+ * the queue meanwhile. Run with <code>-t</code> to change the number of producers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class CollectBenchmark {
+
+    @Param({"10"})
+    public int services;
+
+    @Param({"10"})
+    public int methods;
+
+    @Param({"4"})
+    public int providers;
+
+    @Param({"16"})
+    public int consumers;
+
+    private File directory;
+
+    private SimpleMonitorService monitor;
+
+    private URL[] reports;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticDataset.createDirectory("collect");
+        System.setProperty("dubbo.statistics.directory", new File(directory, "statistics").getPath());
+        System.setProperty("dubbo.charts.directory", new File(directory, "charts").getPath());
+        System.setProperty("dubbo.charts.prerender", "false");
+        monitor = new SimpleMonitorService();
+        reports = new SyntheticDataset(services, methods, providers, consumers).newReports(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        monitor.close();
+        SyntheticDataset.delete(directory);
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        private int next;
+
+        URL next(URL[] reports) {
+            if (next == reports.length) {
+                next = 0;
+            }
+            return reports[next++];
+        }
+
+    }
+
+    @Benchmark
+    public void collect(Producer producer) {
+        monitor.collect(producer.next(reports));
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.benchmark;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
+import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.pages.StatisticsPageHandler;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatisticsPageBenchmark
+ * <p>
+ * Renders the statistics page of a service over a store of the minutes of today, written once per trial.
+ * Today is never rolled up, so the page reads the minute files during the whole run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StatisticsPageBenchmark {
+
+    @Param({"10"})
+    public int services;
+
+    @Param({"10"})
+    public int methods;
+
+    @Param({"4"})
+    public int providers;
+
+    @Param({"16"})
+    public int consumers;
+
+    @Param({"60"})
+    public int minutes;
+
+    private File directory;
+
+    private SimpleMonitorService monitor;
+
+    private final StatisticsPageHandler handler = new StatisticsPageHandler();
+
+    private URL page;
+
+    private URL expanded;
+
+    private URL json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticDataset.createDirectory("statistics");
+        File statistics = new File(directory, "statistics");
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        new SyntheticDataset(services, methods, providers, consumers).write(new StatisticsStore(statistics),
+                calendar.getTimeInMillis(), minutes);
+        System.setProperty("dubbo.statistics.directory", statistics.getPath());
+        System.setProperty("dubbo.charts.directory", new File(directory, "charts").getPath());
+        System.setProperty("dubbo.charts.prerender", "false");
+        System.setProperty("dubbo.statistics.query.timeout", "0");
+        monitor = new SimpleMonitorService();
+        String query = "/statistics.html?service=" + SyntheticDataset.getService(0)
+                + "&date=" + new SimpleDateFormat("yyyyMMdd").format(calendar.getTime());
+        page = URL.valueOf(query);
+        expanded = URL.valueOf(query + "&expand=consumer");
+        json = URL.valueOf(query + "&expand=provider&format=json");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        monitor.close();
+        SyntheticDataset.delete(directory);
+    }
+
+    @Benchmark
+    public Page page() {
+        return handler.handle(page);
+    }
+
+    @Benchmark
+    public Page expanded() {
+        return handler.handle(expanded);
+    }
+
+    @Benchmark
+    public Page json() {
+        return handler.handle(json);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.benchmark;
+
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsStore;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsSummary;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StatisticsScanBenchmark
+ * <p>
+ * Summarizes every pair of a method over a store holding a whole day of minutes, written once per trial,
+ * the day and the last hour, as the statistics page does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsScanBenchmark {
+
+    @Param({"4"})
+    public int providers;
+
+    @Param({"16"})
+    public int consumers;
+
+    @Param({"60"})
+    public int range;
+
+    private File directory;
+
+    private StatisticsStore store;
+
+    private String day;
+
+    private StatisticsTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = SyntheticDataset.createDirectory("scan");
+        store = new StatisticsStore(directory);
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        new SyntheticDataset(1, 1, providers, consumers).write(store, calendar.getTimeInMillis(), StatisticsStore.SLOTS);
+        day = store.getDays().get(0);
+        table = read();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticDataset.delete(directory);
+    }
+
+    @Benchmark
+    public StatisticsTable read() throws IOException {
+        return store.read(day, SyntheticDataset.getService(0), SyntheticDataset.getMethod(0));
+    }
+
+    @Benchmark
+    public StatisticsSummary day() {
+        return summarize(table, 0, table.getSlots());
+    }
+
+    @Benchmark
+    public StatisticsSummary hour() {
+        return summarize(table, table.getSlots() - range, table.getSlots());
+    }
+
+    @Benchmark
+    public StatisticsSummary readDay() throws IOException {
+        StatisticsTable read = read();
+        return summarize(read, 0, read.getSlots());
+    }
+
+    private static StatisticsSummary summarize(StatisticsTable table, int from, int to) {
+        StatisticsSummary summary = new StatisticsSummary();
+        for (int pair = 0; pair < table.size(); pair++) {
+            summary.append(table, pair, from, to);
+        }
+        return summary;
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.benchmark;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.statistics.MinuteStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsKey;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * SyntheticDataset
+ * <p>
+ * The reports of services &times; methods &times; providers &times; consumers, as sent by the providers,
+ * with a fixed seed so every run of a benchmark sees the same numbers.
+ */
+public class SyntheticDataset {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    private final int services;
+
+    private final int methods;
+
+    private final int providers;
+
+    private final int consumers;
+
+    public SyntheticDataset(int services, int methods, int providers, int consumers) {
+        this.services = services;
+        this.methods = methods;
+        this.providers = providers;
+        this.consumers = consumers;
+    }
+
+    public static String getService(int service) {
+        return "com.alibaba.dubbo.benchmark.Service" + service;
+    }
+
+    public static String getMethod(int method) {
+        return "method" + method;
+    }
+
+    public static String getProvider(int provider) {
+        return "10.0." + (provider / 250) + "." + (provider % 250 + 1);
+    }
+
+    public static String getConsumer(int consumer) {
+        return "10.1." + (consumer / 250) + "." + (consumer % 250 + 1);
+    }
+
+    public int size() {
+        return services * methods * providers * consumers;
+    }
+
+    /**
+     * Create a report of each key.
+     *
+     * @param timestamp the timestamp of the reports in millis, or 0 to leave it to the collection time
+     */
+    public URL[] newReports(long timestamp) {
+        Random random = new Random(size());
+        URL[] reports = new URL[size()];
+        int i = 0;
+        for (int s = 0; s < services; s++) {
+            for (int m = 0; m < methods; m++) {
+                for (int p = 0; p < providers; p++) {
+                    for (int c = 0; c < consumers; c++) {
+                        long success = 1 + random.nextInt(100);
+                        long elapsed = 1 + random.nextInt(50);
+                        Map<String, String> parameters = new HashMap<String, String>();
+                        parameters.put(Constants.APPLICATION_KEY, "application" + s);
+                        parameters.put(MonitorService.INTERFACE, getService(s));
+                        parameters.put(MonitorService.METHOD, getMethod(m));
+                        parameters.put(MonitorService.CONSUMER, getConsumer(c));
+                        parameters.put(MonitorService.SUCCESS, String.valueOf(success));
+                        parameters.put(MonitorService.FAILURE, String.valueOf(random.nextInt(2)));
+                        parameters.put(MonitorService.ELAPSED, String.valueOf(success * elapsed));
+                        parameters.put(MonitorService.CONCURRENT, String.valueOf(1 + random.nextInt(4)));
+                        parameters.put(MonitorService.MAX_ELAPSED, String.valueOf(elapsed * 2));
+                        parameters.put(MonitorService.MAX_CONCURRENT, String.valueOf(4));
+                        if (timestamp > 0) {
+                            parameters.put(Constants.TIMESTAMP_KEY, String.valueOf(timestamp));
+                        }
+                        reports[i++] = new URL(Constants.COUNT_PROTOCOL, getProvider(p), 20880,
+                                getService(s) + "/" + getMethod(m), parameters);
+                    }
+                }
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Create the minute bucket of all the keys.
+     */
+    public Map<StatisticsKey, MinuteStatistics> newBucket(Random random) {
+        Map<StatisticsKey, MinuteStatistics> bucket = new HashMap<StatisticsKey, MinuteStatistics>();
+        for (int s = 0; s < services; s++) {
+            for (int m = 0; m < methods; m++) {
+                for (int p = 0; p < providers; p++) {
+                    for (int c = 0; c < consumers; c++) {
+                        long success = 1 + random.nextInt(100);
+                        long elapsed = 1 + random.nextInt(50);
+                        MinuteStatistics statistics = new MinuteStatistics();
+                        statistics.add(new long[]{success, random.nextInt(2), success * elapsed, 1 + random.nextInt(4), elapsed * 2, 4});
+                        bucket.put(new StatisticsKey(getService(s), getMethod(m), getConsumer(c), getProvider(p),
+                                MonitorService.PROVIDER), statistics);
+                    }
+                }
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Write the minutes from the start into the store, one minute at a time to bound the memory.
+     */
+    public void write(StatisticsStore store, long start, int minutes) throws IOException {
+        Random random = new Random(size());
+        for (int i = 0; i < minutes; i++) {
+            SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets = new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+            buckets.put(start + i * MINUTE, newBucket(random));
+            store.write(buckets);
+        }
+    }
+
+    /**
+     * Create an empty directory under the temporary directory.
+     */
+    public static File createDirectory(String prefix) throws IOException {
+        File directory = File.createTempFile(prefix, "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+        return directory;
+    }
+
+    public static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
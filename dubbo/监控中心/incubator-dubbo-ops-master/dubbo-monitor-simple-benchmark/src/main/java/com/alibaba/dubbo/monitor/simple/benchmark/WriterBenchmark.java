@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.benchmark;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.statistics.MinuteStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsKey;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsRecord;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsStore;
+import com.alibaba.dubbo.monitor.simple.statistics.SymbolTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriterBenchmark
+ * <p>
+ * The write thread alone: decoding the reports and writing a closed minute of all the keys to the store,
+ * the draining of the queue is measured by {@link com.alibaba.dubbo.monitor.simple.AggregateBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WriterBenchmark {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Param({"10"})
+    public int services;
+
+    @Param({"10"})
+    public int methods;
+
+    @Param({"4"})
+    public int providers;
+
+    @Param({"16"})
+    public int consumers;
+
+    private SyntheticDataset dataset;
+
+    private URL[] reports;
+
+    private SymbolTable symbols;
+
+    private int next;
+
+    private File directory;
+
+    private StatisticsStore store;
+
+    private SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataset = new SyntheticDataset(services, methods, providers, consumers);
+        long minute = System.currentTimeMillis() / MINUTE * MINUTE;
+        reports = dataset.newReports(minute);
+        symbols = new SymbolTable();
+        directory = SyntheticDataset.createDirectory("writer");
+        store = new StatisticsStore(directory);
+        buckets = new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+        buckets.put(minute, dataset.newBucket(new Random(dataset.size())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticDataset.delete(directory);
+    }
+
+    /**
+     * Decode a report as collect() does, per report.
+     */
+    @Benchmark
+    public StatisticsRecord decode() {
+        if (next == reports.length) {
+            next = 0;
+        }
+        return StatisticsRecord.decode(reports[next++], symbols);
+    }
+
+    /**
+     * Write a minute of all the keys, per minute.
+     */
+    @Benchmark
+    public void write() throws Exception {
+        store.write(buckets);
+    }
+
+}
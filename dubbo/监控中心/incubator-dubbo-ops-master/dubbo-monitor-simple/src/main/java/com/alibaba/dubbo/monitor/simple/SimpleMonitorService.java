@@ -16,46 +16,56 @@
  */
 package com.alibaba.dubbo.monitor.simple;
 
-import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
 import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.common.utils.NamedThreadFactory;
-import com.alibaba.dubbo.common.utils.NetUtils;
 import com.alibaba.dubbo.monitor.MonitorService;
-import com.alibaba.dubbo.monitor.simple.common.CountUtils;
-
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.axis.DateAxis;
-import org.jfree.chart.plot.XYPlot;
-import org.jfree.data.time.Minute;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
-
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
+import com.alibaba.dubbo.monitor.simple.common.DateFormats;
+import com.alibaba.dubbo.monitor.simple.common.MpscRingBuffer;
+import com.alibaba.dubbo.monitor.simple.statistics.ChartRenderer;
+import com.alibaba.dubbo.monitor.simple.statistics.DrawStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.MethodStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.MinuteStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.Statistics;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsAggregator;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsCompactor;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsIndex;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsKey;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsLookup;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsQuery;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsRecord;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsStore;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsTable;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsTier;
+import com.alibaba.dubbo.monitor.simple.statistics.SymbolTable;
+
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.SortedMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * SimpleMonitorService
@@ -64,19 +74,79 @@ public class SimpleMonitorService implements MonitorService {
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleMonitorService.class);
 
-    private static final String[] types = {SUCCESS, FAILURE, ELAPSED, CONCURRENT, MAX_ELAPSED, MAX_CONCURRENT};
+    private static final long MINUTE = 60 * 1000;
+
+    private static final long DRAW_PERIOD = 300;
+
+    private static final long COMPACT_PERIOD = 60 * 60;
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    // the default retention days of the minute, 5 minutes, hour and day tiers, 0 keeps forever
+    private static final String[] RETENTIONS = {"7", "31", "366", "0"};
 
-    private static final String POISON_PROTOCOL = "poison";
+    // the reports aggregated per drain of the queue
+    private static final int BATCH_SIZE = 1024;
+
+    // the writer parks for the time when the queue is empty
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    // the time close() waits for the write thread to flush the open minutes
+    private static final long CLOSE_TIMEOUT = 10 * 1000;
+
+    private static SimpleMonitorService INSTANCE = null;
     private final ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1, new NamedThreadFactory("DubboMonitorTimer", true));
+    private final ScheduledExecutorService compactExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("DubboMonitorCompactor", true));
     private final ScheduledFuture<?> chartFuture;
+    private final ScheduledFuture<?> compactFuture;
+    private final ThreadPoolExecutor chartExecutor;
     private final Thread writeThread;
-    private final BlockingQueue<URL> queue;
+    private final MpscRingBuffer<StatisticsRecord> queue;
+    private final List<StatisticsRecord> batch = new ArrayList<StatisticsRecord>(BATCH_SIZE);
+    private final SymbolTable symbols = new SymbolTable();
+    // the values of the record being aggregated, only touched by the write thread
+    private final long[] values = Statistics.newValues();
+    private final AtomicLong collected = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final StatisticsAggregator aggregator = new StatisticsAggregator();
+    private final StatisticsStore store;
+    private final StatisticsCompactor compactor;
+    private final StatisticsQuery query;
+    private final StatisticsIndex index;
+    private final StatisticsLookup lookup;
+    private final boolean prerender;
+    private final ConcurrentMap<String, MethodStatistics> methods = new ConcurrentHashMap<String, MethodStatistics>();
+    private final ConcurrentMap<String, MethodStatistics> dirty = new ConcurrentHashMap<String, MethodStatistics>();
+    private long flushedMinute;
+    private boolean scanned;
+    private volatile DrawStatistics lastDraw;
     private String statisticsDirectory = "statistics";
     private String chartsDirectory = "charts";
     private volatile boolean running = true;
 
     public SimpleMonitorService() {
-        queue = new LinkedBlockingQueue<URL>(Integer.parseInt(ConfigUtils.getProperty("dubbo.monitor.queue", "100000")));
+        statisticsDirectory = ConfigUtils.getProperty("dubbo.statistics.directory", statisticsDirectory);
+        chartsDirectory = ConfigUtils.getProperty("dubbo.charts.directory", chartsDirectory);
+        Map<StatisticsTier, Long> retentions = new HashMap<StatisticsTier, Long>();
+        for (int i = 0; i < StatisticsTier.TIERS.length; i++) {
+            StatisticsTier tier = StatisticsTier.TIERS[i];
+            retentions.put(tier, Long.parseLong(ConfigUtils.getProperty("dubbo.statistics.retention." + tier.getName(), RETENTIONS[i])) * DAY);
+        }
+        compactor = new StatisticsCompactor(new File(statisticsDirectory), retentions);
+        store = compactor.getStore(StatisticsTier.MINUTE);
+        query = new StatisticsQuery(compactor, Long.parseLong(ConfigUtils.getProperty("dubbo.statistics.query.timeout", "3000")));
+        index = new StatisticsIndex(symbols, Long.parseLong(ConfigUtils.getProperty("dubbo.statistics.lookup.window", "60")) * MINUTE,
+                System.currentTimeMillis());
+        lookup = new StatisticsLookup(index, query);
+        prerender = Boolean.parseBoolean(ConfigUtils.getProperty("dubbo.charts.prerender", "true"));
+        int chartThreads = ConfigUtils.getProperty("dubbo.charts.threads") == null ? Runtime.getRuntime().availableProcessors()
+                : Integer.parseInt(ConfigUtils.getProperty("dubbo.charts.threads"));
+        // a full queue makes the timer thread render the chart itself, which holds back the submission
+        chartExecutor = new ThreadPoolExecutor(chartThreads, chartThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(chartThreads * 2), new NamedThreadFactory("DubboMonitorChart", true),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        queue = new MpscRingBuffer<StatisticsRecord>(Integer.parseInt(ConfigUtils.getProperty("dubbo.monitor.queue", "100000")));
         writeThread = new Thread(new Runnable() {
             public void run() {
                 while (running) {
@@ -90,6 +160,14 @@ public class SimpleMonitorService implements MonitorService {
                         }
                     }
                 }
+                try {
+                    while (aggregate() > 0) {
+                        // aggregate the reports left on close
+                    }
+                    flush(aggregator.drain(Long.MAX_VALUE)); // flush the open minutes on close
+                } catch (Throwable t) {
+                    logger.error("Unexpected error occur at flush stat log, cause: " + t.getMessage(), t);
+                }
             }
         });
         writeThread.setDaemon(true);
@@ -103,298 +181,416 @@ public class SimpleMonitorService implements MonitorService {
                     logger.error("Unexpected error occur at draw stat chart, cause: " + t.getMessage(), t);
                 }
             }
-        }, 1, 300, TimeUnit.SECONDS);
-        statisticsDirectory = ConfigUtils.getProperty("dubbo.statistics.directory");
-        chartsDirectory = ConfigUtils.getProperty("dubbo.charts.directory");
-    }
-
-    private static void createChart(String key, String service, String method, String date, String[] types, Map<String, long[]> data, double[] summary, String path) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMddHHmm");
-        DecimalFormat numberFormat = new DecimalFormat("###,##0.##");
-        TimeSeriesCollection xydataset = new TimeSeriesCollection();
-        for (int i = 0; i < types.length; i++) {
-            String type = types[i];
-            TimeSeries timeseries = new TimeSeries(type);
-            for (Map.Entry<String, long[]> entry : data.entrySet()) {
+        }, 1, DRAW_PERIOD, TimeUnit.SECONDS);
+        compactFuture = compactExecutor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
                 try {
-                    timeseries.add(new Minute(dateFormat.parse(date + entry.getKey())), entry.getValue()[i]);
-                } catch (ParseException e) {
-                    logger.error(e.getMessage(), e);
+                    compact(); // roll up and expire statistics
+                } catch (Throwable t) {
+                    logger.error("Unexpected error occur at compact statistics, cause: " + t.getMessage(), t);
                 }
             }
-            xydataset.addSeries(timeseries);
-        }
-        JFreeChart jfreechart = ChartFactory.createTimeSeriesChart(
-                "max: " + numberFormat.format(summary[0]) + (summary[1] >= 0 ? " min: " + numberFormat.format(summary[1]) : "")
-                        + " avg: " + numberFormat.format(summary[2]) + (summary[3] >= 0 ? " sum: " + numberFormat.format(summary[3]) : ""),
-                toDisplayService(service) + "  " + method + "  " + toDisplayDate(date), key, xydataset, true, true, false);
-        jfreechart.setBackgroundPaint(Color.WHITE);
-        XYPlot xyplot = (XYPlot) jfreechart.getPlot();
-        xyplot.setBackgroundPaint(Color.WHITE);
-        xyplot.setDomainGridlinePaint(Color.GRAY);
-        xyplot.setRangeGridlinePaint(Color.GRAY);
-        xyplot.setDomainGridlinesVisible(true);
-        xyplot.setRangeGridlinesVisible(true);
-        DateAxis dateaxis = (DateAxis) xyplot.getDomainAxis();
-        dateaxis.setDateFormatOverride(new SimpleDateFormat("HH:mm"));
-        BufferedImage image = jfreechart.createBufferedImage(600, 300);
-        try {
-            if (logger.isInfoEnabled()) {
-                logger.info("write chart: " + path);
-            }
-            File methodChartFile = new File(path);
-            File methodChartDir = methodChartFile.getParentFile();
-            if (methodChartDir != null && !methodChartDir.exists()) {
-                methodChartDir.mkdirs();
-            }
-            FileOutputStream output = new FileOutputStream(methodChartFile);
-            try {
-                ImageIO.write(image, "png", output);
-                output.flush();
-            } finally {
-                output.close();
-            }
-        } catch (IOException e) {
-            logger.warn(e.getMessage(), e);
-        }
+        }, 60, COMPACT_PERIOD, TimeUnit.SECONDS);
+        INSTANCE = this;
     }
 
-    private static String toDisplayService(String service) {
-        int i = service.lastIndexOf('.');
-        if (i >= 0) {
-            return service.substring(i + 1);
-        }
-        return service;
-    }
-
-    private static String toDisplayDate(String date) {
-        try {
-            return new SimpleDateFormat("yyyy-MM-dd").format(new SimpleDateFormat("yyyyMMdd").parse(date));
-        } catch (ParseException e) {
-            return date;
-        }
+    public static SimpleMonitorService getInstance() {
+        return INSTANCE;
     }
 
     public void close() {
         try {
             running = false;
-            queue.offer(new URL(POISON_PROTOCOL, NetUtils.LOCALHOST, 0));
+            LockSupport.unpark(writeThread);
+            writeThread.join(CLOSE_TIMEOUT);
         } catch (Throwable t) {
             logger.warn(t.getMessage(), t);
         }
         try {
             chartFuture.cancel(true);
+            compactFuture.cancel(true);
+            chartExecutor.shutdownNow();
+            compactExecutor.shutdownNow();
         } catch (Throwable t) {
             logger.warn(t.getMessage(), t);
         }
     }
 
     private void write() throws Exception {
-        URL statistics = queue.take();
-        if (POISON_PROTOCOL.equals(statistics.getProtocol())) {
+        if (aggregate() == 0) {
+            LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+        long minute = System.currentTimeMillis() / MINUTE * MINUTE;
+        if (minute > flushedMinute) {
+            flushedMinute = minute;
+            flush(aggregator.drain(minute));
+            index.publish(minute);
+            symbols.reclaim(index.getIds());
+        }
+    }
+
+    /**
+     * Aggregate a batch of the queued records, only called by the write thread or, after {@link #close()},
+     * by the benchmarks.
+     *
+     * @return the number of the records taken from the queue
+     */
+    int aggregate() {
+        int count = queue.drain(batch, BATCH_SIZE);
+        for (StatisticsRecord record : batch) {
+            record.copyValues(values);
+            aggregator.add(record.getTimestamp() / MINUTE * MINUTE, record.getKey(symbols), values);
+            index.add(record, values);
+        }
+        batch.clear();
+        return count;
+    }
+
+    /**
+     * Write the closed buckets and track them for the charts, only called by the write thread or, with nothing
+     * collected, by the tests.
+     */
+    void flush(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets) {
+        if (buckets.isEmpty()) {
             return;
         }
-        String timestamp = statistics.getParameter(Constants.TIMESTAMP_KEY);
-        Date now;
-        if (timestamp == null || timestamp.length() == 0) {
-            now = new Date();
-        } else if (timestamp.length() == "yyyyMMddHHmmss".length()) {
-            now = new SimpleDateFormat("yyyyMMddHHmmss").parse(timestamp);
-        } else {
-            now = new Date(Long.parseLong(timestamp));
+        try {
+            Map<String, MethodStatistics> tracked = resolve(buckets);
+            store.write(buckets);
+            track(buckets, tracked);
+        } catch (Throwable t) {
+            logger.error(t.getMessage(), t);
         }
-        String day = new SimpleDateFormat("yyyyMMdd").format(now);
-        SimpleDateFormat format = new SimpleDateFormat("HHmm");
-        for (String key : types) {
-            try {
-                String type;
-                String consumer;
-                String provider;
-                if (statistics.hasParameter(PROVIDER)) {
-                    type = CONSUMER;
-                    consumer = statistics.getHost();
-                    provider = statistics.getParameter(PROVIDER);
-                    int i = provider.indexOf(':');
-                    if (i > 0) {
-                        provider = provider.substring(0, i);
-                    }
-                } else {
-                    type = PROVIDER;
-                    consumer = statistics.getParameter(CONSUMER);
-                    int i = consumer == null ? -1 : consumer.indexOf(':');
-                    if (i > 0) {
-                        consumer = consumer.substring(0, i);
-                    }
-                    provider = statistics.getHost();
-                }
-                String filename = statisticsDirectory
-                        + "/" + day
-                        + "/" + statistics.getServiceInterface()
-                        + "/" + statistics.getParameter(METHOD)
-                        + "/" + consumer
-                        + "/" + provider
-                        + "/" + type + "." + key;
-                File file = new File(filename);
-                File dir = file.getParentFile();
-                if (dir != null && !dir.exists()) {
-                    dir.mkdirs();
+    }
+
+    /**
+     * Load the running aggregates of the methods in the buckets before the buckets are written,
+     * so a method loaded from the store is not merged twice.
+     */
+    private Map<String, MethodStatistics> resolve(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets) throws IOException {
+        SimpleDateFormat dayFormat = DateFormats.get("yyyyMMdd");
+        Map<String, MethodStatistics> tracked = new HashMap<String, MethodStatistics>();
+        for (Map.Entry<Long, Map<StatisticsKey, MinuteStatistics>> bucket : buckets.entrySet()) {
+            String day = dayFormat.format(new Date(bucket.getKey()));
+            for (StatisticsKey key : bucket.getValue().keySet()) {
+                String methodKey = MethodStatistics.getKey(day, key.getService(), key.getMethod());
+                if (!tracked.containsKey(methodKey)) {
+                    tracked.put(methodKey, getMethodStatistics(methodKey, day, key.getService(), key.getMethod()));
                 }
-                FileWriter writer = new FileWriter(file, true);
-                try {
-                    writer.write(format.format(now) + " " + statistics.getParameter(key, 0) + "\n");
-                    writer.flush();
-                } finally {
-                    writer.close();
+            }
+        }
+        return tracked;
+    }
+
+    /**
+     * Merge the written buckets into the running chart aggregates and mark the methods dirty,
+     * the new version is only seen once the minutes are in the store.
+     */
+    private void track(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets, Map<String, MethodStatistics> tracked) {
+        SimpleDateFormat dayFormat = DateFormats.get("yyyyMMdd");
+        Calendar calendar = Calendar.getInstance();
+        for (Map.Entry<Long, Map<StatisticsKey, MinuteStatistics>> bucket : buckets.entrySet()) {
+            calendar.setTimeInMillis(bucket.getKey());
+            String day = dayFormat.format(calendar.getTime());
+            int slot = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+            for (Map.Entry<StatisticsKey, MinuteStatistics> entry : bucket.getValue().entrySet()) {
+                StatisticsKey key = entry.getKey();
+                String methodKey = MethodStatistics.getKey(day, key.getService(), key.getMethod());
+                MethodStatistics statistics = tracked.get(methodKey);
+                statistics.merge(StatisticsStore.getSideIndex(key.getSide()), slot, entry.getValue().getValues());
+                if (prerender) {
+                    dirty.put(methodKey, statistics);
                 }
-            } catch (Throwable t) {
-                logger.error(t.getMessage(), t);
             }
         }
     }
 
-    private void draw() {
-        File rootDir = new File(statisticsDirectory);
-        if (!rootDir.exists()) {
-            return;
+    /**
+     * Get a snapshot of the running aggregates of the method, loaded from the store if not in memory.
+     *
+     * @return the snapshot, or null if no statistics of the method.
+     */
+    public MethodStatistics getMethodStatistics(String day, String service, String method) throws IOException {
+        String key = MethodStatistics.getKey(day, service, method);
+        if (!methods.containsKey(key) && store.lastModified(day, service, method) == 0) {
+            return null;
         }
-        File[] dateDirs = rootDir.listFiles();
-        for (File dateDir : dateDirs) {
-            File[] serviceDirs = dateDir.listFiles();
-            for (File serviceDir : serviceDirs) {
-                File[] methodDirs = serviceDir.listFiles();
-                for (File methodDir : methodDirs) {
-                    String methodUri = chartsDirectory + "/" + dateDir.getName() + "/" + serviceDir.getName() + "/" + methodDir.getName();
-
-                    File successFile = new File(methodUri + "/" + SUCCESS + ".png");
-                    long successModified = successFile.lastModified();
-                    boolean successChanged = false;
-                    Map<String, long[]> successData = new HashMap<String, long[]>();
-                    double[] successSummary = new double[4];
-
-                    File elapsedFile = new File(methodUri + "/" + ELAPSED + ".png");
-                    long elapsedModified = elapsedFile.lastModified();
-                    boolean elapsedChanged = false;
-                    Map<String, long[]> elapsedData = new HashMap<String, long[]>();
-                    double[] elapsedSummary = new double[4];
-                    long elapsedMax = 0;
-
-                    File[] consumerDirs = methodDir.listFiles();
-                    for (File consumerDir : consumerDirs) {
-                        File[] providerDirs = consumerDir.listFiles();
-                        for (File providerDir : providerDirs) {
-                            File consumerSuccessFile = new File(providerDir, CONSUMER + "." + SUCCESS);
-                            File providerSuccessFile = new File(providerDir, PROVIDER + "." + SUCCESS);
-                            appendData(new File[]{consumerSuccessFile, providerSuccessFile}, successData, successSummary);
-                            if (consumerSuccessFile.lastModified() > successModified
-                                    || providerSuccessFile.lastModified() > successModified) {
-                                successChanged = true;
-                            }
+        return getMethodStatistics(key, day, service, method).snapshot();
+    }
 
-                            File consumerElapsedFile = new File(providerDir, CONSUMER + "." + ELAPSED);
-                            File providerElapsedFile = new File(providerDir, PROVIDER + "." + ELAPSED);
-                            appendData(new File[]{consumerElapsedFile, providerElapsedFile}, elapsedData, elapsedSummary);
-                            elapsedMax = Math.max(elapsedMax, CountUtils.max(new File(providerDir, CONSUMER + "." + MAX_ELAPSED)));
-                            elapsedMax = Math.max(elapsedMax, CountUtils.max(new File(providerDir, PROVIDER + "." + MAX_ELAPSED)));
-                            if (consumerElapsedFile.lastModified() > elapsedModified
-                                    || providerElapsedFile.lastModified() > elapsedModified) {
-                                elapsedChanged = true;
-                            }
-                        }
-                    }
-                    if (elapsedChanged) {
-                        divData(elapsedData, successData);
-                        elapsedSummary[0] = elapsedMax;
-                        elapsedSummary[1] = -1;
-                        elapsedSummary[2] = successSummary[3] == 0 ? 0 : elapsedSummary[3] / successSummary[3];
-                        elapsedSummary[3] = -1;
-                        createChart("ms/t", serviceDir.getName(), methodDir.getName(), dateDir.getName(), new String[]{CONSUMER, PROVIDER}, elapsedData, elapsedSummary, elapsedFile.getAbsolutePath());
-                    }
-                    if (successChanged) {
-                        divData(successData, 60);
-                        successSummary[0] = successSummary[0] / 60;
-                        successSummary[1] = successSummary[1] / 60;
-                        successSummary[2] = successSummary[2] / 60;
-                        createChart("t/s", serviceDir.getName(), methodDir.getName(), dateDir.getName(), new String[]{CONSUMER, PROVIDER}, successData, successSummary, successFile.getAbsolutePath());
-                    }
-                }
+    private MethodStatistics getMethodStatistics(String key, String day, String service, String method) throws IOException {
+        MethodStatistics statistics = methods.get(key);
+        if (statistics == null) {
+            statistics = load(day, service, method);
+            MethodStatistics previous = methods.putIfAbsent(key, statistics);
+            if (previous != null) {
+                statistics = previous;
             }
         }
+        return statistics;
     }
 
-    private void divData(Map<String, long[]> successMap, long unit) {
-        for (long[] success : successMap.values()) {
-            for (int i = 0; i < success.length; i++) {
-                success[i] = success[i] / unit;
-            }
+    public StatisticsStore getStore() {
+        return store;
+    }
+
+    private MethodStatistics load(String day, String service, String method) throws IOException {
+        MethodStatistics statistics = new MethodStatistics(day, service, method, StatisticsStore.SLOTS);
+        StatisticsTable table = store.read(day, service, method);
+        if (table != null) {
+            statistics.load(table);
         }
+        return statistics;
+    }
+
+    public StatisticsCompactor getCompactor() {
+        return compactor;
+    }
+
+    public StatisticsQuery getQuery() {
+        return query;
     }
 
-    private void divData(Map<String, long[]> elapsedMap, Map<String, long[]> successMap) {
-        for (Map.Entry<String, long[]> entry : elapsedMap.entrySet()) {
-            long[] elapsed = entry.getValue();
-            long[] success = successMap.get(entry.getKey());
-            for (int i = 0; i < elapsed.length; i++) {
-                elapsed[i] = success[i] == 0 ? 0 : elapsed[i] / success[i];
+    private void compact() throws IOException {
+        long now = System.currentTimeMillis();
+        compactor.compact(now);
+        // the charts are drawn from the minute statistics, so they expire with them
+        long retention = compactor.getRetention(StatisticsTier.MINUTE);
+        File[] days = new File(chartsDirectory).listFiles();
+        if (retention > 0 && days != null) {
+            for (File day : days) {
+                if (day.isDirectory() && StatisticsTier.MINUTE.isPeriod(day.getName())
+                        && StatisticsTier.MINUTE.getEnd(day.getName()) + retention <= now) {
+                    delete(day);
+                }
             }
         }
     }
 
-    private void appendData(File[] files, Map<String, long[]> data, double[] summary) {
-        for (int i = 0; i < files.length; i++) {
-            File file = files[i];
-            if (!file.exists()) {
-                continue;
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
             }
-            try {
-                BufferedReader reader = new BufferedReader(new FileReader(file));
-                try {
-                    int sum = 0;
-                    int cnt = 0;
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        int index = line.indexOf(" ");
-                        if (index > 0) {
-                            String key = line.substring(0, index).trim();
-                            long value = Long.parseLong(line.substring(index + 1).trim());
-                            long[] values = data.get(key);
-                            if (values == null) {
-                                values = new long[files.length];
-                                data.put(key, values);
+        }
+        if (!file.delete() && file.exists()) {
+            logger.warn("Failed to delete chart file " + file);
+        }
+    }
+
+    public long getDrawPeriod() {
+        return DRAW_PERIOD;
+    }
+
+    public DrawStatistics getLastDraw() {
+        return lastDraw;
+    }
+
+    /**
+     * Render the charts of the methods changed since the last cycle, only called by the timer or, between its
+     * cycles, by the tests.
+     */
+    void draw() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        if (!scanned && prerender) {
+            scan();
+            scanned = true;
+        }
+        final AtomicInteger rendered = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (Map.Entry<String, MethodStatistics> entry : dirty.entrySet()) {
+            // removed before rendering, so the data merged meanwhile marks the method dirty again
+            if (dirty.remove(entry.getKey(), entry.getValue())) {
+                final MethodStatistics statistics = entry.getValue().snapshot();
+                futures.add(chartExecutor.submit(new Runnable() {
+                    public void run() {
+                        try {
+                            if (draw(statistics)) {
+                                rendered.incrementAndGet();
+                            } else {
+                                skipped.incrementAndGet();
                             }
-                            values[i] += value;
-                            summary[0] = Math.max(summary[0], values[i]);
-                            summary[1] = summary[1] == 0 ? values[i] : Math.min(summary[1], values[i]);
-                            sum += value;
-                            cnt++;
+                        } catch (Throwable t) {
+                            failed.incrementAndGet();
+                            logger.warn("Failed to draw chart of " + statistics.getKey() + ", cause: " + t.getMessage(), t);
                         }
                     }
-                    if (i == 0) {
-                        summary[3] += sum;
-                        summary[2] = (summary[2] + (sum / cnt)) / 2;
+                }));
+            }
+        }
+        // wait for the whole cycle, so the next cycle never overlaps this one
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                logger.warn(e.getMessage(), e);
+            }
+        }
+        // the completed days are frozen, their aggregates are reloaded only if late data arrives
+        String today = DateFormats.get("yyyyMMdd").format(new Date());
+        for (Iterator<MethodStatistics> iterator = methods.values().iterator(); iterator.hasNext(); ) {
+            MethodStatistics statistics = iterator.next();
+            if (statistics.getDay().compareTo(today) < 0 && !dirty.containsKey(statistics.getKey())) {
+                iterator.remove();
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        lastDraw = new DrawStatistics(start, elapsed, rendered.get(), skipped.get(), failed.get());
+        if (elapsed > DRAW_PERIOD * 1000) {
+            logger.warn("Draw stat chart took " + elapsed + "ms, longer than the period of " + DRAW_PERIOD
+                    + " seconds, rendered: " + rendered.get() + ", skipped: " + skipped.get() + ", failed: " + failed.get());
+        }
+    }
+
+    /**
+     * Catch up the charts of the statistics written before the start, only once.
+     */
+    private void scan() {
+        for (String date : store.getDays()) {
+            for (String service : store.getServices(date)) {
+                for (String method : store.getMethods(date, service)) {
+                    long modified = store.lastModified(date, service, method);
+                    if (modified <= getChartFile(date, service, method, SUCCESS).lastModified()
+                            && modified <= getChartFile(date, service, method, ELAPSED).lastModified()) {
+                        continue;
+                    }
+                    String key = MethodStatistics.getKey(date, service, method);
+                    try {
+                        if (!dirty.containsKey(key)) {
+                            dirty.putIfAbsent(key, load(date, service, method));
+                        }
+                    } catch (IOException e) {
+                        logger.warn(e.getMessage(), e);
                     }
-                } finally {
-                    reader.close();
                 }
-            } catch (IOException e) {
-                logger.warn(e.getMessage(), e);
             }
         }
     }
 
+    private File getChartFile(String date, String service, String method, String type) {
+        return new File(chartsDirectory + "/" + date + "/" + service + "/" + method + "/" + type + ".png");
+    }
+
+    /**
+     * Render the charts of the method on a thread of the render pool.
+     *
+     * @return false if no chart was rendered
+     */
+    boolean draw(MethodStatistics statistics) throws IOException {
+        String date = statistics.getDay();
+        String service = statistics.getService();
+        String method = statistics.getMethod();
+        boolean rendered = false;
+        for (String type : new String[]{SUCCESS, ELAPSED}) {
+            byte[] png = ChartRenderer.render(statistics, type);
+            if (png == null) {
+                continue;
+            }
+            File file = getChartFile(date, service, method, type);
+            if (logger.isInfoEnabled()) {
+                logger.info("write chart: " + file.getAbsolutePath());
+            }
+            File dir = file.getParentFile();
+            if (dir != null && !dir.exists()) {
+                dir.mkdirs();
+            }
+            FileOutputStream output = new FileOutputStream(file);
+            try {
+                output.write(png);
+                output.flush();
+            } finally {
+                output.close();
+            }
+            rendered = true;
+        }
+        return rendered;
+    }
+
     public void count(URL statistics) {
         collect(statistics);
     }
 
     public void collect(URL statistics) {
-        queue.offer(statistics);
-        if (logger.isInfoEnabled()) {
-            logger.info("collect statistics: " + statistics);
+        StatisticsRecord record;
+        try {
+            record = StatisticsRecord.decode(statistics, symbols);
+        } catch (Throwable t) {
+            dropped.incrementAndGet();
+            logger.warn("Failed to decode statistics " + statistics + ", cause: " + t.getMessage());
+            return;
+        }
+        offer(record);
+        if (logger.isDebugEnabled()) {
+            logger.debug("collect statistics: " + statistics);
         }
     }
 
+    /**
+     * Queue a decoded record for the write thread.
+     *
+     * @return false if the queue is full
+     */
+    boolean offer(StatisticsRecord record) {
+        if (queue.offer(record)) {
+            collected.incrementAndGet();
+            return true;
+        }
+        overflowed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * The symbols the records are decoded with.
+     */
+    SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * The number of the reports queued by {@link #collect(URL)}.
+     */
+    public long getCollected() {
+        return collected.get();
+    }
+
+    /**
+     * The number of the reports rejected by the full queue.
+     */
+    public long getOverflowed() {
+        return overflowed.get();
+    }
+
+    /**
+     * The number of the malformed reports dropped by {@link #collect(URL)}.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * Lookup the statistics, e.g. <code>count://10.20.153.10/com.foo.BarService?method=bar&side=provider&from=-15m</code>,
+     * the conditions may be glob patterns and the recent minutes are answered from memory.
+     *
+     * @see StatisticsLookup#lookup(URL)
+     */
     public List<URL> lookup(URL query) {
-        // TODO Auto-generated method stub
-        return null;
+        try {
+            return lookup.lookup(query);
+        } catch (Throwable t) {
+            logger.warn("Failed to lookup statistics " + query + ", cause: " + t.getMessage(), t);
+            return new ArrayList<URL>();
+        }
     }
 
 }
\ No newline at end of file
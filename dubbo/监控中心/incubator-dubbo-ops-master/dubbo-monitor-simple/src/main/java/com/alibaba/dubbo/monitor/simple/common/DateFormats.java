@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DateFormats
+ * <p>
+ * The date formats cached per thread, a SimpleDateFormat is neither thread safe nor cheap to create.
+ */
+public class DateFormats {
+
+    private static final ThreadLocal<Map<String, SimpleDateFormat>> FORMATS = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+        @Override
+        protected Map<String, SimpleDateFormat> initialValue() {
+            return new HashMap<String, SimpleDateFormat>();
+        }
+    };
+
+    private DateFormats() {
+    }
+
+    /**
+     * Get the format of the pattern owned by the current thread, it must not be handed to another thread.
+     */
+    public static SimpleDateFormat get(String pattern) {
+        Map<String, SimpleDateFormat> formats = FORMATS.get();
+        SimpleDateFormat format = formats.get(pattern);
+        if (format == null) {
+            format = new SimpleDateFormat(pattern);
+            formats.put(pattern, format);
+        }
+        return format;
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MpscRingBuffer
+ * <p>
+ * A bounded lock-free multi-producer single-consumer queue over a pre-sized ring. Every cell carries a sequence:
+ * a producer claims the tail by CAS when the cell sequence equals the tail, and publishes the element by
+ * advancing the sequence, the consumer takes the element once published and frees the cell for the next lap.
+ * Offers never block and never allocate, a full ring rejects the element.
+ */
+public class MpscRingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // only read and written by the consumer
+    private long head;
+
+    // the consumer position published for size()
+    private volatile long consumed;
+
+    /**
+     * @param capacity the capacity, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal ring buffer capacity " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<E>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Offer an element, from any thread.
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // publish after the element store
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // the consumer has not freed the cell of the previous lap
+                return false;
+            }
+            // another producer claimed the position, retry on the new tail
+        }
+    }
+
+    /**
+     * Take the next element, from the consumer thread only.
+     *
+     * @return the element, or null if the ring is empty
+     */
+    public E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, head + capacity);
+        head++;
+        consumed = head;
+        return element;
+    }
+
+    /**
+     * Move up to the limit of the published elements into the collection, from the consumer thread only.
+     *
+     * @return the number of the elements moved
+     */
+    public int drain(Collection<? super E> collection, int limit) {
+        long position = head;
+        int count = 0;
+        while (count < limit) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            collection.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.lazySet(index, position + capacity);
+            position++;
+            count++;
+        }
+        head = position;
+        consumed = position;
+        return count;
+    }
+
+    /**
+     * The approximate number of the elements in the ring.
+     */
+    public int size() {
+        long size = tail.get() - consumed;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+}
@@ -33,6 +33,8 @@ public class Page {
 
     private final List<List<String>> rows;
 
+    private final PageRows<?> pageRows;
+
     public Page(String navigation) {
         this(navigation, (String) null, (String[]) null, (List<List<String>>) null);
     }
@@ -53,6 +55,19 @@ public class Page {
         this.title = title;
         this.columns = columns;
         this.rows = rows;
+        this.pageRows = null;
+    }
+
+    /**
+     * A page with the rows rendered on demand, paginated and sortable.
+     */
+    public Page(String navigation, String title,
+                String[] columns, PageRows<?> pageRows) {
+        this.navigation = navigation;
+        this.title = title;
+        this.columns = Arrays.asList(columns);
+        this.rows = null;
+        this.pageRows = pageRows;
     }
 
     private static List<List<String>> stringToList(String str) {
@@ -79,4 +94,8 @@ public class Page {
         return rows;
     }
 
+    public PageRows<?> getPageRows() {
+        return pageRows;
+    }
+
 }
\ No newline at end of file
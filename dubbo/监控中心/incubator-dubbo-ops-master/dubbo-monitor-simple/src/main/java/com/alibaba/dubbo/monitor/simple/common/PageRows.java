@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * PageRows
+ * <p>
+ * The rows of a page backed by the items they are rendered from, so a page with many rows is filtered, sorted and
+ * sliced before rendering and only the rows of the requested page are ever built.
+ */
+public abstract class PageRows<T> {
+
+    private final Collection<T> items;
+
+    private List<T> selected;
+
+    public PageRows(Collection<T> items) {
+        this.items = items == null ? Collections.<T>emptyList() : items;
+    }
+
+    /**
+     * The number of all the rows.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Get the plain text of the cell, used to filter and sort the rows.
+     *
+     * @return the text, or null if the column can not be filtered nor sorted.
+     */
+    protected abstract String getText(T item, int column);
+
+    /**
+     * Add the html cells of the item to the row.
+     */
+    protected abstract void addCells(T item, List<String> row);
+
+    /**
+     * Keep the rows with a cell containing the keyword and sort them by the column.
+     *
+     * @param keyword    the keyword, ignored if empty
+     * @param columns    the number of the columns
+     * @param column     the column to sort by, ignored if negative
+     * @param descending sort in the descending order
+     * @return the number of the rows kept
+     */
+    public int select(String keyword, int columns, final int column, boolean descending) {
+        List<T> list;
+        if (keyword != null && keyword.length() > 0) {
+            list = new ArrayList<T>();
+            for (T item : items) {
+                if (matches(item, keyword, columns)) {
+                    list.add(item);
+                }
+            }
+        } else {
+            list = items instanceof List ? (List<T>) items : new ArrayList<T>(items);
+        }
+        if (column >= 0 && list.size() > 1 && getText(list.get(0), column) != null) {
+            if (list == items) {
+                list = new ArrayList<T>(list);
+            }
+            Comparator<T> comparator = new Comparator<T>() {
+                public int compare(T o1, T o2) {
+                    String t1 = getText(o1, column);
+                    String t2 = getText(o2, column);
+                    return t1 == null ? (t2 == null ? 0 : -1) : (t2 == null ? 1 : t1.compareTo(t2));
+                }
+            };
+            Collections.sort(list, descending ? Collections.reverseOrder(comparator) : comparator);
+        }
+        selected = list;
+        return list.size();
+    }
+
+    /**
+     * Whether the selected rows can be sorted by the column.
+     */
+    public boolean isSortable(int column) {
+        return selected != null && !selected.isEmpty() && getText(selected.get(0), column) != null;
+    }
+
+    private boolean matches(T item, String keyword, int columns) {
+        for (int i = 0; i < columns; i++) {
+            String text = getText(item, i);
+            if (text != null && text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the rows of the selected items in the range, building them one by one.
+     */
+    public Iterable<List<String>> getRows(final int offset, final int limit) {
+        if (selected == null) {
+            select(null, 0, -1, false);
+        }
+        final List<T> list = selected;
+        final int from = Math.min(offset, list.size());
+        final int to = (int) Math.min((long) from + limit, list.size());
+        return new Iterable<List<String>>() {
+            public Iterator<List<String>> iterator() {
+                return new Iterator<List<String>>() {
+                    private final List<String> row = new ArrayList<String>();
+                    private int index = from;
+
+                    public boolean hasNext() {
+                        return index < to;
+                    }
+
+                    public List<String> next() {
+                        row.clear();
+                        addCells(list.get(index++), row);
+                        return row;
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import com.alibaba.dubbo.common.URL;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * TimeRange
+ * <p>
+ * The range of a statistics query, a <code>date</code> for the whole day, or <code>from</code> and <code>to</code>
+ * as <code>yyyyMMdd</code>, <code>yyyyMMddHHmm</code>, <code>yyyyMMddHHmmss</code>, millis, or relative to now
+ * as <code>-15m</code>, <code>-2h</code>, <code>-7d</code>. The <code>to</code> is now if absent.
+ */
+public class TimeRange {
+
+    private final String date;
+
+    private final String fromParameter;
+
+    private final String toParameter;
+
+    private final long from;
+
+    private final long to;
+
+    private TimeRange(String date, String fromParameter, String toParameter, long from, long to) {
+        this.date = date;
+        this.fromParameter = fromParameter;
+        this.toParameter = toParameter;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static TimeRange parse(URL url) {
+        return parse(url.getParameter("date"), url.getParameter("from"), url.getParameter("to"));
+    }
+
+    public static TimeRange parse(String date, String from, String to) {
+        long now = System.currentTimeMillis();
+        if (from != null && from.length() > 0) {
+            long start = parseTime(from, now);
+            long end = to == null || to.length() == 0 ? now : parseTime(to, now);
+            if (end <= start) {
+                throw new IllegalArgumentException("The from " + from + " is not before the to " + to + ".");
+            }
+            return new TimeRange(null, from, to, start, end);
+        }
+        if (date == null || date.length() == 0) {
+            date = DateFormats.get("yyyyMMdd").format(new Date(now));
+        }
+        long start = parseTime(date, now);
+        return new TimeRange(date, null, null, start, nextDay(start));
+    }
+
+    public static long parseTime(String value, long now) {
+        try {
+            if (value.length() > 1 && value.startsWith("-")) {
+                long amount = Long.parseLong(value.substring(1, value.length() - 1));
+                char unit = value.charAt(value.length() - 1);
+                if (unit == 'm') {
+                    return now - amount * 60 * 1000L;
+                } else if (unit == 'h') {
+                    return now - amount * 60 * 60 * 1000L;
+                } else if (unit == 'd') {
+                    return now - amount * 24 * 60 * 60 * 1000L;
+                }
+            } else if (value.length() == 8) {
+                return DateFormats.get("yyyyMMdd").parse(value).getTime();
+            } else if (value.length() == 12) {
+                return DateFormats.get("yyyyMMddHHmm").parse(value).getTime();
+            } else if (value.length() == 14) {
+                return DateFormats.get("yyyyMMddHHmmss").parse(value).getTime();
+            } else {
+                return Long.parseLong(value);
+            }
+        } catch (NumberFormatException e) {
+            // illegal below
+        } catch (ParseException e) {
+            // illegal below
+        }
+        throw new IllegalArgumentException("Illegal time " + value + ", please input yyyyMMdd, yyyyMMddHHmm, millis or -15m, -2h, -7d.");
+    }
+
+    private static long nextDay(long start) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(start);
+        calendar.add(Calendar.DATE, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * The day, or null for a from/to range.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    /**
+     * The parameters to link the same range, relative ranges are kept relative.
+     */
+    public String toParameters() {
+        if (date != null) {
+            return "&date=" + date;
+        }
+        return "&from=" + fromParameter + (toParameter == null || toParameter.length() == 0 ? "" : "&to=" + toParameter);
+    }
+
+    @Override
+    public String toString() {
+        if (date != null) {
+            return date;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        return format.format(new Date(from)) + " ~ " + format.format(new Date(to));
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.container;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.utils.ConcurrentHashSet;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CategoryUrls
+ * <p>
+ * The registered urls of one category, providers or consumers, with the maps derived from them. A notification
+ * carries all the urls of a service, it is diffed against the previous one and only the added and removed urls
+ * touch the derived maps. The updates are serialized, the lookups may run concurrently.
+ */
+class CategoryUrls {
+
+    private final Set<String> knownApplications;
+
+    private final Map<String, List<URL>> serviceUrls = new ConcurrentHashMap<String, List<URL>>();
+
+    private final Map<String, Set<String>> serviceApplications = new ConcurrentHashMap<String, Set<String>>();
+
+    private final Map<String, Set<String>> applicationServices = new ConcurrentHashMap<String, Set<String>>();
+
+    private final UrlIndex hosts = new UrlIndex();
+
+    private final UrlIndex applications = new UrlIndex();
+
+    // the previous urls of each service and the number of them by application, touched by the updates only
+    private final Map<String, Set<URL>> serviceUrlSets = new HashMap<String, Set<URL>>();
+
+    private final Map<String, Map<String, int[]>> serviceApplicationCounts = new HashMap<String, Map<String, int[]>>();
+
+    /**
+     * @param knownApplications the set to add every application seen to, it is never shrunk
+     */
+    CategoryUrls(Set<String> knownApplications) {
+        this.knownApplications = knownApplications;
+    }
+
+    /**
+     * Replace the urls of the service.
+     *
+     * @param urls all the urls of the service, empty to remove the service
+     * @return the number of the added and removed urls
+     */
+    synchronized int update(String service, List<URL> urls) {
+        Set<URL> previous = serviceUrlSets.get(service);
+        if (previous == null) {
+            previous = Collections.emptySet();
+        }
+        Set<URL> current = new HashSet<URL>(urls);
+        int changed = 0;
+        for (URL url : previous) {
+            if (!current.contains(url)) {
+                remove(service, url);
+                changed++;
+            }
+        }
+        for (URL url : current) {
+            if (!previous.contains(url)) {
+                add(service, url);
+                changed++;
+            }
+        }
+        if (current.isEmpty()) {
+            serviceUrlSets.remove(service);
+            serviceUrls.remove(service);
+        } else {
+            serviceUrlSets.put(service, current);
+            serviceUrls.put(service, urls);
+        }
+        return changed;
+    }
+
+    private void add(String service, URL url) {
+        String application = url.getParameter(Constants.APPLICATION_KEY);
+        hosts.add(url.getHost(), url);
+        applications.add(application, url);
+        if (application == null || application.length() == 0) {
+            return;
+        }
+        knownApplications.add(application);
+        Map<String, int[]> counts = serviceApplicationCounts.get(service);
+        if (counts == null) {
+            counts = new HashMap<String, int[]>();
+            serviceApplicationCounts.put(service, counts);
+        }
+        int[] count = counts.get(application);
+        if (count == null) {
+            count = new int[1];
+            counts.put(application, count);
+            link(serviceApplications, service, application);
+            link(applicationServices, application, service);
+        }
+        count[0]++;
+    }
+
+    private void remove(String service, URL url) {
+        String application = url.getParameter(Constants.APPLICATION_KEY);
+        hosts.remove(url.getHost(), url);
+        applications.remove(application, url);
+        if (application == null || application.length() == 0) {
+            return;
+        }
+        Map<String, int[]> counts = serviceApplicationCounts.get(service);
+        int[] count = counts == null ? null : counts.get(application);
+        if (count == null || --count[0] > 0) {
+            return;
+        }
+        counts.remove(application);
+        if (counts.isEmpty()) {
+            serviceApplicationCounts.remove(service);
+        }
+        unlink(serviceApplications, service, application);
+        unlink(applicationServices, application, service);
+    }
+
+    private static void link(Map<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        if (values == null) {
+            values = new ConcurrentHashSet<String>();
+            map.put(key, values);
+        }
+        values.add(value);
+    }
+
+    private static void unlink(Map<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    Map<String, List<URL>> getServiceUrls() {
+        return Collections.unmodifiableMap(serviceUrls);
+    }
+
+    List<URL> getUrlsByService(String service) {
+        List<URL> urls = serviceUrls.get(service);
+        return urls == null ? null : Collections.unmodifiableList(urls);
+    }
+
+    List<URL> getUrlsByHost(String host) {
+        return hosts.get(host);
+    }
+
+    List<URL> getUrlsByApplication(String application) {
+        return applications.get(application);
+    }
+
+    Set<String> getApplicationsByService(String service) {
+        return serviceApplications.get(service);
+    }
+
+    Set<String> getServicesByApplication(String application) {
+        return applicationServices.get(application);
+    }
+
+    Collection<String> getHosts() {
+        return hosts.keys();
+    }
+
+}
@@ -21,6 +21,8 @@ import com.alibaba.dubbo.common.logger.LoggerFactory;
 import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.common.utils.NetUtils;
 import com.alibaba.dubbo.container.Container;
+import com.alibaba.dubbo.monitor.simple.servlet.ChartServlet;
+import com.alibaba.dubbo.monitor.simple.servlet.LogServlet;
 import com.alibaba.dubbo.monitor.simple.servlet.PageServlet;
 import com.alibaba.dubbo.monitor.simple.servlet.ResourceFilter;
 
@@ -61,6 +63,12 @@ public class JettyContainer implements Container {
             resourceHolder.setInitParameter("resources", resources);
         }
 
+        ServletHolder chartHolder = handler.addServletWithMapping(ChartServlet.class, "/chart.png");
+        chartHolder.setInitOrder(1);
+
+        ServletHolder logHolder = handler.addServletWithMapping(LogServlet.class, "/log.stream");
+        logHolder.setInitOrder(1);
+
         ServletHolder pageHolder = handler.addServletWithMapping(PageServlet.class, "/*");
         pageHolder.setInitParameter("pages", ConfigUtils.getProperty(JETTY_PAGES));
         pageHolder.setInitOrder(2);
@@ -34,7 +34,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * RegistryContainer
@@ -44,13 +44,13 @@ public class RegistryContainer implements Container {
     public static final String REGISTRY_ADDRESS = "dubbo.registry.address";
     private static RegistryContainer INSTANCE = null;
     private final Set<String> applications = new ConcurrentHashSet<String>();
-    private final Map<String, Set<String>> providerServiceApplications = new ConcurrentHashMap<String, Set<String>>();
-    private final Map<String, Set<String>> providerApplicationServices = new ConcurrentHashMap<String, Set<String>>();
-    private final Map<String, Set<String>> consumerServiceApplications = new ConcurrentHashMap<String, Set<String>>();
-    private final Map<String, Set<String>> consumerApplicationServices = new ConcurrentHashMap<String, Set<String>>();
     private final Set<String> services = new ConcurrentHashSet<String>();
-    private final Map<String, List<URL>> serviceProviders = new ConcurrentHashMap<String, List<URL>>();
-    private final Map<String, List<URL>> serviceConsumers = new ConcurrentHashMap<String, List<URL>>();
+    private final CategoryUrls providers = new CategoryUrls(applications);
+    private final CategoryUrls consumers = new CategoryUrls(applications);
+    private final AtomicLong notified = new AtomicLong();
+    private final AtomicLong notifyChanged = new AtomicLong();
+    private final AtomicLong notifyTime = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
     private RegistryService registry;
 
     public RegistryContainer() {
@@ -75,10 +75,10 @@ public class RegistryContainer implements Container {
     public Set<String> getDependencies(String application, boolean reverse) {
         if (reverse) {
             Set<String> dependencies = new HashSet<String>();
-            Set<String> services = providerApplicationServices.get(application);
+            Set<String> services = providers.getServicesByApplication(application);
             if (services != null && services.size() > 0) {
                 for (String service : services) {
-                    Set<String> applications = consumerServiceApplications.get(service);
+                    Set<String> applications = consumers.getApplicationsByService(service);
                     if (applications != null && applications.size() > 0) {
                         dependencies.addAll(applications);
                     }
@@ -87,10 +87,10 @@ public class RegistryContainer implements Container {
             return dependencies;
         } else {
             Set<String> dependencies = new HashSet<String>();
-            Set<String> services = consumerApplicationServices.get(application);
+            Set<String> services = consumers.getServicesByApplication(application);
             if (services != null && services.size() > 0) {
                 for (String service : services) {
-                    Set<String> applications = providerServiceApplications.get(service);
+                    Set<String> applications = providers.getApplicationsByService(service);
                     if (applications != null && applications.size() > 0) {
                         dependencies.addAll(applications);
                     }
@@ -105,92 +105,69 @@ public class RegistryContainer implements Container {
     }
 
     public Map<String, List<URL>> getServiceProviders() {
-        return Collections.unmodifiableMap(serviceProviders);
+        return providers.getServiceUrls();
     }
 
     public List<URL> getProvidersByService(String service) {
-        List<URL> urls = serviceProviders.get(service);
-        return urls == null ? null : Collections.unmodifiableList(urls);
+        return providers.getUrlsByService(service);
     }
 
     public List<URL> getProvidersByHost(String host) {
-        List<URL> urls = new ArrayList<URL>();
-        if (host != null && host.length() > 0) {
-            for (List<URL> providers : serviceProviders.values()) {
-                for (URL url : providers) {
-                    if (host.equals(url.getHost())) {
-                        urls.add(url);
-                    }
-                }
-            }
-        }
-        return urls;
+        return providers.getUrlsByHost(host);
     }
 
     public List<URL> getProvidersByApplication(String application) {
-        List<URL> urls = new ArrayList<URL>();
-        if (application != null && application.length() > 0) {
-            for (List<URL> providers : serviceProviders.values()) {
-                for (URL url : providers) {
-                    if (application.equals(url.getParameter(Constants.APPLICATION_KEY))) {
-                        urls.add(url);
-                    }
-                }
-            }
-        }
-        return urls;
+        return providers.getUrlsByApplication(application);
     }
 
     public Set<String> getHosts() {
-        Set<String> addresses = new HashSet<String>();
-        for (List<URL> providers : serviceProviders.values()) {
-            for (URL url : providers) {
-                addresses.add(url.getHost());
-            }
-        }
-        for (List<URL> providers : serviceConsumers.values()) {
-            for (URL url : providers) {
-                addresses.add(url.getHost());
-            }
-        }
+        Set<String> addresses = new HashSet<String>(providers.getHosts());
+        addresses.addAll(consumers.getHosts());
         return addresses;
     }
 
     public Map<String, List<URL>> getServiceConsumers() {
-        return Collections.unmodifiableMap(serviceConsumers);
+        return consumers.getServiceUrls();
     }
 
     public List<URL> getConsumersByService(String service) {
-        List<URL> urls = serviceConsumers.get(service);
-        return urls == null ? null : Collections.unmodifiableList(urls);
+        return consumers.getUrlsByService(service);
     }
 
     public List<URL> getConsumersByHost(String host) {
-        List<URL> urls = new ArrayList<URL>();
-        if (host != null && host.length() > 0) {
-            for (List<URL> consumers : serviceConsumers.values()) {
-                for (URL url : consumers) {
-                    if (host.equals(url.getHost())) {
-                        urls.add(url);
-                    }
-                }
-            }
-        }
-        return Collections.unmodifiableList(urls);
+        return Collections.unmodifiableList(consumers.getUrlsByHost(host));
     }
 
     public List<URL> getConsumersByApplication(String application) {
-        List<URL> urls = new ArrayList<URL>();
-        if (application != null && application.length() > 0) {
-            for (List<URL> consumers : serviceConsumers.values()) {
-                for (URL url : consumers) {
-                    if (application.equals(url.getParameter(Constants.APPLICATION_KEY))) {
-                        urls.add(url);
-                    }
-                }
-            }
-        }
-        return urls;
+        return consumers.getUrlsByApplication(application);
+    }
+
+    /**
+     * The number of the notifications received from the registry.
+     */
+    public long getNotified() {
+        return notified.get();
+    }
+
+    /**
+     * The number of the urls added or removed by the notifications.
+     */
+    public long getNotifyChanged() {
+        return notifyChanged.get();
+    }
+
+    /**
+     * The total time spent processing the notifications, in nanoseconds.
+     */
+    public long getNotifyTime() {
+        return notifyTime.get();
+    }
+
+    /**
+     * The version of the registry snapshot, increased whenever a notification changes it.
+     */
+    public long getVersion() {
+        return version.get();
     }
 
     public void start() {
@@ -209,84 +186,62 @@ public class RegistryContainer implements Container {
                 Constants.CHECK_KEY, String.valueOf(false));
         registry.subscribe(subscribeUrl, new NotifyListener() {
             public void notify(List<URL> urls) {
-                if (urls == null || urls.size() == 0) {
-                    return;
-                }
-                Map<String, List<URL>> proivderMap = new HashMap<String, List<URL>>();
-                Map<String, List<URL>> consumerMap = new HashMap<String, List<URL>>();
-                for (URL url : urls) {
-                    String application = url.getParameter(Constants.APPLICATION_KEY);
-                    if (application != null && application.length() > 0) {
-                        applications.add(application);
-                    }
-                    String service = url.getServiceInterface();
-                    services.add(service);
-                    String category = url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
-                    if (Constants.PROVIDERS_CATEGORY.equals(category)) {
-                        if (Constants.EMPTY_PROTOCOL.equals(url.getProtocol())) {
-                            serviceProviders.remove(service);
-                        } else {
-                            List<URL> list = proivderMap.get(service);
-                            if (list == null) {
-                                list = new ArrayList<URL>();
-                                proivderMap.put(service, list);
-                            }
-                            list.add(url);
-                            if (application != null && application.length() > 0) {
-                                Set<String> serviceApplications = providerServiceApplications.get(service);
-                                if (serviceApplications == null) {
-                                    providerServiceApplications.put(service, new ConcurrentHashSet<String>());
-                                    serviceApplications = providerServiceApplications.get(service);
-                                }
-                                serviceApplications.add(application);
-
-                                Set<String> applicationServices = providerApplicationServices.get(application);
-                                if (applicationServices == null) {
-                                    providerApplicationServices.put(application, new ConcurrentHashSet<String>());
-                                    applicationServices = providerApplicationServices.get(application);
-                                }
-                                applicationServices.add(service);
-                            }
-                        }
-                    } else if (Constants.CONSUMERS_CATEGORY.equals(category)) {
-                        if (Constants.EMPTY_PROTOCOL.equals(url.getProtocol())) {
-                            serviceConsumers.remove(service);
-                        } else {
-                            List<URL> list = consumerMap.get(service);
-                            if (list == null) {
-                                list = new ArrayList<URL>();
-                                consumerMap.put(service, list);
-                            }
-                            list.add(url);
-                            if (application != null && application.length() > 0) {
-                                Set<String> serviceApplications = consumerServiceApplications.get(service);
-                                if (serviceApplications == null) {
-                                    consumerServiceApplications.put(service, new ConcurrentHashSet<String>());
-                                    serviceApplications = consumerServiceApplications.get(service);
-                                }
-                                serviceApplications.add(application);
-
-                                Set<String> applicationServices = consumerApplicationServices.get(application);
-                                if (applicationServices == null) {
-                                    consumerApplicationServices.put(application, new ConcurrentHashSet<String>());
-                                    applicationServices = consumerApplicationServices.get(application);
-                                }
-                                applicationServices.add(service);
-                            }
-
-                        }
-                    }
-                }
-                if (proivderMap != null && proivderMap.size() > 0) {
-                    serviceProviders.putAll(proivderMap);
-                }
-                if (consumerMap != null && consumerMap.size() > 0) {
-                    serviceConsumers.putAll(consumerMap);
-                }
+                RegistryContainer.this.notify(urls);
             }
         });
     }
 
+    /**
+     * Apply a notification of the registry, each service in it carries all its urls of the category.
+     */
+    void notify(List<URL> urls) {
+        if (urls == null || urls.size() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<String, List<URL>> proivderMap = new HashMap<String, List<URL>>();
+        Map<String, List<URL>> consumerMap = new HashMap<String, List<URL>>();
+        for (URL url : urls) {
+            String category = url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+            if (Constants.PROVIDERS_CATEGORY.equals(category)) {
+                group(proivderMap, url);
+            } else if (Constants.CONSUMERS_CATEGORY.equals(category)) {
+                group(consumerMap, url);
+            }
+        }
+        int changed = 0;
+        boolean added = false;
+        for (Map.Entry<String, List<URL>> entry : proivderMap.entrySet()) {
+            added |= services.add(entry.getKey());
+            changed += providers.update(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, List<URL>> entry : consumerMap.entrySet()) {
+            added |= services.add(entry.getKey());
+            changed += consumers.update(entry.getKey(), entry.getValue());
+        }
+        if (added || changed > 0) {
+            version.incrementAndGet();
+        }
+        notified.incrementAndGet();
+        notifyChanged.addAndGet(changed);
+        notifyTime.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Group the url by service, an empty url stands for a service without urls.
+     */
+    private static void group(Map<String, List<URL>> map, URL url) {
+        String service = url.getServiceInterface();
+        List<URL> list = map.get(service);
+        if (list == null) {
+            list = new ArrayList<URL>();
+            map.put(service, list);
+        }
+        if (!Constants.EMPTY_PROTOCOL.equals(url.getProtocol())) {
+            list.add(url);
+        }
+    }
+
     public void stop() {
     }
 
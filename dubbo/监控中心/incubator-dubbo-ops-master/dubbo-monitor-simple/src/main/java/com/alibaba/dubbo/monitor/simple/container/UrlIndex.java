@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.container;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.utils.ConcurrentHashSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UrlIndex
+ * <p>
+ * An inverted index of the registered urls by a key such as the host or the application. The updates are
+ * serialized by the caller, the lookups may run concurrently and cost the size of their result.
+ */
+public class UrlIndex {
+
+    private final Map<String, Set<URL>> index = new ConcurrentHashMap<String, Set<URL>>();
+
+    public void add(String key, URL url) {
+        if (key == null || key.length() == 0) {
+            return;
+        }
+        Set<URL> urls = index.get(key);
+        if (urls == null) {
+            urls = new ConcurrentHashSet<URL>();
+            index.put(key, urls);
+        }
+        urls.add(url);
+    }
+
+    public void remove(String key, URL url) {
+        if (key == null || key.length() == 0) {
+            return;
+        }
+        Set<URL> urls = index.get(key);
+        if (urls != null) {
+            urls.remove(url);
+            if (urls.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Get a copy of the urls of the key.
+     */
+    public List<URL> get(String key) {
+        Set<URL> urls = key == null ? null : index.get(key);
+        return urls == null ? new ArrayList<URL>() : new ArrayList<URL>(urls);
+    }
+
+    public Collection<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+}
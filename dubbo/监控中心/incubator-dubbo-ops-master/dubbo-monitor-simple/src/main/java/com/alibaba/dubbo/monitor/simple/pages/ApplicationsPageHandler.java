@@ -17,6 +17,7 @@
 package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Menu;
 import com.alibaba.dubbo.monitor.simple.common.Page;
 import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
@@ -30,6 +31,7 @@ import java.util.Set;
  * ApplicationsPageHandler
  */
 @Menu(name = "Applications", desc = "Show application dependencies.", order = 1000)
+@Cacheable
 public class ApplicationsPageHandler implements PageHandler {
 
     public Page handle(URL url) {
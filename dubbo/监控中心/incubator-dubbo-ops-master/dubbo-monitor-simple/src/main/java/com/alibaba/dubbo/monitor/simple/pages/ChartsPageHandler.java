@@ -17,15 +17,13 @@
 package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
-import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.common.TimeRange;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
 
-import java.io.File;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -38,21 +36,15 @@ public class ChartsPageHandler implements PageHandler {
         if (service == null || service.length() == 0) {
             throw new IllegalArgumentException("Please input service parameter.");
         }
-        String date = url.getParameter("date");
-        if (date == null || date.length() == 0) {
-            date = new SimpleDateFormat("yyyyMMdd").format(new Date());
+        TimeRange range = TimeRange.parse(url);
+        SimpleMonitorService monitorService = SimpleMonitorService.getInstance();
+        if (monitorService == null) {
+            throw new IllegalStateException("The monitor service is not started.");
         }
+        String parameters = range.toParameters();
         List<List<String>> rows = new ArrayList<List<String>>();
-        String directory = ConfigUtils.getProperty("dubbo.charts.directory");
-        File chartsDir = new File(directory);
-        String filename = directory + "/" + date + "/" + service;
-        File serviceDir = new File(filename);
-        if (serviceDir.exists()) {
-            File[] methodDirs = serviceDir.listFiles();
-            for (File methodDir : methodDirs) {
-                String methodUri = chartsDir.getName() + "/" + date + "/" + service + "/" + methodDir.getName() + "/";
-                rows.add(toRow(methodDir, methodUri));
-            }
+        for (String method : monitorService.getQuery().getMethods(service, range.getFrom(), range.getTo())) {
+            rows.add(toRow(service, method, parameters));
         }
         StringBuilder nav = new StringBuilder();
         nav.append("<a href=\"services.html\">Services</a> &gt; ");
@@ -63,33 +55,42 @@ public class ChartsPageHandler implements PageHandler {
         nav.append(service);
         nav.append("\">Consumers</a> | <a href=\"statistics.html?service=");
         nav.append(service);
-        nav.append("&date=");
-        nav.append(date);
+        nav.append(parameters);
         nav.append("\">Statistics</a> | Charts &gt; <input type=\"text\" style=\"width: 65px;\" name=\"date\" value=\"");
-        nav.append(date);
+        nav.append(range.getDate() == null ? "" : range.getDate());
         nav.append("\" onkeyup=\"if (event.keyCode == 10 || event.keyCode == 13) {window.location.href='charts.html?service=");
         nav.append(service);
-        nav.append("&date=' + this.value;}\" />");
-        return new Page(nav.toString(), "Charts (" + rows.size() + ")",
+        nav.append("&date=' + this.value;}\" /> | ");
+        appendRange(nav, service, "-1h", "Last hour");
+        nav.append(" | ");
+        appendRange(nav, service, "-7d", "Last 7 days");
+        nav.append(" | ");
+        appendRange(nav, service, "-30d", "Last 30 days");
+        return new Page(nav.toString(), "Charts " + range + " (" + rows.size() + ")",
                 new String[]{"Method", "Requests per second (QPS)", "Average response time (ms)"}, rows);
     }
 
-    private List<String> toRow(File dir, String uri) {
+    private void appendRange(StringBuilder nav, String service, String from, String name) {
+        nav.append("<a href=\"charts.html?service=");
+        nav.append(service);
+        nav.append("&from=");
+        nav.append(from);
+        nav.append("\">");
+        nav.append(name);
+        nav.append("</a>");
+    }
+
+    private List<String> toRow(String service, String method, String parameters) {
         List<String> row = new ArrayList<String>();
-        row.add(dir.getName());
-        if (new File(dir, MonitorService.SUCCESS + ".png").exists()) {
-            String url = uri + MonitorService.SUCCESS + ".png";
-            row.add("<a href=\"" + url + "\" target=\"_blank\"><img src=\"" + url + "\" style=\"width: 100%;\" border=\"0\" /></a>");
-        } else {
-            row.add("");
-        }
-        if (new File(dir, MonitorService.ELAPSED + ".png").exists()) {
-            String url = uri + MonitorService.ELAPSED + ".png";
-            row.add("<a href=\"" + url + "\" target=\"_blank\"><img src=\"" + url + "\" style=\"width: 100%;\" border=\"0\" /></a>");
-        } else {
-            row.add("");
-        }
+        row.add(method);
+        String uri = "chart.png?service=" + service + "&method=" + method + parameters + "&type=";
+        row.add(toImage(uri + MonitorService.SUCCESS));
+        row.add(toImage(uri + MonitorService.ELAPSED));
         return row;
     }
 
-}
\ No newline at end of file
+    private String toImage(String url) {
+        return "<a href=\"" + url + "\" target=\"_blank\"><img src=\"" + url + "\" style=\"width: 100%;\" border=\"0\" /></a>";
+    }
+
+}
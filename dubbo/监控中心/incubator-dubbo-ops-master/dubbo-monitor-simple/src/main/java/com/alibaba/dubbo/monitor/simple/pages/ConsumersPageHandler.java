@@ -18,16 +18,18 @@ package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.utils.NetUtils;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.common.PageRows;
 import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * ConsumersPageHandler
  */
+@Cacheable
 public class ConsumersPageHandler implements PageHandler {
 
     public Page handle(URL url) {
@@ -35,17 +37,8 @@ public class ConsumersPageHandler implements PageHandler {
         String host = url.getParameter("host");
         String application = url.getParameter("application");
         if (service != null && service.length() > 0) {
-            List<List<String>> rows = new ArrayList<List<String>>();
             List<URL> consumers = RegistryContainer.getInstance().getConsumersByService(service);
-            if (consumers != null && consumers.size() > 0) {
-                for (URL u : consumers) {
-                    List<String> row = new ArrayList<String>();
-                    String s = u.toFullString();
-                    row.add(s.replace("&", "&amp;"));
-                    row.add("<button onclick=\"if(confirm('Confirm unsubscribe consumer?')){window.location.href='unsubscribe.html?service=" + service + "&consumer=" + URL.encode(s) + "';}\">Unsubscribe</button>");
-                    rows.add(row);
-                }
-            }
+            PageRows<URL> rows = getRows(consumers, "service=" + service);
             return new Page("<a href=\"services.html\">Services</a> &gt; " + service
                     + " &gt; <a href=\"providers.html?service=" + service
                     + "\">Providers</a> | Consumers | <a href=\"statistics.html?service=" + service
@@ -53,31 +46,13 @@ public class ConsumersPageHandler implements PageHandler {
                     + "\">Charts</a>", "Consumers (" + rows.size() + ")",
                     new String[]{"Consumer URL:", "Unsubscribe"}, rows);
         } else if (host != null && host.length() > 0) {
-            List<List<String>> rows = new ArrayList<List<String>>();
             List<URL> consumers = RegistryContainer.getInstance().getConsumersByHost(host);
-            if (consumers != null && consumers.size() > 0) {
-                for (URL u : consumers) {
-                    List<String> row = new ArrayList<String>();
-                    String s = u.toFullString();
-                    row.add(s.replace("&", "&amp;"));
-                    row.add("<button onclick=\"if(confirm('Confirm unsubscribe consumer?')){window.location.href='unsubscribe.html?host=" + host + "&consumer=" + URL.encode(s) + "';}\">Unsubscribe</button>");
-                    rows.add(row);
-                }
-            }
+            PageRows<URL> rows = getRows(consumers, "host=" + host);
             return new Page("<a href=\"hosts.html\">Hosts</a> &gt; " + NetUtils.getHostName(host) + "/" + host + " &gt; <a href=\"providers.html?host=" + host + "\">Providers</a> | Consumers", "Consumers (" + rows.size() + ")",
                     new String[]{"Consumer URL:", "Unsubscribe"}, rows);
         } else if (application != null && application.length() > 0) {
-            List<List<String>> rows = new ArrayList<List<String>>();
             List<URL> consumers = RegistryContainer.getInstance().getConsumersByApplication(application);
-            if (consumers != null && consumers.size() > 0) {
-                for (URL u : consumers) {
-                    List<String> row = new ArrayList<String>();
-                    String s = u.toFullString();
-                    row.add(s.replace("&", "&amp;"));
-                    row.add("<button onclick=\"if(confirm('Confirm unsubscribe consumer?')){window.location.href='unsubscribe.html?application=" + application + "&consumer=" + URL.encode(s) + "';}\">Unsubscribe</button>");
-                    rows.add(row);
-                }
-            }
+            PageRows<URL> rows = getRows(consumers, "application=" + application);
             return new Page("<a href=\"applications.html\">Applications</a> &gt; " + application + " &gt; <a href=\"providers.html?application=" + application + "\">Providers</a> | Consumers | <a href=\"dependencies.html?application=" + application + "\">Depends On</a> | <a href=\"dependencies.html?application=" + application + "&reverse=true\">Used By</a>", "Consumers (" + rows.size() + ")",
                     new String[]{"Consumer URL:", "Unsubscribe"}, rows);
         } else {
@@ -85,4 +60,20 @@ public class ConsumersPageHandler implements PageHandler {
         }
     }
 
+    private static PageRows<URL> getRows(List<URL> consumers, final String parameter) {
+        return new PageRows<URL>(consumers) {
+            @Override
+            protected String getText(URL u, int column) {
+                return column == 0 ? u.toFullString() : null;
+            }
+
+            @Override
+            protected void addCells(URL u, List<String> row) {
+                String s = u.toFullString();
+                row.add(s.replace("&", "&amp;"));
+                row.add("<button onclick=\"if(confirm('Confirm unsubscribe consumer?')){window.location.href='unsubscribe.html?" + parameter + "&consumer=" + URL.encode(s) + "';}\">Unsubscribe</button>");
+            }
+        };
+    }
+
 }
\ No newline at end of file
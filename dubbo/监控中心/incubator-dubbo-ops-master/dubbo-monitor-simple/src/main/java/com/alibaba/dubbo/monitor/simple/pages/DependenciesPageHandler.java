@@ -17,6 +17,7 @@
 package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Page;
 import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
@@ -29,6 +30,7 @@ import java.util.Set;
 /**
  * DependenciesPageHandler
  */
+@Cacheable
 public class DependenciesPageHandler implements PageHandler {
 
     public Page handle(URL url) {
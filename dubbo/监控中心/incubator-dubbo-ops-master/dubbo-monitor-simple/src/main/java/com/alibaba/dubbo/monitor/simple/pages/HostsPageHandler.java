@@ -19,6 +19,7 @@ package com.alibaba.dubbo.monitor.simple.pages;
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.utils.NetUtils;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Menu;
 import com.alibaba.dubbo.monitor.simple.common.Page;
 import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
@@ -32,6 +33,7 @@ import java.util.Set;
  * HostsPageHandler
  */
 @Menu(name = "Hosts", desc = "Show provider and consumer hosts", order = 3000)
+@Cacheable
 public class HostsPageHandler implements PageHandler {
 
     public Page handle(URL url) {
@@ -17,90 +17,84 @@
 package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.common.DateFormats;
+import com.alibaba.dubbo.monitor.simple.common.LogTail;
 import com.alibaba.dubbo.monitor.simple.common.Menu;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.servlet.LogServlet;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
 
-import org.apache.log4j.Appender;
-import org.apache.log4j.FileAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Enumeration;
 import java.util.List;
 
 /**
  * LogPageHandler
+ * <p>
+ * Shows the last lines of the log, filtered by <code>level</code> and <code>keyword</code>,
+ * and follows the new lines from the log stream unless <code>follow=false</code>.
  */
 @Menu(name = "Log", desc = "Show system log.", order = Integer.MAX_VALUE - 11000)
 public class LogPageHandler implements PageHandler {
 
-    private static final int SHOW_LOG_LENGTH = 30000;
-
-    private File file;
-
-    @SuppressWarnings("unchecked")
-    public LogPageHandler() {
-        try {
-            org.apache.log4j.Logger logger = LogManager.getRootLogger();
-            if (logger != null) {
-                Enumeration<Appender> appenders = logger.getAllAppenders();
-                if (appenders != null) {
-                    while (appenders.hasMoreElements()) {
-                        Appender appender = appenders.nextElement();
-                        if (appender instanceof FileAppender) {
-                            FileAppender fileAppender = (FileAppender) appender;
-                            String filename = fileAppender.getFile();
-                            file = new File(filename);
-                            break;
-                        }
-                    }
-                }
-            }
-        } catch (Throwable t) {
-        }
-    }
+    private final File file = LogTail.getLogFile();
 
     public Page handle(URL url) {
+        String level = url.getParameterAndDecoded("level", "");
+        String keyword = url.getParameterAndDecoded("keyword", "");
+        boolean follow = url.getParameter("follow", true);
         long size = 0;
-        String content = "";
+        long offset = 0;
+        final StringBuilder content = new StringBuilder("<div id=\"log\" style=\"text-align: left\">");
         String modified = "Not exist";
         if (file != null && file.exists()) {
             try {
-                FileInputStream fis = new FileInputStream(file);
-                FileChannel channel = fis.getChannel();
-                size = channel.size();
-                ByteBuffer bb;
-                if (size <= SHOW_LOG_LENGTH) {
-                    bb = ByteBuffer.allocate((int) size);
-                    channel.read(bb, 0);
-                } else {
-                    int pos = (int) (size - SHOW_LOG_LENGTH);
-                    bb = ByteBuffer.allocate(SHOW_LOG_LENGTH);
-                    channel.read(bb, pos);
-                }
-                bb.flip();
-                content = new String(bb.array()).replace("<", "&lt;")
-                        .replace(">", "&gt;").replace("\n", "<br/><br/>");
-                modified = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
-                        .format(new Date(file.lastModified()));
+                LogTail tail = new LogTail(file, level, keyword);
+                size = tail.size();
+                long start = tail.getStart(-1, LogServlet.TAIL_LENGTH);
+                offset = tail.read(start, size - start, new LogTail.LineHandler() {
+                    public void handle(String line, long next) {
+                        content.append("<div>").append(escape(line)).append("</div>");
+                    }
+                });
+                modified = DateFormats.get("yyyy-MM-dd HH:mm:ss").format(new Date(file.lastModified()));
             } catch (IOException e) {
             }
         }
-        Level level = LogManager.getRootLogger().getLevel();
+        content.append("</div>");
+        String parameters = "level=" + URL.encode(level) + "&keyword=" + URL.encode(keyword);
+        if (follow && file != null) {
+            content.append("<script type=\"text/javascript\">if (window.EventSource) { var log = document.getElementById('log');")
+                    .append(" var source = new EventSource('log.stream?follow=true&offset=").append(offset).append("&").append(parameters).append("');")
+                    .append(" source.onmessage = function (e) { var line = document.createElement('div');")
+                    .append(" line.appendChild(document.createTextNode(e.data)); log.appendChild(line); }; }</script>");
+        }
+        StringBuilder nav = new StringBuilder("Log &gt; ");
+        nav.append("<a href=\"log.html?keyword=").append(URL.encode(keyword)).append("\">ALL</a>");
+        for (String name : LogTail.LEVELS) {
+            nav.append(" | <a href=\"log.html?level=").append(name).append("&keyword=").append(URL.encode(keyword))
+                    .append("\">").append(name).append("</a>");
+        }
+        nav.append(" | <a href=\"log.html?").append(parameters).append("&follow=").append(!follow).append("\">")
+                .append(follow ? "Pause" : "Follow").append("</a>");
+        nav.append(" | <form action=\"log.html\" style=\"display: inline\"><input type=\"hidden\" name=\"level\" value=\"")
+                .append(escape(level)).append("\"/><input type=\"text\" name=\"keyword\" value=\"").append(escape(keyword))
+                .append("\"/></form>");
+        Level rootLevel = LogManager.getRootLogger().getLevel();
         List<List<String>> rows = new ArrayList<List<String>>();
         List<String> row = new ArrayList<String>();
-        row.add(content);
+        row.add(content.toString());
         rows.add(row);
-        return new Page("Log", "Log", new String[]{(file == null ? "" : file.getName()) + ", " + size + " bytes, " + modified + ", " + level}, rows);
+        return new Page(nav.toString(), "Log", new String[]{(file == null ? "" : file.getName()) + ", " + size + " bytes, " + modified + ", " + rootLevel}, rows);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
     }
 
-}
\ No newline at end of file
+}
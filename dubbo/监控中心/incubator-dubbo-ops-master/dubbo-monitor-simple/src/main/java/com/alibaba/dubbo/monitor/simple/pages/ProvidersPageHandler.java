@@ -18,16 +18,18 @@ package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.utils.NetUtils;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.common.PageRows;
 import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * ProvidersPageHandler
  */
+@Cacheable
 public class ProvidersPageHandler implements PageHandler {
 
     public Page handle(URL url) {
@@ -35,17 +37,8 @@ public class ProvidersPageHandler implements PageHandler {
         String host = url.getParameter("host");
         String application = url.getParameter("application");
         if (service != null && service.length() > 0) {
-            List<List<String>> rows = new ArrayList<List<String>>();
             List<URL> providers = RegistryContainer.getInstance().getProvidersByService(service);
-            if (providers != null && providers.size() > 0) {
-                for (URL u : providers) {
-                    List<String> row = new ArrayList<String>();
-                    String s = u.toFullString();
-                    row.add(s.replace("&", "&amp;"));
-                    row.add("<button onclick=\"if(confirm('Confirm unregister provider?')){window.location.href='unregister.html?service=" + service + "&provider=" + URL.encode(s) + "';}\">Unregister</button>");
-                    rows.add(row);
-                }
-            }
+            PageRows<URL> rows = getRows(providers, "service=" + service);
             return new Page("<a href=\"services.html\">Services</a> &gt; " + service
                     + " &gt; Providers | <a href=\"consumers.html?service=" + service
                     + "\">Consumers</a> | <a href=\"statistics.html?service=" + service
@@ -53,31 +46,13 @@ public class ProvidersPageHandler implements PageHandler {
                     + "\">Charts</a>", "Providers (" + rows.size() + ")",
                     new String[]{"Provider URL:", "Unregister"}, rows);
         } else if (host != null && host.length() > 0) {
-            List<List<String>> rows = new ArrayList<List<String>>();
             List<URL> providers = RegistryContainer.getInstance().getProvidersByHost(host);
-            if (providers != null && providers.size() > 0) {
-                for (URL u : providers) {
-                    List<String> row = new ArrayList<String>();
-                    String s = u.toFullString();
-                    row.add(s.replace("&", "&amp;"));
-                    row.add("<button onclick=\"if(confirm('Confirm unregister provider?')){window.location.href='unregister.html?host=" + host + "&provider=" + URL.encode(s) + "';}\">Unregister</button>");
-                    rows.add(row);
-                }
-            }
+            PageRows<URL> rows = getRows(providers, "host=" + host);
             return new Page("<a href=\"hosts.html\">Hosts</a> &gt; " + NetUtils.getHostName(host) + "/" + host + " &gt; Providers | <a href=\"consumers.html?host=" + host + "\">Consumers</a>", "Providers (" + rows.size() + ")",
                     new String[]{"Provider URL:", "Unregister"}, rows);
         } else if (application != null && application.length() > 0) {
-            List<List<String>> rows = new ArrayList<List<String>>();
             List<URL> providers = RegistryContainer.getInstance().getProvidersByApplication(application);
-            if (providers != null && providers.size() > 0) {
-                for (URL u : providers) {
-                    List<String> row = new ArrayList<String>();
-                    String s = u.toFullString();
-                    row.add(s.replace("&", "&amp;"));
-                    row.add("<button onclick=\"if(confirm('Confirm unregister provider?')){window.location.href='unregister.html?application=" + application + "&provider=" + URL.encode(s) + "';}\">Unregister</button>");
-                    rows.add(row);
-                }
-            }
+            PageRows<URL> rows = getRows(providers, "application=" + application);
             return new Page("<a href=\"applications.html\">Applications</a> &gt; " + application + " &gt; Providers | <a href=\"consumers.html?application=" + application + "\">Consumers</a> | <a href=\"dependencies.html?application=" + application + "\">Depends On</a> | <a href=\"dependencies.html?application=" + application + "&reverse=true\">Used By</a>", "Providers (" + rows.size() + ")",
                     new String[]{"Provider URL:", "Unregister"}, rows);
         } else {
@@ -85,4 +60,20 @@ public class ProvidersPageHandler implements PageHandler {
         }
     }
 
+    private static PageRows<URL> getRows(List<URL> providers, final String parameter) {
+        return new PageRows<URL>(providers) {
+            @Override
+            protected String getText(URL u, int column) {
+                return column == 0 ? u.toFullString() : null;
+            }
+
+            @Override
+            protected void addCells(URL u, List<String> row) {
+                String s = u.toFullString();
+                row.add(s.replace("&", "&amp;"));
+                row.add("<button onclick=\"if(confirm('Confirm unregister provider?')){window.location.href='unregister.html?" + parameter + "&provider=" + URL.encode(s) + "';}\">Unregister</button>");
+            }
+        };
+    }
+
 }
\ No newline at end of file
@@ -18,8 +18,10 @@ package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Menu;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.common.PageRows;
 import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
 
@@ -30,12 +32,13 @@ import java.util.Set;
 /**
  * ServicesPageHandler
  */
+@Cacheable
 @Menu(name = "Services", desc = "Show registered services.", order = 2000)
 public class ServicesPageHandler implements PageHandler {
 
     public Page handle(URL url) {
         Set<String> services = RegistryContainer.getInstance().getServices();
-        List<List<String>> rows = new ArrayList<List<String>>();
+        List<String> registered = new ArrayList<String>();
         int providerCount = 0;
         int consumerCount = 0;
         if (services != null && services.size() > 0) {
@@ -46,27 +49,56 @@ public class ServicesPageHandler implements PageHandler {
                 List<URL> consumers = RegistryContainer.getInstance().getConsumersByService(service);
                 int consumerSize = consumers == null ? 0 : consumers.size();
                 consumerCount += consumerSize;
-                List<String> row = new ArrayList<String>();
-                row.add(service);
                 if (providerSize > 0 || consumerSize > 0) {
-                    if (providerSize > 0) {
-                        URL provider = providers.iterator().next();
-                        row.add(provider.getParameter(Constants.APPLICATION_KEY, ""));
-                        row.add(provider.getParameter("owner", "") + (provider.hasParameter("organization") ? " (" + provider.getParameter("organization") + ")" : ""));
-                    } else {
-                        row.add("");
-                        row.add("");
-                    }
-                    row.add(providerSize == 0 ? "<font color=\"red\">No provider</a>" : "<a href=\"providers.html?service=" + service + "\">Providers(" + providerSize + ")</a>");
-                    row.add(consumerSize == 0 ? "<font color=\"blue\">No consumer</a>" : "<a href=\"consumers.html?service=" + service + "\">Consumers(" + consumerSize + ")</a>");
-                    row.add("<a href=\"statistics.html?service=" + service + "\">Statistics</a>");
-                    row.add("<a href=\"charts.html?service=" + service + "\">Charts</a>");
-                    rows.add(row);
+                    registered.add(service);
                 }
             }
         }
+        PageRows<String> rows = new PageRows<String>(registered) {
+            @Override
+            protected String getText(String service, int column) {
+                if (column == 0) {
+                    return service;
+                }
+                if (column == 1 || column == 2) {
+                    URL provider = getProvider(service);
+                    if (provider == null) {
+                        return "";
+                    }
+                    return column == 1 ? provider.getParameter(Constants.APPLICATION_KEY, "")
+                            : provider.getParameter("owner", "");
+                }
+                return null;
+            }
+
+            @Override
+            protected void addCells(String service, List<String> row) {
+                List<URL> providers = RegistryContainer.getInstance().getProvidersByService(service);
+                int providerSize = providers == null ? 0 : providers.size();
+                List<URL> consumers = RegistryContainer.getInstance().getConsumersByService(service);
+                int consumerSize = consumers == null ? 0 : consumers.size();
+                row.add(service);
+                if (providerSize > 0) {
+                    URL provider = providers.iterator().next();
+                    row.add(provider.getParameter(Constants.APPLICATION_KEY, ""));
+                    row.add(provider.getParameter("owner", "") + (provider.hasParameter("organization") ? " (" + provider.getParameter("organization") + ")" : ""));
+                } else {
+                    row.add("");
+                    row.add("");
+                }
+                row.add(providerSize == 0 ? "<font color=\"red\">No provider</a>" : "<a href=\"providers.html?service=" + service + "\">Providers(" + providerSize + ")</a>");
+                row.add(consumerSize == 0 ? "<font color=\"blue\">No consumer</a>" : "<a href=\"consumers.html?service=" + service + "\">Consumers(" + consumerSize + ")</a>");
+                row.add("<a href=\"statistics.html?service=" + service + "\">Statistics</a>");
+                row.add("<a href=\"charts.html?service=" + service + "\">Charts</a>");
+            }
+        };
         return new Page("Services", "Services (" + rows.size() + ")",
                 new String[]{"Service Name:", "Application", "Owner", "Providers(" + providerCount + ")", "Consumers(" + consumerCount + ")", "Statistics", "Charts"}, rows);
     }
 
+    private static URL getProvider(String service) {
+        List<URL> providers = RegistryContainer.getInstance().getProvidersByService(service);
+        return providers == null || providers.isEmpty() ? null : providers.get(0);
+    }
+
 }
\ No newline at end of file
@@ -17,17 +17,19 @@
 package com.alibaba.dubbo.monitor.simple.pages;
 
 import com.alibaba.dubbo.common.URL;
-import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.monitor.MonitorService;
-import com.alibaba.dubbo.monitor.simple.common.CountUtils;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.common.TimeRange;
 import com.alibaba.dubbo.monitor.simple.servlet.PageHandler;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsResult;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsStore;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsSummary;
+import com.alibaba.fastjson.JSON;
 
-import java.io.File;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,53 +38,39 @@ import java.util.Map;
  */
 public class StatisticsPageHandler implements PageHandler {
 
+    private static final int CONSUMER_SIDE = StatisticsStore.getSideIndex(MonitorService.CONSUMER);
+
+    private static final int PROVIDER_SIDE = StatisticsStore.getSideIndex(MonitorService.PROVIDER);
+
     public Page handle(URL url) {
         String service = url.getParameter("service");
         if (service == null || service.length() == 0) {
             throw new IllegalArgumentException("Please input service parameter.");
         }
-        String date = url.getParameter("date");
-        if (date == null || date.length() == 0) {
-            date = new SimpleDateFormat("yyyyMMdd").format(new Date());
-        }
+        TimeRange range = TimeRange.parse(url);
         String expand = url.getParameter("expand");
+        SimpleMonitorService monitorService = SimpleMonitorService.getInstance();
+        if (monitorService == null) {
+            throw new IllegalStateException("The monitor service is not started.");
+        }
+        StatisticsResult result;
+        try {
+            result = monitorService.getQuery().summarize(service, range.getFrom(), range.getTo(), expand);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read statistics of " + service + ", cause: " + e.getMessage(), e);
+        }
+        if ("json".equals(url.getParameter("format"))) {
+            return new Page(null, null, "json", toJson(service, range, expand, result));
+        }
         List<List<String>> rows = new ArrayList<List<String>>();
-        String directory = ConfigUtils.getProperty("dubbo.statistics.directory");
-        String filename = directory + "/" + date + "/" + service;
-        File serviceDir = new File(filename);
-        if (serviceDir.exists()) {
-            File[] methodDirs = serviceDir.listFiles();
-            for (File methodDir : methodDirs) {
-                long[] statistics = newStatistics();
-                Map<String, long[]> expandMap = new HashMap<String, long[]>();
-                File[] consumerDirs = methodDir.listFiles();
-                for (File consumerDir : consumerDirs) {
-                    long[] expandStatistics = null;
-                    if (MonitorService.CONSUMER.equals(expand)) {
-                        expandStatistics = newStatistics();
-                        expandMap.put(consumerDir.getName(), expandStatistics);
-                    }
-                    File[] providerDirs = consumerDir.listFiles();
-                    for (File providerDir : providerDirs) {
-                        if (MonitorService.PROVIDER.equals(expand)) {
-                            expandStatistics = newStatistics();
-                            expandMap.put(providerDir.getName(), expandStatistics);
-                        }
-                        appendStatistics(providerDir, statistics);
-                        if (expandStatistics != null) {
-                            appendStatistics(providerDir, expandStatistics);
-                        }
-                    }
-                }
-                rows.add(toRow(methodDir.getName(), statistics));
-                if (expandMap != null && expandMap.size() > 0) {
-                    for (Map.Entry<String, long[]> entry : expandMap.entrySet()) {
-                        String node = MonitorService.CONSUMER.equals(expand) ? "&lt;--" : "--&gt;";
-                        rows.add(toRow(" &nbsp;&nbsp;&nbsp;&nbsp; |" + node + " " + entry.getKey(), entry.getValue()));
-                    }
-                }
+        for (Map.Entry<String, StatisticsSummary> method : result.getMethods().entrySet()) {
+            rows.add(toRow(method.getKey(), method.getValue()));
+            for (Map.Entry<String, StatisticsSummary> entry : method.getValue().getExpands().entrySet()) {
+                String node = MonitorService.CONSUMER.equals(expand) ? "&lt;--" : "--&gt;";
+                rows.add(toRow(" &nbsp;&nbsp;&nbsp;&nbsp; |" + node + " " + entry.getKey(), entry.getValue()));
             }
         }
+        String parameters = range.toParameters();
         StringBuilder nav = new StringBuilder();
         nav.append("<a href=\"services.html\">Services</a> &gt; ");
         nav.append(service);
@@ -92,24 +80,28 @@ public class StatisticsPageHandler implements PageHandler {
         nav.append(service);
         nav.append("\">Consumers</a> | Statistics | <a href=\"charts.html?service=");
         nav.append(service);
-        nav.append("&date=");
-        nav.append(date);
+        nav.append(parameters);
         nav.append("\">Charts</a> &gt; <input type=\"text\" style=\"width: 65px;\" name=\"date\" value=\"");
-        nav.append(date);
+        nav.append(range.getDate() == null ? "" : range.getDate());
         nav.append("\" onkeyup=\"if (event.keyCode == 10 || event.keyCode == 13) {window.location.href='statistics.html?service=");
         nav.append(service);
         if (expand != null && expand.length() > 0) {
             nav.append("&expand=");
             nav.append(expand);
         }
-        nav.append("&date=' + this.value;}\" /> &gt; ");
+        nav.append("&date=' + this.value;}\" /> | ");
+        appendRange(nav, service, expand, "-15m", "Last 15 minutes");
+        nav.append(" | ");
+        appendRange(nav, service, expand, "-1h", "Last hour");
+        nav.append(" | ");
+        appendRange(nav, service, expand, "-7d", "Last 7 days");
+        nav.append(" &gt; ");
         if (!MonitorService.PROVIDER.equals(expand) && !MonitorService.CONSUMER.equals(expand)) {
             nav.append("Summary");
         } else {
             nav.append("<a href=\"statistics.html?service=");
             nav.append(service);
-            nav.append("&date=");
-            nav.append(date);
+            nav.append(parameters);
             nav.append("\">Summary</a>");
         }
         if (MonitorService.PROVIDER.equals(expand)) {
@@ -117,8 +109,7 @@ public class StatisticsPageHandler implements PageHandler {
         } else {
             nav.append(" | <a href=\"statistics.html?service=");
             nav.append(service);
-            nav.append("&date=");
-            nav.append(date);
+            nav.append(parameters);
             nav.append("&expand=provider\">+Provider</a>");
         }
         if (MonitorService.CONSUMER.equals(expand)) {
@@ -126,42 +117,82 @@ public class StatisticsPageHandler implements PageHandler {
         } else {
             nav.append(" | <a href=\"statistics.html?service=");
             nav.append(service);
-            nav.append("&date=");
-            nav.append(date);
+            nav.append(parameters);
             nav.append("&expand=consumer\">+Consumer</a>");
         }
-        return new Page(nav.toString(), "Statistics (" + rows.size() + ")",
+        nav.append(" | <a href=\"statistics?service=");
+        nav.append(service);
+        nav.append(parameters);
+        if (expand != null && expand.length() > 0) {
+            nav.append("&expand=");
+            nav.append(expand);
+        }
+        nav.append("&format=json\">JSON</a>");
+        return new Page(nav.toString(), "Statistics " + range + (result.isPartial() ? " (partial)" : "") + " (" + rows.size() + ")",
                 new String[]{"Method:", "Success", "Failure", "Avg Elapsed (ms)",
                         "Max Elapsed (ms)", "Max Concurrent"}, rows);
     }
 
-    private long[] newStatistics() {
-        return new long[10];
-    }
-
-    private void appendStatistics(File providerDir, long[] statistics) {
-        statistics[0] += CountUtils.sum(new File(providerDir, MonitorService.CONSUMER + "." + MonitorService.SUCCESS));
-        statistics[1] += CountUtils.sum(new File(providerDir, MonitorService.PROVIDER + "." + MonitorService.SUCCESS));
-        statistics[2] += CountUtils.sum(new File(providerDir, MonitorService.CONSUMER + "." + MonitorService.FAILURE));
-        statistics[3] += CountUtils.sum(new File(providerDir, MonitorService.PROVIDER + "." + MonitorService.FAILURE));
-        statistics[4] += CountUtils.sum(new File(providerDir, MonitorService.CONSUMER + "." + MonitorService.ELAPSED));
-        statistics[5] += CountUtils.sum(new File(providerDir, MonitorService.PROVIDER + "." + MonitorService.ELAPSED));
-        statistics[6] = Math.max(statistics[6], CountUtils.max(new File(providerDir, MonitorService.CONSUMER + "." + MonitorService.MAX_ELAPSED)));
-        statistics[7] = Math.max(statistics[7], CountUtils.max(new File(providerDir, MonitorService.PROVIDER + "." + MonitorService.MAX_ELAPSED)));
-        statistics[8] = Math.max(statistics[8], CountUtils.max(new File(providerDir, MonitorService.CONSUMER + "." + MonitorService.MAX_CONCURRENT)));
-        statistics[9] = Math.max(statistics[9], CountUtils.max(new File(providerDir, MonitorService.PROVIDER + "." + MonitorService.MAX_CONCURRENT)));
+    private void appendRange(StringBuilder nav, String service, String expand, String from, String name) {
+        nav.append("<a href=\"statistics.html?service=");
+        nav.append(service);
+        if (expand != null && expand.length() > 0) {
+            nav.append("&expand=");
+            nav.append(expand);
+        }
+        nav.append("&from=");
+        nav.append(from);
+        nav.append("\">");
+        nav.append(name);
+        nav.append("</a>");
     }
 
-    private List<String> toRow(String name, long[] statistics) {
+    private List<String> toRow(String name, StatisticsSummary summary) {
         List<String> row = new ArrayList<String>();
         row.add(name);
-        row.add(String.valueOf(statistics[0]) + " --&gt; " + String.valueOf(statistics[1]));
-        row.add(String.valueOf(statistics[2]) + " --&gt; " + String.valueOf(statistics[3]));
-        row.add(String.valueOf(statistics[0] == 0 ? 0 : statistics[4] / statistics[0])
-                + " --&gt; " + String.valueOf(statistics[1] == 0 ? 0 : statistics[5] / statistics[1]));
-        row.add(String.valueOf(statistics[6]) + " --&gt; " + String.valueOf(statistics[7]));
-        row.add(String.valueOf(statistics[8]) + " --&gt; " + String.valueOf(statistics[9]));
+        row.add(summary.getSuccess(CONSUMER_SIDE) + " --&gt; " + summary.getSuccess(PROVIDER_SIDE));
+        row.add(summary.getFailure(CONSUMER_SIDE) + " --&gt; " + summary.getFailure(PROVIDER_SIDE));
+        row.add(summary.getAverageElapsed(CONSUMER_SIDE) + " --&gt; " + summary.getAverageElapsed(PROVIDER_SIDE));
+        row.add(summary.getMaxElapsed(CONSUMER_SIDE) + " --&gt; " + summary.getMaxElapsed(PROVIDER_SIDE));
+        row.add(summary.getMaxConcurrent(CONSUMER_SIDE) + " --&gt; " + summary.getMaxConcurrent(PROVIDER_SIDE));
         return row;
     }
 
-}
\ No newline at end of file
+    private String toJson(String service, TimeRange range, String expand, StatisticsResult result) {
+        Map<String, Object> json = new LinkedHashMap<String, Object>();
+        json.put("service", service);
+        json.put("from", range.getFrom());
+        json.put("to", range.getTo());
+        json.put("partial", result.isPartial());
+        List<Object> methods = new ArrayList<Object>();
+        for (Map.Entry<String, StatisticsSummary> method : result.getMethods().entrySet()) {
+            Map<String, Object> object = toJson("method", method.getKey(), method.getValue());
+            if (expand != null && expand.length() > 0) {
+                List<Object> expands = new ArrayList<Object>();
+                for (Map.Entry<String, StatisticsSummary> entry : method.getValue().getExpands().entrySet()) {
+                    expands.add(toJson(expand, entry.getKey(), entry.getValue()));
+                }
+                object.put("expand", expands);
+            }
+            methods.add(object);
+        }
+        json.put("methods", methods);
+        return JSON.toJSONString(json);
+    }
+
+    private Map<String, Object> toJson(String key, String name, StatisticsSummary summary) {
+        Map<String, Object> object = new LinkedHashMap<String, Object>();
+        object.put(key, name);
+        for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+            values.put(MonitorService.SUCCESS, summary.getSuccess(side));
+            values.put(MonitorService.FAILURE, summary.getFailure(side));
+            values.put(MonitorService.ELAPSED, summary.getAverageElapsed(side));
+            values.put(MonitorService.MAX_ELAPSED, summary.getMaxElapsed(side));
+            values.put(MonitorService.MAX_CONCURRENT, summary.getMaxConcurrent(side));
+            object.put(StatisticsStore.SIDES[side], values);
+        }
+        return object;
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.servlet;
+
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.ConfigUtils;
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
+import com.alibaba.dubbo.monitor.simple.common.TimeRange;
+import com.alibaba.dubbo.monitor.simple.statistics.ChartCache;
+import com.alibaba.dubbo.monitor.simple.statistics.ChartRenderer;
+import com.alibaba.dubbo.monitor.simple.statistics.MethodStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsSeries;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * ChartServlet
+ * <p>
+ * Renders the charts on demand from the statistics, and keeps the encoded charts in a LRU cache.
+ */
+public class ChartServlet extends HttpServlet {
+
+    public static final String CHARTS_CACHE_SIZE = "dubbo.charts.cache.size";
+
+    protected static final Logger logger = LoggerFactory.getLogger(ChartServlet.class);
+
+    private static final long serialVersionUID = 3420585377839402398L;
+
+    private static final long DEFAULT_CHARTS_CACHE_SIZE = 32 * 1024 * 1024;
+
+    // the minimal points of a range chart, the coarser tiers are used as long as they give them
+    private static final int RANGE_POINTS = 100;
+
+    // the versions restart with the process
+    private final long start = System.currentTimeMillis();
+
+    private ChartCache cache;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        String size = ConfigUtils.getProperty(CHARTS_CACHE_SIZE);
+        cache = new ChartCache(size == null || size.length() == 0 ? DEFAULT_CHARTS_CACHE_SIZE : Long.parseLong(size));
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String service = request.getParameter("service");
+        String method = request.getParameter("method");
+        String date = request.getParameter("date");
+        String from = request.getParameter("from");
+        String type = request.getParameter("type");
+        if (isEmpty(service) || isEmpty(method) || (isEmpty(date) && isEmpty(from))
+                || !(MonitorService.SUCCESS.equals(type) || MonitorService.ELAPSED.equals(type))) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        SimpleMonitorService monitorService = SimpleMonitorService.getInstance();
+        if (monitorService == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        if (!isEmpty(from)) {
+            writeRange(response, monitorService, service, method, null, from, request.getParameter("to"), type);
+            return;
+        }
+        MethodStatistics statistics = monitorService.getMethodStatistics(date, service, method);
+        if (statistics == null) {
+            // the minutes of the day are expired, draw it from the rollups
+            writeRange(response, monitorService, service, method, date, null, null, type);
+            return;
+        }
+        String etag = "\"" + start + "-" + statistics.getVersion() + "\"";
+        if (etag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        String key = ChartCache.getKey(date, service, method, type, statistics.getVersion());
+        byte[] chart = cache.get(key);
+        if (chart == null) {
+            chart = ChartRenderer.render(statistics, type);
+            if (chart == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            cache.put(key, chart);
+        }
+        write(response, chart, etag);
+    }
+
+    private void writeRange(HttpServletResponse response, SimpleMonitorService monitorService, String service, String method,
+                            String date, String from, String to, String type) throws IOException {
+        TimeRange range;
+        try {
+            range = TimeRange.parse(date, from, to);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        // the ranges relative to now are not cached
+        StatisticsSeries series = monitorService.getQuery().series(service, method, range.getFrom(), range.getTo(), RANGE_POINTS);
+        write(response, ChartRenderer.render(service, method, range.getFrom(), range.getTo(), series, type), null);
+    }
+
+    private void write(HttpServletResponse response, byte[] chart, String etag) throws IOException {
+        if (chart == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("image/png");
+        response.setContentLength(chart.length);
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+        }
+        response.setHeader("Cache-Control", "no-cache");
+        OutputStream output = response.getOutputStream();
+        output.write(chart);
+        output.flush();
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.length() == 0;
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.servlet;
+
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.ConfigUtils;
+import com.alibaba.dubbo.monitor.simple.common.LogTail;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Semaphore;
+
+/**
+ * LogServlet
+ * <p>
+ * Streams the log lines appended after an offset as server-sent events, the id of an event is the offset after
+ * its line, so a reconnecting <code>EventSource</code> resumes where it stopped. Without <code>follow</code> the
+ * stream ends at the end of the file, with it the file is polled until the client leaves or the follow timeout,
+ * and the number of followers is bounded since each one holds a request thread.
+ */
+public class LogServlet extends HttpServlet {
+
+    public static final String LOG_FOLLOW_MAX = "dubbo.log.follow.max";
+
+    public static final String LOG_FOLLOW_TIMEOUT = "dubbo.log.follow.timeout";
+
+    // the bytes before the end to start in without an offset
+    public static final int TAIL_LENGTH = 30000;
+
+    protected static final Logger logger = LoggerFactory.getLogger(LogServlet.class);
+
+    private static final long serialVersionUID = -2716438526318247826L;
+
+    private static final long POLL_INTERVAL = 1000;
+
+    private static final long HEARTBEAT_INTERVAL = 15000;
+
+    // the bytes read per poll, a follower far behind catches up over several polls
+    private static final long READ_LIMIT = 1024 * 1024;
+
+    private Semaphore followers;
+
+    private long timeout;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        followers = new Semaphore(Integer.parseInt(ConfigUtils.getProperty(LOG_FOLLOW_MAX, "8")));
+        timeout = Long.parseLong(ConfigUtils.getProperty(LOG_FOLLOW_TIMEOUT, "300000"));
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        File file = LogTail.getLogFile();
+        if (file == null || !file.exists()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        boolean follow = "true".equals(request.getParameter("follow"));
+        if (follow && !followers.tryAcquire()) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many log followers.");
+            return;
+        }
+        try {
+            LogTail tail = new LogTail(file, request.getParameter("level"), request.getParameter("keyword"));
+            String lastEventId = request.getHeader("Last-Event-ID");
+            String offset = lastEventId == null || lastEventId.length() == 0 ? request.getParameter("offset") : lastEventId;
+            long position = tail.getStart(offset == null || offset.length() == 0 ? -1 : Long.parseLong(offset), TAIL_LENGTH);
+            response.setContentType("text/event-stream");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Cache-Control", "no-cache");
+            final PrintWriter writer = response.getWriter();
+            LogTail.LineHandler handler = new LogTail.LineHandler() {
+                public void handle(String line, long next) {
+                    writer.write("id: " + next + "\n");
+                    // a line break in a field would end it, so each piece goes in a data field
+                    for (String piece : line.split("\r\n|\r|\n", -1)) {
+                        writer.write("data: " + piece + "\n");
+                    }
+                    writer.write("\n");
+                }
+            };
+            long deadline = System.currentTimeMillis() + timeout;
+            long heartbeat = System.currentTimeMillis() + HEARTBEAT_INTERVAL;
+            while (true) {
+                long next = tail.read(position, READ_LIMIT, handler);
+                if (writer.checkError()) {
+                    break; // the client is gone
+                }
+                if (next > position) {
+                    position = next;
+                    writer.flush();
+                    continue;
+                }
+                if (!follow || System.currentTimeMillis() > deadline) {
+                    break;
+                }
+                if (System.currentTimeMillis() > heartbeat) {
+                    // a comment, so a closed client is noticed on an idle log
+                    writer.write(": " + position + "\n\n");
+                    writer.flush();
+                    heartbeat = System.currentTimeMillis() + HEARTBEAT_INTERVAL;
+                }
+                if (tail.size() < position) {
+                    position = 0; // truncated or rolled over
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            writer.flush();
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (follow) {
+                followers.release();
+            }
+        }
+    }
+
+}
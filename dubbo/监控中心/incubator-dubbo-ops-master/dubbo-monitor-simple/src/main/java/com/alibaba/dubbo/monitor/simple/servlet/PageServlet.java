@@ -21,10 +21,14 @@ import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.extension.ExtensionLoader;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.common.utils.StringUtils;
+import com.alibaba.dubbo.monitor.simple.common.Cacheable;
 import com.alibaba.dubbo.monitor.simple.common.Menu;
 import com.alibaba.dubbo.monitor.simple.common.MenuComparator;
 import com.alibaba.dubbo.monitor.simple.common.Page;
+import com.alibaba.dubbo.monitor.simple.common.PageRows;
+import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -36,6 +40,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -46,12 +51,20 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class PageServlet extends HttpServlet {
 
+    public static final String PAGE_SIZE = "dubbo.page.size";
     protected static final Logger logger = LoggerFactory.getLogger(PageServlet.class);
     private static final long serialVersionUID = -8370312705453328501L;
+    private static final String HEADER = "<html><head><title>Dubbo</title>\n"
+            + "<style type=\"text/css\">html, body {margin: 10;padding: 0;background-color: #6D838C;font-family: Arial, Verdana;font-size: 12px;color: #FFFFFF;text-align: center;vertical-align: middle;word-break: break-all; } table {width: 90%; margin: 0px auto;border-collapse: collapse;border: 8px solid #FFFFFF; } thead tr {background-color: #253c46; } tbody tr {background-color: #8da5af; } th {padding-top: 4px;padding-bottom: 4px;font-size: 14px;height: 20px; } td {margin: 3px;padding: 3px;border: 2px solid #FFFFFF;font-size: 14px;height: 25px; } a {color: #FFFFFF;cursor: pointer;text-decoration: underline; } a:hover {text-decoration: none; }</style>\n"
+            + "</head><body>";
+    // the pages cached by the browsers are invalid after a restart
+    private static final String STARTED = Long.toHexString(System.currentTimeMillis());
     private static PageServlet INSTANCE;
     protected final Random random = new Random();
     protected final Map<String, PageHandler> pages = new ConcurrentHashMap<String, PageHandler>();
     protected final List<PageHandler> menus = new ArrayList<PageHandler>();
+    private String menuHeader;
+    private int pageSize;
 
     public static PageServlet getInstance() {
         return INSTANCE;
@@ -81,6 +94,17 @@ public class PageServlet extends HttpServlet {
             }
         }
         Collections.sort(menus, new MenuComparator());
+        StringBuilder buf = new StringBuilder();
+        buf.append("<table>\n<thead>\n    <tr>\n");
+        for (PageHandler handler : menus) {
+            String uri = ExtensionLoader.getExtensionLoader(PageHandler.class).getExtensionName(handler);
+            Menu menu = handler.getClass().getAnnotation(Menu.class);
+            buf.append("        <th><a href=\"").append(uri).append(".html\">").append(menu.name()).append("</a></th>\n");
+        }
+        buf.append("    </tr>\n</thead>\n<tbody>\n    <tr>\n");
+        buf.append("        <td style=\"text-align: left\" colspan=\"").append(menus.size()).append("\">");
+        menuHeader = buf.toString();
+        pageSize = Integer.parseInt(ConfigUtils.getProperty(PAGE_SIZE, "100"));
     }
 
     @Override
@@ -93,7 +117,6 @@ public class PageServlet extends HttpServlet {
     protected final void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         if (!response.isCommitted()) {
-            PrintWriter writer = response.getWriter();
             String uri = request.getRequestURI();
             boolean isHtml = false;
             if (uri == null || uri.length() == 0 || "/".equals(uri)) {
@@ -114,17 +137,21 @@ public class PageServlet extends HttpServlet {
             }
             ExtensionLoader<PageHandler> pageHandlerLoader = ExtensionLoader.getExtensionLoader(PageHandler.class);
             PageHandler pageHandler = pageHandlerLoader.hasExtension(uri) ? pageHandlerLoader.getExtension(uri) : null;
+            if (pageHandler != null && pageHandler.getClass().isAnnotationPresent(Cacheable.class)
+                    && isNotModified(request, response)) {
+                return;
+            }
+            PrintWriter writer = response.getWriter();
             if (isHtml) {
-                writer.println("<html><head><title>Dubbo</title>");
-                writer.println("<style type=\"text/css\">html, body {margin: 10;padding: 0;background-color: #6D838C;font-family: Arial, Verdana;font-size: 12px;color: #FFFFFF;text-align: center;vertical-align: middle;word-break: break-all; } table {width: 90%; margin: 0px auto;border-collapse: collapse;border: 8px solid #FFFFFF; } thead tr {background-color: #253c46; } tbody tr {background-color: #8da5af; } th {padding-top: 4px;padding-bottom: 4px;font-size: 14px;height: 20px; } td {margin: 3px;padding: 3px;border: 2px solid #FFFFFF;font-size: 14px;height: 25px; } a {color: #FFFFFF;cursor: pointer;text-decoration: underline; } a:hover {text-decoration: none; }</style>");
-                writer.println("</head><body>");
+                writer.println(HEADER);
             }
             if (pageHandler != null) {
                 Page page = null;
+                String query = request.getQueryString();
+                URL url = URL.valueOf(request.getRequestURL().toString()
+                        + (query == null || query.length() == 0 ? "" : "?" + query));
                 try {
-                    String query = request.getQueryString();
-                    page = pageHandler.handle(URL.valueOf(request.getRequestURL().toString()
-                            + (query == null || query.length() == 0 ? "" : "?" + query)));
+                    page = pageHandler.handle(url);
                 } catch (Throwable t) {
                     logger.warn(t.getMessage(), t);
                     String msg = t.getMessage();
@@ -162,11 +189,22 @@ public class PageServlet extends HttpServlet {
                             nav = "<a href=\"/\">Home</a> &gt; " + nav;
                         }
                         writeMenu(request, writer, nav);
-                        writeTable(writer, page.getTitle(), page.getColumns(),
-                                page.getRows());
+                        if (page.getPageRows() != null) {
+                            writePageTable(writer, url, page.getTitle(), page.getColumns(), page.getPageRows());
+                        } else {
+                            writeTable(writer, page.getTitle(), page.getColumns(),
+                                    page.getRows());
+                        }
                     } else {
-                        if (page.getRows().size() > 0 && page.getRows().get(0).size() > 0) {
-                            writer.println(page.getRows().get(0).get(0));
+                        Iterable<List<String>> rows = page.getPageRows() != null
+                                ? page.getPageRows().getRows(0, 1) : page.getRows();
+                        if (rows != null) {
+                            for (List<String> row : rows) {
+                                if (row.size() > 0) {
+                                    writer.println(row.get(0));
+                                }
+                                break;
+                            }
                         }
                     }
                 }
@@ -198,20 +236,30 @@ public class PageServlet extends HttpServlet {
         }
     }
 
-    protected final void writeMenu(HttpServletRequest request, PrintWriter writer, String nav) {
-        writer.println("<table>");
-        writer.println("<thead>");
-        writer.println("    <tr>");
-        for (PageHandler handler : menus) {
-            String uri = ExtensionLoader.getExtensionLoader(PageHandler.class).getExtensionName(handler);
-            Menu menu = handler.getClass().getAnnotation(Menu.class);
-            writer.println("        <th><a href=\"" + uri + ".html\">" + menu.name() + "</a></th>");
+    /**
+     * Validate the page against the registry snapshot version, the handler is not called if it is not modified.
+     * <p>
+     * No Last-Modified is sent: a date in whole seconds misses the changes within the second it was taken,
+     * so only the version ETag decides.
+     */
+    boolean isNotModified(HttpServletRequest request, HttpServletResponse response) {
+        RegistryContainer container = RegistryContainer.getInstance();
+        if (container == null) {
+            return false;
         }
-        writer.println("    </tr>");
-        writer.println("</thead>");
-        writer.println("<tbody>");
-        writer.println("    <tr>");
-        writer.println("        <td style=\"text-align: left\" colspan=\"" + menus.size() + "\">");
+        String etag = "\"" + STARTED + "-" + Long.toHexString(container.getVersion()) + "\"";
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "no-cache");
+        String match = request.getHeader("If-None-Match");
+        boolean notModified = match != null && (match.contains(etag) || "*".equals(match.trim()));
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    protected final void writeMenu(HttpServletRequest request, PrintWriter writer, String nav) {
+        writer.println(menuHeader);
         writer.println(nav);
         writer.println("        </td>");
         writer.println("    </tr>");
@@ -279,4 +327,102 @@ public class PageServlet extends HttpServlet {
         writer.println("<br/>");
     }
 
+    /**
+     * Write the requested page of the rows, filtered by the <code>filter</code> parameter and sorted by the
+     * <code>sort</code> column in the <code>order</code>, only the rows shown are built.
+     */
+    protected final void writePageTable(PrintWriter writer, URL url, String title, List<String> columns,
+                                        PageRows<?> rows) {
+        String filter = url.getParameter("filter");
+        String keyword = filter == null ? null : URL.decode(filter);
+        int sort = url.getParameter("sort", -1);
+        boolean descending = "desc".equals(url.getParameter("order"));
+        int total = rows.select(keyword, columns.size(), sort, descending);
+        int size = url.getParameter("size", pageSize);
+        if (size <= 0) {
+            size = pageSize;
+        }
+        int pages = Math.max(1, (total + size - 1) / size);
+        int current = Math.min(Math.max(url.getParameter("page", 1), 1), pages);
+        int c = columns.size();
+        writer.println("<table>");
+        writer.println("<thead>");
+        writer.println("    <tr>");
+        writer.println("        <th colspan=\"" + c + "\">" + title + "</th>");
+        writer.println("    </tr>");
+        writer.println("    <tr>");
+        writer.println("        <td colspan=\"" + c + "\"><form method=\"get\">");
+        for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+            if (!"filter".equals(entry.getKey()) && !"page".equals(entry.getKey())) {
+                writer.println("            <input type=\"hidden\" name=\"" + escape(entry.getKey())
+                        + "\" value=\"" + escape(URL.decode(entry.getValue())) + "\" />");
+            }
+        }
+        writer.println("            <input type=\"text\" name=\"filter\" value=\""
+                + (keyword == null ? "" : escape(keyword)) + "\" /> <input type=\"submit\" value=\"Filter\" />");
+        writer.println("        </form></td>");
+        writer.println("    </tr>");
+        writer.println("    <tr>");
+        for (int i = 0; i < c; i++) {
+            String col = columns.get(i);
+            if (col.endsWith(":")) {
+                col = col.substring(0, col.length() - 1);
+            }
+            if (rows.isSortable(i)) {
+                boolean sorted = i == sort;
+                col = "<a href=\"" + link(url, "sort", String.valueOf(i), "order", sorted && !descending ? "desc" : "asc",
+                        "page", null) + "\">" + col + "</a>" + (sorted ? (descending ? " &darr;" : " &uarr;") : "");
+            }
+            writer.println("        <td>" + col + "</td>");
+        }
+        writer.println("    </tr>");
+        writer.println("</thead>");
+        writer.println("<tbody>");
+        for (List<String> row : rows.getRows((current - 1) * size, size)) {
+            writer.println("    <tr>");
+            for (String col : row) {
+                writer.println("        <td>" + col + "</td>");
+            }
+            writer.println("    </tr>");
+        }
+        if (pages > 1) {
+            writer.println("    <tr>");
+            writer.println("        <td colspan=\"" + c + "\">"
+                    + (current > 1 ? "<a href=\"" + link(url, "page", String.valueOf(current - 1)) + "\">&lt; Prev</a>" : "&lt; Prev")
+                    + " | Page " + current + " of " + pages + " (" + total + " rows) | "
+                    + (current < pages ? "<a href=\"" + link(url, "page", String.valueOf(current + 1)) + "\">Next &gt;</a>" : "Next &gt;")
+                    + "</td>");
+            writer.println("    </tr>");
+        }
+        writer.println("</tbody>");
+        writer.println("</table>");
+        writer.println("<br/>");
+    }
+
+    /**
+     * Link to the page with the parameters replaced, a null value removes the parameter.
+     */
+    private static String link(URL url, String... pairs) {
+        Map<String, String> parameters = new LinkedHashMap<String, String>(url.getParameters());
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (pairs[i + 1] == null) {
+                parameters.remove(pairs[i]);
+            } else {
+                parameters.put(pairs[i], pairs[i + 1]);
+            }
+        }
+        StringBuilder buf = new StringBuilder("?");
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            if (buf.length() > 1) {
+                buf.append("&amp;");
+            }
+            buf.append(escape(entry.getKey())).append("=").append(escape(entry.getValue()));
+        }
+        return buf.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ChartCache
+ * <p>
+ * A LRU cache of the encoded charts, bounded by the total bytes.
+ */
+public class ChartCache {
+
+    private final long capacity;
+
+    private final LinkedHashMap<String, byte[]> charts = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+
+    private long size;
+
+    public ChartCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public static String getKey(String date, String service, String method, String type, long version) {
+        return date + "/" + service + "/" + method + "/" + type + "/" + version;
+    }
+
+    public synchronized byte[] get(String key) {
+        return charts.get(key);
+    }
+
+    public synchronized void put(String key, byte[] chart) {
+        if (chart.length > capacity) {
+            return;
+        }
+        byte[] previous = charts.put(key, chart);
+        size += chart.length - (previous == null ? 0 : previous.length);
+        for (Iterator<Map.Entry<String, byte[]>> iterator = charts.entrySet().iterator(); size > capacity && iterator.hasNext(); ) {
+            size -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+}
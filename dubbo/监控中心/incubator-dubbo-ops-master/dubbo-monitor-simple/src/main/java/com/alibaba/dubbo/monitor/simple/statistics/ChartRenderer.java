@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.MonitorService;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.time.Minute;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ChartRenderer
+ * <p>
+ * Renders the charts of a method: {@link MonitorService#SUCCESS} for the requests per second,
+ * {@link MonitorService#ELAPSED} for the average response time, of a day from the running aggregates, or of a range
+ * from a {@link StatisticsSeries}.
+ */
+public class ChartRenderer {
+
+    private ChartRenderer() {
+    }
+
+    /**
+     * Render the chart as png.
+     *
+     * @return the png bytes, or null if the method has no data to render.
+     */
+    public static byte[] render(MethodStatistics statistics, String type) throws IOException {
+        int slots = statistics.getSlots();
+        long[][] success = new long[StatisticsStore.SIDES.length][];
+        long[][] elapsed = new long[StatisticsStore.SIDES.length][];
+        for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+            success[side] = statistics.getSuccess(side);
+            elapsed[side] = statistics.getElapsed(side);
+        }
+        Map<Long, long[]> successData = new HashMap<Long, long[]>();
+        Map<Long, long[]> elapsedData = new HashMap<Long, long[]>();
+        long successSum = 0;
+        long elapsedSum = 0;
+        double[] successSummary = new double[]{0, -1, 0, 0};
+        for (int slot = 0; slot < slots; slot++) {
+            if (success[0][slot] == 0 && success[1][slot] == 0 && elapsed[0][slot] == 0 && elapsed[1][slot] == 0) {
+                continue;
+            }
+            long minute = StatisticsTier.MINUTE.getTime(statistics.getDay(), slot);
+            long[] successValues = new long[StatisticsStore.SIDES.length];
+            long[] elapsedValues = new long[StatisticsStore.SIDES.length];
+            for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+                successValues[side] = success[side][slot] / 60;
+                elapsedValues[side] = success[side][slot] == 0 ? 0 : elapsed[side][slot] / success[side][slot];
+                successSummary[0] = Math.max(successSummary[0], success[side][slot]);
+                successSummary[1] = successSummary[1] < 0 ? success[side][slot] : Math.min(successSummary[1], success[side][slot]);
+            }
+            successData.put(minute, successValues);
+            elapsedData.put(minute, elapsedValues);
+            successSum += success[0][slot];
+            elapsedSum += elapsed[0][slot];
+        }
+        if (successData.isEmpty()) {
+            return null;
+        }
+        String subtitle = toSubtitle(statistics.getService(), statistics.getMethod(), toDisplayDate(statistics.getDay()));
+        if (MonitorService.ELAPSED.equals(type)) {
+            double[] elapsedSummary = new double[]{statistics.getElapsedMax(), -1, successSum == 0 ? 0 : (double) elapsedSum / successSum, -1};
+            return createChart("ms/t", subtitle, StatisticsStore.SIDES, elapsedData, toTitle(elapsedSummary), "HH:mm");
+        }
+        successSummary[0] = successSummary[0] / 60;
+        successSummary[1] = successSummary[1] / 60;
+        successSummary[2] = (double) successSum / successData.size() / 60;
+        successSummary[3] = successSum;
+        return createChart("t/s", subtitle, StatisticsStore.SIDES, successData, toTitle(successSummary), "HH:mm");
+    }
+
+    /**
+     * Render the chart of a range as png, a point per slot of the series tier.
+     *
+     * @return the png bytes, or null if the series has no data to render.
+     */
+    public static byte[] render(String service, String method, long from, long to, StatisticsSeries series, String type) throws IOException {
+        if (series.getPoints().isEmpty()) {
+            return null;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        String subtitle = toSubtitle(service, method, format.format(new Date(from)) + " ~ " + format.format(new Date(to))
+                + (series.isPartial() ? " (partial)" : ""));
+        long span = to - from;
+        String axis = span <= StatisticsTier.DAY.getResolution() ? "HH:mm"
+                : span <= 31 * StatisticsTier.DAY.getResolution() ? "MM-dd HH:mm" : "yyyy-MM-dd";
+        double seconds = series.getTier().getResolution() / 1000.0;
+        Map<Long, long[]> data = new HashMap<Long, long[]>();
+        long successSum = 0;
+        long elapsedSum = 0;
+        long elapsedMax = 0;
+        double[] successSummary = new double[]{0, -1, 0, 0};
+        for (Map.Entry<Long, StatisticsSummary> point : series.getPoints().entrySet()) {
+            StatisticsSummary summary = point.getValue();
+            long[] values = new long[StatisticsStore.SIDES.length];
+            for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+                if (MonitorService.ELAPSED.equals(type)) {
+                    values[side] = summary.getAverageElapsed(side);
+                } else {
+                    values[side] = Math.round(summary.getSuccess(side) / seconds);
+                }
+                successSummary[0] = Math.max(successSummary[0], summary.getSuccess(side));
+                successSummary[1] = successSummary[1] < 0 ? summary.getSuccess(side) : Math.min(successSummary[1], summary.getSuccess(side));
+                elapsedMax = Math.max(elapsedMax, summary.getMaxElapsed(side));
+            }
+            data.put(point.getKey(), values);
+            successSum += summary.getSuccess(0);
+            elapsedSum += summary.getElapsed(0);
+        }
+        if (MonitorService.ELAPSED.equals(type)) {
+            double[] elapsedSummary = new double[]{elapsedMax, -1, successSum == 0 ? 0 : (double) elapsedSum / successSum, -1};
+            return createChart("ms/t", subtitle, StatisticsStore.SIDES, data, toTitle(elapsedSummary), axis);
+        }
+        successSummary[0] = successSummary[0] / seconds;
+        successSummary[1] = successSummary[1] / seconds;
+        successSummary[2] = successSum / (data.size() * seconds);
+        successSummary[3] = successSum;
+        return createChart("t/s", subtitle, StatisticsStore.SIDES, data, toTitle(successSummary), axis);
+    }
+
+    private static String toTitle(double[] summary) {
+        DecimalFormat numberFormat = new DecimalFormat("###,##0.##");
+        return "max: " + numberFormat.format(summary[0]) + (summary[1] >= 0 ? " min: " + numberFormat.format(summary[1]) : "")
+                + " avg: " + numberFormat.format(summary[2]) + (summary[3] >= 0 ? " sum: " + numberFormat.format(summary[3]) : "");
+    }
+
+    private static String toSubtitle(String service, String method, String date) {
+        return toDisplayService(service) + "  " + method + "  " + date;
+    }
+
+    private static byte[] createChart(String key, String subtitle, String[] types, Map<Long, long[]> data, String title, String axis) throws IOException {
+        TimeSeriesCollection xydataset = new TimeSeriesCollection();
+        for (int i = 0; i < types.length; i++) {
+            String type = types[i];
+            TimeSeries timeseries = new TimeSeries(type);
+            for (Map.Entry<Long, long[]> entry : data.entrySet()) {
+                timeseries.add(new Minute(new Date(entry.getKey())), entry.getValue()[i]);
+            }
+            xydataset.addSeries(timeseries);
+        }
+        JFreeChart jfreechart = ChartFactory.createTimeSeriesChart(title, subtitle, key, xydataset, true, true, false);
+        jfreechart.setBackgroundPaint(Color.WHITE);
+        XYPlot xyplot = (XYPlot) jfreechart.getPlot();
+        xyplot.setBackgroundPaint(Color.WHITE);
+        xyplot.setDomainGridlinePaint(Color.GRAY);
+        xyplot.setRangeGridlinePaint(Color.GRAY);
+        xyplot.setDomainGridlinesVisible(true);
+        xyplot.setRangeGridlinesVisible(true);
+        DateAxis dateaxis = (DateAxis) xyplot.getDomainAxis();
+        dateaxis.setDateFormatOverride(new SimpleDateFormat(axis));
+        BufferedImage image = jfreechart.createBufferedImage(600, 300);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private static String toDisplayService(String service) {
+        int i = service.lastIndexOf('.');
+        if (i >= 0) {
+            return service.substring(i + 1);
+        }
+        return service;
+    }
+
+    private static String toDisplayDate(String date) {
+        try {
+            return new SimpleDateFormat("yyyy-MM-dd").format(new SimpleDateFormat("yyyyMMdd").parse(date));
+        } catch (ParseException e) {
+            return date;
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+/**
+ * DrawStatistics
+ * <p>
+ * The result of one chart drawing cycle.
+ */
+public class DrawStatistics {
+
+    private final long start;
+
+    private final long elapsed;
+
+    private final int rendered;
+
+    private final int skipped;
+
+    private final int failed;
+
+    public DrawStatistics(long start, long elapsed, int rendered, int skipped, int failed) {
+        this.start = start;
+        this.elapsed = elapsed;
+        this.rendered = rendered;
+        this.skipped = skipped;
+        this.failed = failed;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public int getRendered() {
+        return rendered;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+}
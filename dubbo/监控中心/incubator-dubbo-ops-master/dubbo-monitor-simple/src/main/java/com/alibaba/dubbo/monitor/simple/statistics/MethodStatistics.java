@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MethodStatistics
+ * <p>
+ * The running chart aggregates of one method of one day, summed over all consumer/provider pairs.
+ */
+public class MethodStatistics {
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private final String day;
+
+    private final String service;
+
+    private final String method;
+
+    private final long[][] success;
+
+    private final long[][] elapsed;
+
+    private long elapsedMax;
+
+    private long version;
+
+    public MethodStatistics(String day, String service, String method, int slots) {
+        this.day = day;
+        this.service = service;
+        this.method = method;
+        this.success = new long[StatisticsStore.SIDES.length][slots];
+        this.elapsed = new long[StatisticsStore.SIDES.length][slots];
+    }
+
+    private MethodStatistics(MethodStatistics source) {
+        this(source.day, source.service, source.method, source.getSlots());
+        for (int side = 0; side < success.length; side++) {
+            System.arraycopy(source.success[side], 0, success[side], 0, success[side].length);
+            System.arraycopy(source.elapsed[side], 0, elapsed[side], 0, elapsed[side].length);
+        }
+        this.elapsedMax = source.elapsedMax;
+        this.version = source.version;
+    }
+
+    public static String getKey(String day, String service, String method) {
+        return day + "/" + service + "/" + method;
+    }
+
+    public String getKey() {
+        return getKey(day, service, method);
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getSlots() {
+        return success[0].length;
+    }
+
+    public long[] getSuccess(int side) {
+        return success[side];
+    }
+
+    public long[] getElapsed(int side) {
+        return elapsed[side];
+    }
+
+    public long getElapsedMax() {
+        return elapsedMax;
+    }
+
+    /**
+     * The data version, unique among all the method statistics of this process, changed on every update.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized void load(StatisticsTable table) {
+        for (int pair = 0; pair < table.size(); pair++) {
+            for (int side = 0; side < success.length; side++) {
+                for (int slot = 0; slot < success[side].length; slot++) {
+                    success[side][slot] += table.get(pair, side, Statistics.SUCCESS_INDEX, slot);
+                    elapsed[side][slot] += table.get(pair, side, Statistics.ELAPSED_INDEX, slot);
+                    elapsedMax = Math.max(elapsedMax, table.get(pair, side, Statistics.MAX_ELAPSED_INDEX, slot));
+                }
+            }
+        }
+        version = VERSION.incrementAndGet();
+    }
+
+    public synchronized void merge(int side, int slot, long[] values) {
+        success[side][slot] += values[Statistics.SUCCESS_INDEX];
+        elapsed[side][slot] += values[Statistics.ELAPSED_INDEX];
+        elapsedMax = Math.max(elapsedMax, values[Statistics.MAX_ELAPSED_INDEX]);
+        version = VERSION.incrementAndGet();
+    }
+
+    /**
+     * Copy the aggregates, so they can be rendered while new data is merged.
+     */
+    public synchronized MethodStatistics snapshot() {
+        return new MethodStatistics(this);
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.MonitorService;
+
+/**
+ * Statistics
+ */
+public final class Statistics {
+
+    public static final String[] TYPES = {MonitorService.SUCCESS, MonitorService.FAILURE, MonitorService.ELAPSED,
+            MonitorService.CONCURRENT, MonitorService.MAX_ELAPSED, MonitorService.MAX_CONCURRENT};
+
+    public static final int SUCCESS_INDEX = 0;
+
+    public static final int FAILURE_INDEX = 1;
+
+    public static final int ELAPSED_INDEX = 2;
+
+    public static final int CONCURRENT_INDEX = 3;
+
+    public static final int MAX_ELAPSED_INDEX = 4;
+
+    public static final int MAX_CONCURRENT_INDEX = 5;
+
+    private Statistics() {
+    }
+
+    public static long[] newValues() {
+        return new long[TYPES.length];
+    }
+
+    /**
+     * Whether the values of the type are merged by max instead of by sum.
+     */
+    public static boolean isMax(int index) {
+        return index == MAX_ELAPSED_INDEX || index == MAX_CONCURRENT_INDEX;
+    }
+
+    public static void merge(long[] target, long[] values) {
+        for (int i = 0; i < target.length; i++) {
+            if (isMax(i)) {
+                target[i] = Math.max(target[i], values[i]);
+            } else {
+                target[i] += values[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * StatisticsAggregator
+ * <p>
+ * Merges the reports of one minute in memory, so a minute bucket is written only once, when it closes.
+ * The buckets are striped by key to keep the lock hold time short for concurrent writers.
+ */
+public class StatisticsAggregator {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+
+    public StatisticsAggregator() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Merge the values into the bucket of the minute.
+     *
+     * @param minute the start millis of the minute
+     * @param key    the statistics key
+     * @param values the values indexed as {@link Statistics#TYPES}
+     */
+    public void add(long minute, StatisticsKey key, long[] values) {
+        Stripe stripe = stripes[(key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            Map<StatisticsKey, MinuteStatistics> bucket = stripe.buckets.get(minute);
+            if (bucket == null) {
+                bucket = new HashMap<StatisticsKey, MinuteStatistics>();
+                stripe.buckets.put(minute, bucket);
+            }
+            MinuteStatistics current = bucket.get(key);
+            if (current == null) {
+                current = new MinuteStatistics();
+                bucket.put(key, current);
+            }
+            current.add(values);
+        }
+    }
+
+    /**
+     * Remove and return all the buckets before the minute.
+     *
+     * @param before the start millis of the first minute to keep, the buckets before it are closed
+     * @return the closed buckets, ordered by minute
+     */
+    public SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> drain(long before) {
+        SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> closed = new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Iterator<Map.Entry<Long, Map<StatisticsKey, MinuteStatistics>>> iterator = stripe.buckets.entrySet().iterator(); iterator.hasNext(); ) {
+                    Map.Entry<Long, Map<StatisticsKey, MinuteStatistics>> entry = iterator.next();
+                    if (entry.getKey() < before) {
+                        Map<StatisticsKey, MinuteStatistics> bucket = closed.get(entry.getKey());
+                        if (bucket == null) {
+                            closed.put(entry.getKey(), entry.getValue());
+                        } else {
+                            bucket.putAll(entry.getValue());
+                        }
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+        return closed;
+    }
+
+    private static class Stripe {
+
+        private final Map<Long, Map<StatisticsKey, MinuteStatistics>> buckets = new HashMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * StatisticsCompactor
+ * <p>
+ * Rolls the closed minute days up into the coarser tiers, then deletes the periods of every tier
+ * older than its retention. A rollup replaces the slots of its day in the coarser tiers, which no other day writes,
+ * so rolling a day again gives the same values. A rolled day is marked with a <code>.rollup</code> file dated at the
+ * start of the rollup, and rolled again if its minutes were written since.
+ */
+public class StatisticsCompactor {
+
+    static final String ROLLUP_MARKER = ".rollup";
+
+    // a day is rolled up once no more late minutes are expected
+    static final long ROLLUP_DELAY = 60 * 60 * 1000L;
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsCompactor.class);
+
+    private final Map<StatisticsTier, StatisticsStore> stores = new HashMap<StatisticsTier, StatisticsStore>();
+
+    private final Map<StatisticsTier, Long> retentions;
+
+    /**
+     * @param directory  the directory of the minute store, the coarser stores are in its sub directories
+     * @param retentions the retention millis of each tier, the missing or non-positive are kept forever
+     */
+    public StatisticsCompactor(File directory, Map<StatisticsTier, Long> retentions) {
+        for (StatisticsTier tier : StatisticsTier.TIERS) {
+            stores.put(tier, tier == StatisticsTier.MINUTE ? new StatisticsStore(directory)
+                    : new StatisticsStore(new File(directory, tier.getName()), tier));
+        }
+        this.retentions = new HashMap<StatisticsTier, Long>(retentions);
+    }
+
+    public StatisticsStore getStore(StatisticsTier tier) {
+        return stores.get(tier);
+    }
+
+    public long getRetention(StatisticsTier tier) {
+        Long retention = retentions.get(tier);
+        return retention == null ? 0 : retention;
+    }
+
+    /**
+     * The end millis of the last rolled day, the coarser tiers have no data after it.
+     */
+    public long getRolledUntil() {
+        // a day of the 5 minutes tier is only written by its rollup
+        List<String> days = getStore(StatisticsTier.FIVE_MINUTES).getDays();
+        return days.isEmpty() ? 0 : StatisticsTier.FIVE_MINUTES.getEnd(days.get(days.size() - 1));
+    }
+
+    /**
+     * The start millis of the oldest period in any tier, no tier has data before it.
+     *
+     * @return the start, or Long.MAX_VALUE if no tier has data
+     */
+    public long getOldest() {
+        long oldest = Long.MAX_VALUE;
+        for (StatisticsTier tier : StatisticsTier.TIERS) {
+            List<String> periods = getStore(tier).getDays();
+            if (!periods.isEmpty()) {
+                oldest = Math.min(oldest, tier.getStart(periods.get(0)));
+            }
+        }
+        return oldest;
+    }
+
+    public boolean isRolled(String day) {
+        return getMarker(day).exists();
+    }
+
+    private File getMarker(String day) {
+        return new File(new File(getStore(StatisticsTier.MINUTE).getDirectory(), day), ROLLUP_MARKER);
+    }
+
+    /**
+     * Whether the minutes of the day were written since its rollup started.
+     */
+    private boolean isModified(String day, File marker) {
+        long rolled = marker.lastModified();
+        StatisticsStore minutes = getStore(StatisticsTier.MINUTE);
+        for (String service : minutes.getServices(day)) {
+            for (String method : minutes.getMethods(day, service)) {
+                if (minutes.lastModified(day, service, method) >= rolled) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Select the coarsest tier still giving the points over the range, and retaining its start.
+     * The coarser tiers only cover the days until {@link #getRolledUntil()}.
+     *
+     * @param from   the start millis, inclusive
+     * @param to     the end millis, exclusive
+     * @param points the minimal number of slots wanted over the range
+     */
+    public StatisticsTier select(long from, long to, int points, long now) {
+        for (int i = StatisticsTier.TIERS.length - 1; i > 0; i--) {
+            StatisticsTier tier = StatisticsTier.TIERS[i];
+            if ((to - from) / tier.getResolution() >= points && isRetained(tier, from, now)) {
+                return tier;
+            }
+        }
+        return StatisticsTier.MINUTE;
+    }
+
+    public boolean isRetained(StatisticsTier tier, long time, long now) {
+        long retention = getRetention(tier);
+        return retention <= 0 || time >= now - retention;
+    }
+
+    /**
+     * Roll up the closed days, then apply the retentions.
+     */
+    public void compact(long now) throws IOException {
+        StatisticsStore minutes = getStore(StatisticsTier.MINUTE);
+        for (String day : minutes.getDays()) {
+            long end = StatisticsTier.MINUTE.getEnd(day);
+            if (end + ROLLUP_DELAY > now) {
+                continue;
+            }
+            File marker = getMarker(day);
+            if (!marker.exists() || isModified(day, marker)) {
+                long start = System.currentTimeMillis();
+                rollup(day);
+                if (!marker.exists() && !marker.createNewFile() || !marker.setLastModified(start)) {
+                    logger.warn("Failed to mark the statistics of " + day + " rolled up");
+                }
+                logger.info("Rolled up the statistics of " + day + " in " + (System.currentTimeMillis() - start) + "ms");
+            }
+        }
+        for (StatisticsTier tier : StatisticsTier.TIERS) {
+            long retention = getRetention(tier);
+            if (retention <= 0) {
+                continue;
+            }
+            StatisticsStore store = getStore(tier);
+            for (String period : store.getDays()) {
+                if (tier.getEnd(period) + retention <= now && (tier != StatisticsTier.MINUTE || isRolled(period))) {
+                    store.delete(period);
+                    logger.info("Deleted the " + tier + " statistics of " + period + " after retention");
+                }
+            }
+        }
+    }
+
+    private void rollup(String day) throws IOException {
+        StatisticsStore minutes = getStore(StatisticsTier.MINUTE);
+        long start = StatisticsTier.MINUTE.getStart(day);
+        long end = StatisticsTier.MINUTE.getEnd(day);
+        for (String service : minutes.getServices(day)) {
+            for (String method : minutes.getMethods(day, service)) {
+                StatisticsTable table = minutes.read(day, service, method);
+                if (table == null) {
+                    continue;
+                }
+                for (int i = 1; i < StatisticsTier.TIERS.length; i++) {
+                    StatisticsTier tier = StatisticsTier.TIERS[i];
+                    getStore(tier).replace(rollup(tier, day, service, method, table), start, end);
+                }
+            }
+        }
+    }
+
+    private SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> rollup(StatisticsTier tier, String day, String service, String method,
+                                                                         StatisticsTable table) {
+        SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets = new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+        long[] slotStarts = new long[table.getSlots()];
+        for (int slot = 0; slot < slotStarts.length; slot++) {
+            slotStarts[slot] = tier.getSlotStart(StatisticsTier.MINUTE.getTime(day, slot));
+        }
+        for (int pair = 0; pair < table.size(); pair++) {
+            for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+                StatisticsKey key = new StatisticsKey(service, method, table.getConsumer(pair), table.getProvider(pair), StatisticsStore.SIDES[side]);
+                for (int slot = 0; slot < slotStarts.length; slot++) {
+                    long[] values = Statistics.newValues();
+                    boolean empty = true;
+                    for (int type = 0; type < values.length; type++) {
+                        values[type] = table.get(pair, side, type, slot);
+                        empty &= values[type] == 0;
+                    }
+                    if (!empty) {
+                        Statistics.merge(getStatistics(buckets, slotStarts[slot], key).getValues(), values);
+                    }
+                }
+            }
+        }
+        return buckets;
+    }
+
+    private static MinuteStatistics getStatistics(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets, long time, StatisticsKey key) {
+        Map<StatisticsKey, MinuteStatistics> bucket = buckets.get(time);
+        if (bucket == null) {
+            bucket = new HashMap<StatisticsKey, MinuteStatistics>();
+            buckets.put(time, bucket);
+        }
+        MinuteStatistics statistics = bucket.get(key);
+        if (statistics == null) {
+            statistics = new MinuteStatistics();
+            bucket.put(key, statistics);
+        }
+        return statistics;
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.utils.UrlUtils;
+import com.alibaba.dubbo.monitor.MonitorService;
+
+/**
+ * StatisticsFilter
+ * <p>
+ * The conditions of a lookup, each one an exact name, a glob pattern with <code>*</code> or any when absent.
+ * The host is the one reporting the statistics: the consumer on the consumer side and the provider on the provider side.
+ */
+public class StatisticsFilter {
+
+    /**
+     * The id of a condition matching any name.
+     */
+    public static final int ANY = -1;
+
+    /**
+     * The id of an exact name never interned, so nothing matches.
+     */
+    public static final int NONE = -2;
+
+    private final String service;
+
+    private final String method;
+
+    private final String application;
+
+    private final String host;
+
+    private final String consumer;
+
+    private final String provider;
+
+    private final String side;
+
+    public StatisticsFilter(String service, String method, String application, String host,
+                            String consumer, String provider, String side) {
+        this.service = normalize(service);
+        this.method = normalize(method);
+        this.application = normalize(application);
+        this.host = normalize(host);
+        this.consumer = normalize(consumer);
+        this.provider = normalize(provider);
+        this.side = normalize(side);
+    }
+
+    /**
+     * Parse the filter of the query, e.g. <code>count://10.20.153.10/com.foo.BarService?application=foo&method=bar&side=provider</code>,
+     * an any host address stands for all the hosts.
+     */
+    public static StatisticsFilter valueOf(URL query) {
+        String host = query.getHost();
+        if (Constants.ANYHOST_VALUE.equals(host)) {
+            host = null;
+        }
+        return new StatisticsFilter(query.getServiceInterface(), query.getParameter(MonitorService.METHOD),
+                query.getParameter(MonitorService.APPLICATION), host, getHost(query.getParameter(MonitorService.CONSUMER)),
+                getHost(query.getParameter(MonitorService.PROVIDER)), query.getParameter(Constants.SIDE_KEY));
+    }
+
+    private static String getHost(String address) {
+        int i = address == null ? -1 : address.indexOf(':');
+        return i > 0 ? address.substring(0, i) : address;
+    }
+
+    private static String normalize(String condition) {
+        return condition == null || condition.length() == 0 || Constants.ANY_VALUE.equals(condition) ? null : condition;
+    }
+
+    private static boolean match(String condition, String name) {
+        if (condition == null) {
+            return true;
+        }
+        if (name == null) {
+            return false;
+        }
+        if (condition.indexOf('*') >= 0) {
+            return UrlUtils.isMatchGlobPattern(condition, name);
+        }
+        return condition.equals(name);
+    }
+
+    private static int getId(String condition, SymbolTable symbols) {
+        if (condition == null || condition.indexOf('*') >= 0) {
+            return ANY;
+        }
+        int id = symbols.find(condition);
+        return id < 0 ? NONE : id;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    /**
+     * Whether the service is a single one, so only its statistics directory is read.
+     */
+    public boolean isExactService() {
+        return service != null && service.indexOf('*') < 0;
+    }
+
+    public boolean isAnyApplication() {
+        return application == null;
+    }
+
+    public int getServiceId(SymbolTable symbols) {
+        return getId(service, symbols);
+    }
+
+    public int getApplicationId(SymbolTable symbols) {
+        return getId(application, symbols);
+    }
+
+    public int getHostId(SymbolTable symbols) {
+        return getId(host, symbols);
+    }
+
+    public boolean matchesService(String service) {
+        return match(this.service, service);
+    }
+
+    public boolean matches(String service, String method, String application, String consumer, String provider, boolean consumerSide) {
+        return match(this.service, service) && match(this.method, method) && match(this.application, application)
+                && match(host, consumerSide ? consumer : provider) && match(this.consumer, consumer)
+                && match(this.provider, provider)
+                && match(side, consumerSide ? MonitorService.CONSUMER : MonitorService.PROVIDER);
+    }
+
+    public boolean matches(StatisticsIndex.Entry entry, SymbolTable symbols) {
+        return matches(symbols.getName(entry.getService()), symbols.getName(entry.getMethod()),
+                symbols.getName(entry.getApplication()), symbols.getName(entry.getConsumer()),
+                symbols.getName(entry.getProvider()), entry.isConsumerSide());
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * StatisticsIndex
+ * <p>
+ * Keeps the recent closed minutes in memory, keyed by service, method, application, consumer, provider and side,
+ * so the lookups of the hot window never touch the store. The records are merged by the write thread and a minute
+ * is published as an immutable bucket when it closes, with posting lists by service, application and host.
+ */
+public class StatisticsIndex {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    private final SymbolTable symbols;
+
+    private final long window;
+
+    private final Map<Long, Map<Entry, long[]>> pending = new HashMap<Long, Map<Entry, long[]>>();
+
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+
+    private volatile long start;
+
+    /**
+     * @param window the millis of the closed minutes to keep
+     * @param start  the millis the index starts to cover, the earlier records are only in the store
+     */
+    public StatisticsIndex(SymbolTable symbols, long window, long start) {
+        this.symbols = symbols;
+        this.window = window;
+        this.start = start / MINUTE * MINUTE;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Get the start millis of the minutes covered by the index.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Merge the record into its minute, called by the write thread only.
+     *
+     * @param values the values of the record indexed as {@link Statistics#TYPES}
+     */
+    public void add(StatisticsRecord record, long[] values) {
+        long minute = record.getTimestamp() / MINUTE * MINUTE;
+        if (minute < start) {
+            return;
+        }
+        Map<Entry, long[]> bucket = pending.get(minute);
+        if (bucket == null) {
+            bucket = new HashMap<Entry, long[]>();
+            pending.put(minute, bucket);
+        }
+        Entry entry = new Entry(record.getService(), record.getMethod(), record.getApplication(),
+                record.getConsumer(), record.getProvider(), record.isConsumerSide());
+        long[] current = bucket.get(entry);
+        if (current == null) {
+            bucket.put(entry, values.clone());
+        } else {
+            Statistics.merge(current, values);
+        }
+    }
+
+    /**
+     * Publish the minutes before the time and evict the minutes out of the window, called by the write thread only.
+     * A late record of a published minute is merged into a new bucket of the minute.
+     */
+    public void publish(long before) {
+        for (Iterator<Map.Entry<Long, Map<Entry, long[]>>> iterator = pending.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Long, Map<Entry, long[]>> minute = iterator.next();
+            if (minute.getKey() >= before) {
+                continue;
+            }
+            iterator.remove();
+            Map<Entry, long[]> values = minute.getValue();
+            Bucket published = buckets.get(minute.getKey());
+            if (published != null) {
+                for (int i = 0; i < published.entries.length; i++) {
+                    long[] current = values.get(published.entries[i]);
+                    if (current == null) {
+                        values.put(published.entries[i], published.values[i]);
+                    } else {
+                        Statistics.merge(current, published.values[i]);
+                    }
+                }
+            }
+            buckets.put(minute.getKey(), new Bucket(values));
+        }
+        long evict = (before - window) / MINUTE * MINUTE;
+        if (evict > start) {
+            start = evict;
+            buckets.headMap(evict).clear();
+        }
+    }
+
+    /**
+     * Get the symbol ids held by the pending and published minutes, called by the write thread only.
+     */
+    public Set<Integer> getIds() {
+        Set<Integer> ids = new HashSet<Integer>();
+        for (Map<Entry, long[]> bucket : pending.values()) {
+            for (Entry entry : bucket.keySet()) {
+                entry.addIds(ids);
+            }
+        }
+        for (Bucket bucket : buckets.values()) {
+            for (Entry entry : bucket.entries) {
+                entry.addIds(ids);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Merge the entries of the minutes in the range matching the filter into the result.
+     *
+     * @param from the start millis, inclusive
+     * @param to   the end millis, exclusive
+     */
+    public void lookup(StatisticsFilter filter, long from, long to, Map<Entry, long[]> result) {
+        int service = filter.getServiceId(symbols);
+        int application = filter.getApplicationId(symbols);
+        int host = filter.getHostId(symbols);
+        if (service == StatisticsFilter.NONE || application == StatisticsFilter.NONE || host == StatisticsFilter.NONE) {
+            return;
+        }
+        long first = Math.max(from, start);
+        if (first >= to) {
+            return;
+        }
+        for (Bucket bucket : buckets.subMap(first, true, to, false).values()) {
+            int[] candidates = bucket.getCandidates(service, application, host);
+            int count = candidates == null ? bucket.entries.length : candidates.length;
+            for (int i = 0; i < count; i++) {
+                int index = candidates == null ? i : candidates[i];
+                Entry entry = bucket.entries[index];
+                if (filter.matches(entry, symbols)) {
+                    long[] current = result.get(entry);
+                    if (current == null) {
+                        result.put(entry, bucket.values[index].clone());
+                    } else {
+                        Statistics.merge(current, bucket.values[index]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The interned key of an index entry.
+     */
+    public static class Entry {
+
+        private final int service;
+
+        private final int method;
+
+        private final int application;
+
+        private final int consumer;
+
+        private final int provider;
+
+        private final boolean consumerSide;
+
+        public Entry(int service, int method, int application, int consumer, int provider, boolean consumerSide) {
+            this.service = service;
+            this.method = method;
+            this.application = application;
+            this.consumer = consumer;
+            this.provider = provider;
+            this.consumerSide = consumerSide;
+        }
+
+        public int getService() {
+            return service;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public int getApplication() {
+            return application;
+        }
+
+        public int getConsumer() {
+            return consumer;
+        }
+
+        public int getProvider() {
+            return provider;
+        }
+
+        public boolean isConsumerSide() {
+            return consumerSide;
+        }
+
+        void addIds(Set<Integer> ids) {
+            ids.add(service);
+            ids.add(method);
+            ids.add(application);
+            ids.add(consumer);
+            ids.add(provider);
+        }
+
+        /**
+         * Get the host reporting the entry, the consumer on the consumer side and the provider on the provider side.
+         */
+        public int getHost() {
+            return consumerSide ? consumer : provider;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = service;
+            h = 31 * h + method;
+            h = 31 * h + application;
+            h = 31 * h + consumer;
+            h = 31 * h + provider;
+            return 31 * h + (consumerSide ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) obj;
+            return service == other.service && method == other.method && application == other.application
+                    && consumer == other.consumer && provider == other.provider && consumerSide == other.consumerSide;
+        }
+
+    }
+
+    private static class Bucket {
+
+        private final Entry[] entries;
+
+        private final long[][] values;
+
+        private final Map<Integer, int[]> services;
+
+        private final Map<Integer, int[]> applications;
+
+        private final Map<Integer, int[]> hosts;
+
+        Bucket(Map<Entry, long[]> bucket) {
+            entries = new Entry[bucket.size()];
+            values = new long[bucket.size()][];
+            Map<Integer, List<Integer>> services = new HashMap<Integer, List<Integer>>();
+            Map<Integer, List<Integer>> applications = new HashMap<Integer, List<Integer>>();
+            Map<Integer, List<Integer>> hosts = new HashMap<Integer, List<Integer>>();
+            int i = 0;
+            for (Map.Entry<Entry, long[]> entry : bucket.entrySet()) {
+                entries[i] = entry.getKey();
+                values[i] = entry.getValue();
+                post(services, entry.getKey().getService(), i);
+                post(applications, entry.getKey().getApplication(), i);
+                post(hosts, entry.getKey().getHost(), i);
+                i++;
+            }
+            this.services = toPostings(services);
+            this.applications = toPostings(applications);
+            this.hosts = toPostings(hosts);
+        }
+
+        private static void post(Map<Integer, List<Integer>> postings, int id, int index) {
+            List<Integer> posting = postings.get(id);
+            if (posting == null) {
+                posting = new ArrayList<Integer>();
+                postings.put(id, posting);
+            }
+            posting.add(index);
+        }
+
+        private static Map<Integer, int[]> toPostings(Map<Integer, List<Integer>> postings) {
+            Map<Integer, int[]> result = new HashMap<Integer, int[]>(postings.size() * 2);
+            for (Map.Entry<Integer, List<Integer>> posting : postings.entrySet()) {
+                int[] indexes = new int[posting.getValue().size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    indexes[i] = posting.getValue().get(i);
+                }
+                result.put(posting.getKey(), indexes);
+            }
+            return result;
+        }
+
+        /**
+         * Get the shortest posting list of the exact ids, or null to scan all the entries.
+         */
+        int[] getCandidates(int service, int application, int host) {
+            int[] candidates = shorter(null, services, service);
+            candidates = shorter(candidates, applications, application);
+            return shorter(candidates, hosts, host);
+        }
+
+        private static int[] shorter(int[] candidates, Map<Integer, int[]> postings, int id) {
+            if (id == StatisticsFilter.ANY) {
+                return candidates;
+            }
+            int[] posting = postings.get(id);
+            if (posting == null) {
+                return new int[0];
+            }
+            return candidates == null || posting.length < candidates.length ? posting : candidates;
+        }
+
+    }
+
+}
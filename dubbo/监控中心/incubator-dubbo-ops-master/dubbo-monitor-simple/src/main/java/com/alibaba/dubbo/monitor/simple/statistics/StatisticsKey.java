@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+/**
+ * StatisticsKey
+ */
+public class StatisticsKey {
+
+    private final String service;
+
+    private final String method;
+
+    private final String consumer;
+
+    private final String provider;
+
+    private final String side;
+
+    private final int hash;
+
+    public StatisticsKey(String service, String method, String consumer, String provider, String side) {
+        this.service = service;
+        this.method = method;
+        this.consumer = consumer;
+        this.provider = provider;
+        this.side = side;
+        int h = service == null ? 0 : service.hashCode();
+        h = 31 * h + (method == null ? 0 : method.hashCode());
+        h = 31 * h + (consumer == null ? 0 : consumer.hashCode());
+        h = 31 * h + (provider == null ? 0 : provider.hashCode());
+        h = 31 * h + (side == null ? 0 : side.hashCode());
+        this.hash = h;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StatisticsKey)) {
+            return false;
+        }
+        StatisticsKey other = (StatisticsKey) obj;
+        return hash == other.hash
+                && eq(service, other.service)
+                && eq(method, other.method)
+                && eq(consumer, other.consumer)
+                && eq(provider, other.provider)
+                && eq(side, other.side);
+    }
+
+    private static boolean eq(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Override
+    public String toString() {
+        return service + "/" + method + "/" + consumer + "/" + provider + "/" + side;
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.common.TimeRange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StatisticsLookup
+ * <p>
+ * Answers {@link MonitorService#lookup(URL)}: the minutes covered by the index are read from memory
+ * and only the earlier minutes of the range fall back to the store.
+ */
+public class StatisticsLookup {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    private final StatisticsIndex index;
+
+    private final StatisticsQuery query;
+
+    public StatisticsLookup(StatisticsIndex index, StatisticsQuery query) {
+        this.index = index;
+        this.query = query;
+    }
+
+    /**
+     * Lookup the statistics matching the query, merged over the range by service, method, application,
+     * consumer, provider and side. The range is the <code>date</code> or <code>from</code> and <code>to</code>
+     * of the query as in {@link TimeRange}, the minutes kept by the index if absent.
+     *
+     * @return the statistics urls with the range as <code>from</code> and <code>to</code> millis
+     */
+    public List<URL> lookup(URL url) throws IOException {
+        long from;
+        long to;
+        if (url.hasParameter("date") || url.hasParameter("from")) {
+            TimeRange range = TimeRange.parse(url);
+            from = range.getFrom();
+            to = range.getTo();
+        } else {
+            from = index.getStart();
+            to = System.currentTimeMillis();
+        }
+        from = from / MINUTE * MINUTE;
+        StatisticsFilter filter = StatisticsFilter.valueOf(url);
+        long start = index.getStart();
+        Map<StatisticsIndex.Entry, long[]> recent = new HashMap<StatisticsIndex.Entry, long[]>();
+        index.lookup(filter, Math.max(from, start), to, recent);
+        Map<StatisticsKey, long[]> stored = new HashMap<StatisticsKey, long[]>();
+        if (from < start) {
+            query.aggregate(filter, from, Math.min(to, start), stored);
+        }
+        SymbolTable symbols = index.getSymbols();
+        List<URL> result = new ArrayList<URL>(recent.size() + stored.size());
+        for (Map.Entry<StatisticsIndex.Entry, long[]> entry : recent.entrySet()) {
+            StatisticsIndex.Entry key = entry.getKey();
+            result.add(toUrl(symbols.getName(key.getService()), symbols.getName(key.getMethod()),
+                    symbols.getName(key.getApplication()), symbols.getName(key.getConsumer()),
+                    symbols.getName(key.getProvider()), key.isConsumerSide(), entry.getValue(), from, to));
+        }
+        for (Map.Entry<StatisticsKey, long[]> entry : stored.entrySet()) {
+            StatisticsKey key = entry.getKey();
+            result.add(toUrl(key.getService(), key.getMethod(), null, key.getConsumer(), key.getProvider(),
+                    MonitorService.CONSUMER.equals(key.getSide()), entry.getValue(), from, to));
+        }
+        return result;
+    }
+
+    private static URL toUrl(String service, String method, String application, String consumer, String provider,
+                             boolean consumerSide, long[] values, long from, long to) {
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put(Constants.INTERFACE_KEY, service);
+        if (method != null) {
+            parameters.put(MonitorService.METHOD, method);
+        }
+        if (application != null) {
+            parameters.put(MonitorService.APPLICATION, application);
+        }
+        String remote = consumerSide ? provider : consumer;
+        if (remote != null) {
+            parameters.put(consumerSide ? MonitorService.PROVIDER : MonitorService.CONSUMER, remote);
+        }
+        parameters.put(Constants.SIDE_KEY, consumerSide ? MonitorService.CONSUMER : MonitorService.PROVIDER);
+        for (int i = 0; i < Statistics.TYPES.length; i++) {
+            parameters.put(Statistics.TYPES[i], String.valueOf(values[i]));
+        }
+        parameters.put("from", String.valueOf(from));
+        parameters.put("to", String.valueOf(to));
+        return new URL(Constants.COUNT_PROTOCOL, consumerSide ? consumer : provider, 0, service, parameters);
+    }
+
+}
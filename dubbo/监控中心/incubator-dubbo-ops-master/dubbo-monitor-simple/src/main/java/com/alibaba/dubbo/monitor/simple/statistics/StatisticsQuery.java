@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.MonitorService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * StatisticsQuery
+ * <p>
+ * Answers the range queries of a service from the tiers: the range is split into the coarsest slots that are
+ * aligned, rolled up and retained, so a long range reads a few day slots and the minute slots only at its edges.
+ * A query stops reading once its time budget is used up, and the result is marked partial.
+ */
+public class StatisticsQuery {
+
+    private final StatisticsCompactor compactor;
+
+    private final long budget;
+
+    /**
+     * @param budget the time budget of a query in millis, non-positive for unlimited
+     */
+    public StatisticsQuery(StatisticsCompactor compactor, long budget) {
+        this.compactor = compactor;
+        this.budget = budget;
+    }
+
+    /**
+     * Get the names of the methods having statistics in the range.
+     */
+    public Set<String> getMethods(String service, long from, long to) {
+        Set<String> methods = new TreeSet<String>();
+        for (Segment segment : split(from, to, StatisticsTier.DAY, System.currentTimeMillis(), Long.MAX_VALUE)) {
+            methods.addAll(compactor.getStore(segment.tier).getMethods(segment.period, service));
+        }
+        return methods;
+    }
+
+    /**
+     * Merge the stored statistics matching the filter over the range by service, method, consumer, provider and side.
+     * The store keeps no application, so a filter of an application matches nothing here.
+     *
+     * @param from the start millis, inclusive
+     * @param to   the end millis, exclusive
+     * @return false if the time budget is used up before all the statistics are read
+     */
+    public boolean aggregate(StatisticsFilter filter, long from, long to, Map<StatisticsKey, long[]> result) throws IOException {
+        if (!filter.isAnyApplication()) {
+            return true;
+        }
+        long deadline = getDeadline();
+        List<Segment> segments = split(from, to, StatisticsTier.DAY, System.currentTimeMillis(), deadline);
+        if (segments == null) {
+            return false;
+        }
+        for (Segment segment : segments) {
+            StatisticsStore store = compactor.getStore(segment.tier);
+            List<String> services = filter.isExactService() ? Collections.singletonList(filter.getService())
+                    : store.getServices(segment.period);
+            for (String service : services) {
+                if (!filter.matchesService(service)) {
+                    continue;
+                }
+                for (String method : store.getMethods(segment.period, service)) {
+                    if (System.currentTimeMillis() > deadline) {
+                        return false;
+                    }
+                    StatisticsTable table = store.read(segment.period, service, method);
+                    if (table == null) {
+                        continue;
+                    }
+                    for (int pair = 0; pair < table.size(); pair++) {
+                        for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+                            if (!filter.matches(service, method, null, table.getConsumer(pair), table.getProvider(pair), side == 0)) {
+                                continue;
+                            }
+                            long[] values = null;
+                            for (int[] range : segment.ranges) {
+                                for (int slot = range[0]; slot < range[1]; slot++) {
+                                    if (table.get(pair, side, Statistics.SUCCESS_INDEX, slot) == 0
+                                            && table.get(pair, side, Statistics.FAILURE_INDEX, slot) == 0) {
+                                        continue;
+                                    }
+                                    if (values == null) {
+                                        StatisticsKey key = new StatisticsKey(service, method, table.getConsumer(pair),
+                                                table.getProvider(pair), StatisticsStore.SIDES[side]);
+                                        values = result.get(key);
+                                        if (values == null) {
+                                            values = Statistics.newValues();
+                                            result.put(key, values);
+                                        }
+                                    }
+                                    for (int type = 0; type < values.length; type++) {
+                                        long value = table.get(pair, side, type, slot);
+                                        values[type] = Statistics.isMax(type) ? Math.max(values[type], value) : values[type] + value;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sum up the methods of the service over the range.
+     *
+     * @param from   the start millis, inclusive
+     * @param to     the end millis, exclusive
+     * @param expand {@link MonitorService#CONSUMER} or
+     *               {@link MonitorService#PROVIDER} to expand the methods by, or null
+     */
+    public StatisticsResult summarize(String service, long from, long to, String expand) throws IOException {
+        long deadline = getDeadline();
+        StatisticsResult result = new StatisticsResult();
+        List<Segment> segments = split(from, to, StatisticsTier.DAY, System.currentTimeMillis(), deadline);
+        if (segments == null) {
+            result.setPartial(true);
+            return result;
+        }
+        for (Segment segment : segments) {
+            StatisticsStore store = compactor.getStore(segment.tier);
+            for (String method : store.getMethods(segment.period, service)) {
+                if (System.currentTimeMillis() > deadline) {
+                    result.setPartial(true);
+                    return result;
+                }
+                StatisticsTable table = store.read(segment.period, service, method);
+                if (table == null) {
+                    continue;
+                }
+                for (int[] range : segment.ranges) {
+                    for (int pair = 0; pair < table.size(); pair++) {
+                        if (hasStatistics(table, pair, range[0], range[1])) {
+                            StatisticsSummary summary = result.getMethod(method);
+                            summary.append(table, pair, range[0], range[1]);
+                            String key = getExpandKey(table, pair, expand);
+                            if (key != null) {
+                                summary.getExpand(key).append(table, pair, range[0], range[1]);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the totals of the method per slot over the range, from the coarsest tier still giving the points.
+     */
+    public StatisticsSeries series(String service, String method, long from, long to, int points) throws IOException {
+        long deadline = getDeadline();
+        long now = System.currentTimeMillis();
+        StatisticsSeries series = new StatisticsSeries(compactor.select(from, to, points, now));
+        List<Segment> segments = split(from, to, series.getTier(), now, deadline);
+        if (segments == null) {
+            series.setPartial(true);
+            return series;
+        }
+        for (Segment segment : segments) {
+            if (System.currentTimeMillis() > deadline) {
+                series.setPartial(true);
+                return series;
+            }
+            StatisticsStore store = compactor.getStore(segment.tier);
+            StatisticsTable table = store.read(segment.period, service, method);
+            if (table == null) {
+                continue;
+            }
+            for (int[] range : segment.ranges) {
+                for (int slot = range[0]; slot < range[1]; slot++) {
+                    StatisticsSummary point = null;
+                    for (int pair = 0; pair < table.size(); pair++) {
+                        if (hasStatistics(table, pair, slot, slot + 1)) {
+                            if (point == null) {
+                                point = series.getPoint(segment.tier.getTime(segment.period, slot));
+                            }
+                            point.append(table, pair, slot, slot + 1);
+                        }
+                    }
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Split the range into the slots of the coarsest tiers, up to the max tier, having the statistics of the slots.
+     * The slots of the same period are grouped into one segment, the adjacent slots into one range.
+     * The range is first narrowed to the stored data, so a range reaching far into the past or future
+     * walks only the slots that may have statistics.
+     *
+     * @param deadline the millis to give up at
+     * @return the segments, or null if the deadline passes before the range is split
+     */
+    List<Segment> split(long from, long to, StatisticsTier max, long now, long deadline) {
+        Map<String, Segment> segments = new LinkedHashMap<String, Segment>();
+        from = Math.max(from, compactor.getOldest());
+        to = Math.min(to, StatisticsTier.MINUTE.getSlotEnd(now));
+        long rolledUntil = compactor.getRolledUntil();
+        int coarsest = 0;
+        while (StatisticsTier.TIERS[coarsest] != max) {
+            coarsest++;
+        }
+        long time = from;
+        while (time < to) {
+            if (System.currentTimeMillis() > deadline) {
+                return null;
+            }
+            StatisticsTier tier = StatisticsTier.MINUTE;
+            for (int i = coarsest; i > 0; i--) {
+                StatisticsTier candidate = StatisticsTier.TIERS[i];
+                long end = candidate.getSlotEnd(time);
+                if (candidate.getSlotStart(time) == time && end <= to && end <= rolledUntil
+                        && compactor.isRetained(candidate, time, now)) {
+                    tier = candidate;
+                    break;
+                }
+            }
+            String period = tier.getPeriod(time);
+            int slot = tier.getSlot(time);
+            String key = tier.getName() + "/" + period;
+            Segment segment = segments.get(key);
+            if (segment == null) {
+                segment = new Segment(tier, period);
+                segments.put(key, segment);
+            }
+            segment.add(slot);
+            time = tier.getSlotEnd(time);
+        }
+        return new ArrayList<Segment>(segments.values());
+    }
+
+    private long getDeadline() {
+        return budget > 0 ? System.currentTimeMillis() + budget : Long.MAX_VALUE;
+    }
+
+    private static String getExpandKey(StatisticsTable table, int pair, String expand) {
+        if (MonitorService.CONSUMER.equals(expand)) {
+            return table.getConsumer(pair);
+        } else if (MonitorService.PROVIDER.equals(expand)) {
+            return table.getProvider(pair);
+        }
+        return null;
+    }
+
+    private static boolean hasStatistics(StatisticsTable table, int pair, int from, int to) {
+        for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+            for (int slot = from; slot < to; slot++) {
+                if (table.get(pair, side, Statistics.SUCCESS_INDEX, slot) != 0 || table.get(pair, side, Statistics.FAILURE_INDEX, slot) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The slot ranges to read from one method file.
+     */
+    static class Segment {
+
+        final StatisticsTier tier;
+
+        final String period;
+
+        final List<int[]> ranges = new ArrayList<int[]>();
+
+        Segment(StatisticsTier tier, String period) {
+            this.tier = tier;
+            this.period = period;
+        }
+
+        void add(int slot) {
+            int[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] == slot) {
+                last[1] = slot + 1;
+            } else {
+                ranges.add(new int[]{slot, slot + 1});
+            }
+        }
+
+    }
+
+}
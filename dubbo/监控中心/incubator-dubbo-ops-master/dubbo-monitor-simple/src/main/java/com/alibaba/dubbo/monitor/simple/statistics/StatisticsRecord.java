@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.common.DateFormats;
+
+import java.text.ParseException;
+
+/**
+ * StatisticsRecord
+ * <p>
+ * A report decoded once on collect: the names are interned ids of a {@link SymbolTable}
+ * and the counters are primitives, so the queue holds no URL and no parameter map.
+ */
+public class StatisticsRecord {
+
+    private static final String TIMESTAMP_PATTERN = "yyyyMMddHHmmss";
+
+    private final long timestamp;
+
+    private final int service;
+
+    private final int method;
+
+    private final int application;
+
+    private final int consumer;
+
+    private final int provider;
+
+    private final boolean consumerSide;
+
+    private final long success;
+
+    private final long failure;
+
+    private final long elapsed;
+
+    private final long concurrent;
+
+    private final long maxElapsed;
+
+    private final long maxConcurrent;
+
+    public StatisticsRecord(long timestamp, int service, int method, int application, int consumer, int provider,
+                            boolean consumerSide, long success, long failure, long elapsed, long concurrent,
+                            long maxElapsed, long maxConcurrent) {
+        this.timestamp = timestamp;
+        this.service = service;
+        this.method = method;
+        this.application = application;
+        this.consumer = consumer;
+        this.provider = provider;
+        this.consumerSide = consumerSide;
+        this.success = success;
+        this.failure = failure;
+        this.elapsed = elapsed;
+        this.concurrent = concurrent;
+        this.maxElapsed = maxElapsed;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Decode the statistics url, a report of a consumer carries the provider address and the other way round.
+     *
+     * @throws IllegalArgumentException if the timestamp or a counter is malformed
+     */
+    public static StatisticsRecord decode(URL statistics, SymbolTable symbols) {
+        long timestamp = parseTimestamp(statistics.getParameter(Constants.TIMESTAMP_KEY));
+        boolean consumerSide = statistics.hasParameter(MonitorService.PROVIDER);
+        String consumer;
+        String provider;
+        if (consumerSide) {
+            consumer = statistics.getHost();
+            provider = getHost(statistics.getParameter(MonitorService.PROVIDER));
+        } else {
+            consumer = getHost(statistics.getParameter(MonitorService.CONSUMER));
+            provider = statistics.getHost();
+        }
+        return new StatisticsRecord(timestamp,
+                symbols.getId(statistics.getServiceInterface()),
+                symbols.getId(statistics.getParameter(MonitorService.METHOD)),
+                symbols.getId(statistics.getParameter(MonitorService.APPLICATION)),
+                symbols.getId(consumer),
+                symbols.getId(provider),
+                consumerSide,
+                statistics.getParameter(MonitorService.SUCCESS, 0L),
+                statistics.getParameter(MonitorService.FAILURE, 0L),
+                statistics.getParameter(MonitorService.ELAPSED, 0L),
+                statistics.getParameter(MonitorService.CONCURRENT, 0L),
+                statistics.getParameter(MonitorService.MAX_ELAPSED, 0L),
+                statistics.getParameter(MonitorService.MAX_CONCURRENT, 0L));
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        if (timestamp == null || timestamp.length() == 0) {
+            return System.currentTimeMillis();
+        }
+        if (timestamp.length() == TIMESTAMP_PATTERN.length()) {
+            try {
+                return DateFormats.get(TIMESTAMP_PATTERN).parse(timestamp).getTime();
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Illegal statistics timestamp " + timestamp);
+            }
+        }
+        return Long.parseLong(timestamp);
+    }
+
+    private static String getHost(String address) {
+        int i = address == null ? -1 : address.indexOf(':');
+        return i > 0 ? address.substring(0, i) : address;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getService() {
+        return service;
+    }
+
+    public int getMethod() {
+        return method;
+    }
+
+    public int getApplication() {
+        return application;
+    }
+
+    public int getConsumer() {
+        return consumer;
+    }
+
+    public int getProvider() {
+        return provider;
+    }
+
+    public boolean isConsumerSide() {
+        return consumerSide;
+    }
+
+    public String getSide() {
+        return consumerSide ? MonitorService.CONSUMER : MonitorService.PROVIDER;
+    }
+
+    /**
+     * Copy the counters into the values indexed as {@link Statistics#TYPES}.
+     */
+    public void copyValues(long[] values) {
+        values[Statistics.SUCCESS_INDEX] = success;
+        values[Statistics.FAILURE_INDEX] = failure;
+        values[Statistics.ELAPSED_INDEX] = elapsed;
+        values[Statistics.CONCURRENT_INDEX] = concurrent;
+        values[Statistics.MAX_ELAPSED_INDEX] = maxElapsed;
+        values[Statistics.MAX_CONCURRENT_INDEX] = maxConcurrent;
+    }
+
+    /**
+     * Get the aggregation key, the names are the interned instances of the table.
+     */
+    public StatisticsKey getKey(SymbolTable symbols) {
+        return new StatisticsKey(symbols.getName(service), symbols.getName(method),
+                symbols.getName(consumer), symbols.getName(provider), getSide());
+    }
+
+}
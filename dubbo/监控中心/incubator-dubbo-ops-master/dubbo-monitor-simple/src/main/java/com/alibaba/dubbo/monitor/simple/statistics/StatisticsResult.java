@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * StatisticsResult
+ * <p>
+ * The totals of the methods of a service over a range.
+ */
+public class StatisticsResult {
+
+    private final SortedMap<String, StatisticsSummary> methods = new TreeMap<String, StatisticsSummary>();
+
+    private boolean partial;
+
+    public SortedMap<String, StatisticsSummary> getMethods() {
+        return methods;
+    }
+
+    StatisticsSummary getMethod(String method) {
+        StatisticsSummary summary = methods.get(method);
+        if (summary == null) {
+            summary = new StatisticsSummary();
+            methods.put(method, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * Whether the query ran out of its time budget before reading the whole range.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+}
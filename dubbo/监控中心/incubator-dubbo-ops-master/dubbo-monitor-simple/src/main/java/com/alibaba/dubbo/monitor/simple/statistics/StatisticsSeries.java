@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * StatisticsSeries
+ * <p>
+ * The totals of a method per slot of a tier over a range.
+ */
+public class StatisticsSeries {
+
+    private final StatisticsTier tier;
+
+    private final SortedMap<Long, StatisticsSummary> points = new TreeMap<Long, StatisticsSummary>();
+
+    private boolean partial;
+
+    public StatisticsSeries(StatisticsTier tier) {
+        this.tier = tier;
+    }
+
+    public StatisticsTier getTier() {
+        return tier;
+    }
+
+    /**
+     * The points by the start millis of their slots.
+     */
+    public SortedMap<Long, StatisticsSummary> getPoints() {
+        return points;
+    }
+
+    StatisticsSummary getPoint(long time) {
+        long start = tier.getSlotStart(time);
+        StatisticsSummary point = points.get(start);
+        if (point == null) {
+            point = new StatisticsSummary();
+            points.put(start, point);
+        }
+        return point;
+    }
+
+    /**
+     * Whether the query ran out of its time budget before reading the whole range.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+}
@@ -0,0 +1,404 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.monitor.MonitorService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * StatisticsStore
+ * <p>
+ * Stores the statistics of one method of one day in a fixed-width binary file, <code>{day}/{service}/{method}.dat</code>.
+ * The file is a sequence of blocks, one per consumer/provider pair, each holding a column of minute slots for
+ * every side and type. The pairs are appended to the index file <code>{method}.idx</code>, whose position
+ * in the index is the block number. The slots themselves are fixed in place: a record is merged into its
+ * minute by reading the six type values at their positions, adding them (or keeping the max) and writing
+ * them back.
+ * <p>
+ * The minute store holds one file per day, the stores of the coarser {@link StatisticsTier}s use the same layout
+ * with their own periods and slots.
+ */
+public class StatisticsStore {
+
+    public static final String[] SIDES = {MonitorService.CONSUMER, MonitorService.PROVIDER};
+
+    public static final int SLOTS = StatisticsTier.MINUTE.getSlots();
+
+    static final String DATA_SUFFIX = ".dat";
+
+    static final String INDEX_SUFFIX = ".idx";
+
+    static final int MAGIC = 0x44535453;
+
+    static final int VERSION = 1;
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsStore.class);
+
+    private final File directory;
+
+    private final StatisticsTier tier;
+
+    public StatisticsStore(File directory) {
+        this(directory, StatisticsTier.MINUTE);
+    }
+
+    public StatisticsStore(File directory, StatisticsTier tier) {
+        this.directory = directory;
+        this.tier = tier;
+    }
+
+    public static int getSideIndex(String side) {
+        return MonitorService.CONSUMER.equals(side) ? 0 : 1;
+    }
+
+    static long getBlockSize(int slots) {
+        return (long) SIDES.length * Statistics.TYPES.length * slots * 8;
+    }
+
+    static long getPosition(int slots, int block, int side, int type, int slot) {
+        return block * getBlockSize(slots) + (((long) side * Statistics.TYPES.length + type) * slots + slot) * 8;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public StatisticsTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Merge the closed buckets into the method files, each bucket into the slot of the tier containing its time.
+     */
+    public void write(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets) throws IOException {
+        write(buckets, -1, -1);
+    }
+
+    /**
+     * Replace the slots of the range with the buckets, the range is cleared in every method file written,
+     * so writing the same buckets again leaves the same values.
+     *
+     * @param from the start millis of the range, inclusive, within one period of the tier
+     * @param to   the end millis of the range, exclusive
+     */
+    public void replace(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets, long from, long to) throws IOException {
+        write(buckets, tier.getSlot(from), tier.getSlot(to - 1) + 1);
+    }
+
+    private void write(SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets, int fromSlot, int toSlot) throws IOException {
+        Map<String, MethodFile> files = new HashMap<String, MethodFile>();
+        try {
+            for (Map.Entry<Long, Map<StatisticsKey, MinuteStatistics>> bucket : buckets.entrySet()) {
+                String day = tier.getPeriod(bucket.getKey());
+                int slot = tier.getSlot(bucket.getKey());
+                for (Map.Entry<StatisticsKey, MinuteStatistics> entry : bucket.getValue().entrySet()) {
+                    StatisticsKey key = entry.getKey();
+                    File file = getFile(day, key.getService(), key.getMethod());
+                    String path = file.getPath();
+                    MethodFile methodFile = files.get(path);
+                    if (methodFile == null) {
+                        methodFile = new MethodFile(file, tier.getSlots());
+                        files.put(path, methodFile);
+                        if (fromSlot >= 0) {
+                            methodFile.clear(fromSlot, toSlot);
+                        }
+                    }
+                    methodFile.merge(key.getConsumer(), key.getProvider(), getSideIndex(key.getSide()), slot, entry.getValue());
+                }
+            }
+        } finally {
+            for (MethodFile methodFile : files.values()) {
+                methodFile.close();
+            }
+        }
+    }
+
+    /**
+     * Get the periods in the store, the days for the minute tier.
+     */
+    public List<String> getDays() {
+        List<String> days = new ArrayList<String>();
+        for (String name : list(directory, true)) {
+            if (tier.isPeriod(name)) {
+                days.add(name);
+            }
+        }
+        return days;
+    }
+
+    public List<String> getServices(String day) {
+        return list(new File(directory, day), true);
+    }
+
+    public List<String> getMethods(String day, String service) {
+        List<String> methods = new ArrayList<String>();
+        for (String name : list(new File(new File(directory, day), service), false)) {
+            if (name.endsWith(DATA_SUFFIX)) {
+                methods.add(name.substring(0, name.length() - DATA_SUFFIX.length()));
+            }
+        }
+        return methods;
+    }
+
+    public long lastModified(String day, String service, String method) {
+        return getFile(day, service, method).lastModified();
+    }
+
+    /**
+     * Read the method file through a read-only memory mapping.
+     *
+     * @return the table, or null if no statistics of the method.
+     */
+    public StatisticsTable read(String day, String service, String method) throws IOException {
+        return read(getFile(day, service, method), tier.getSlots());
+    }
+
+    /**
+     * Delete the statistics of the period.
+     */
+    public void delete(String day) {
+        delete(new File(directory, day));
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        if (!file.delete() && file.exists()) {
+            logger.warn("Failed to delete statistics file " + file);
+        }
+    }
+
+    File getFile(String day, String service, String method) {
+        return new File(new File(new File(directory, day), service), method + DATA_SUFFIX);
+    }
+
+    static StatisticsTable read(File file, int slots) throws IOException {
+        return read(file, slots, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Map the file in windows of whole blocks, a mapped buffer holds at most Integer.MAX_VALUE bytes.
+     *
+     * @param window the max bytes to map at once
+     */
+    static StatisticsTable read(File file, int slots, long window) throws IOException {
+        File indexFile = getIndexFile(file);
+        if (!file.exists() || !indexFile.exists()) {
+            return null;
+        }
+        List<String[]> pairs = readIndex(indexFile, slots);
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long blockSize = getBlockSize(slots);
+            int blocks = (int) Math.min(pairs.size(), channel.size() / blockSize);
+            if (blocks < pairs.size()) {
+                pairs = pairs.subList(0, blocks);
+            }
+            int windowBlocks = (int) Math.max(1, window / blockSize);
+            LongBuffer[] data = new LongBuffer[(blocks + windowBlocks - 1) / windowBlocks];
+            for (int i = 0; i < data.length; i++) {
+                long start = (long) i * windowBlocks;
+                long count = Math.min(windowBlocks, blocks - start);
+                data[i] = channel.map(FileChannel.MapMode.READ_ONLY, start * blockSize, count * blockSize).asLongBuffer();
+            }
+            return new StatisticsTable(pairs, data, windowBlocks, slots);
+        } finally {
+            raf.close();
+        }
+    }
+
+    static File getIndexFile(File file) {
+        return getSiblingFile(file, INDEX_SUFFIX);
+    }
+
+    private static File getSiblingFile(File file, String suffix) {
+        String name = file.getName();
+        return new File(file.getParentFile(), name.substring(0, name.length() - DATA_SUFFIX.length()) + suffix);
+    }
+
+    private static List<String[]> readIndex(File indexFile, int slots) throws IOException {
+        List<String[]> pairs = new ArrayList<String[]>();
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readInt() != slots) {
+                throw new IOException("Unsupported statistics index " + indexFile);
+            }
+            while (true) {
+                String consumer = input.readUTF();
+                String provider = input.readUTF();
+                pairs.add(new String[]{consumer, provider});
+            }
+        } catch (EOFException e) {
+            // end of index, an incomplete trailing entry is ignored
+        } finally {
+            input.close();
+        }
+        return pairs;
+    }
+
+    private static List<String> list(File dir, boolean directories) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<String>();
+        for (File file : files) {
+            if (file.isDirectory() == directories) {
+                names.add(file.getName());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * The writable method file, opened for one batch.
+     */
+    static class MethodFile {
+
+        private final File indexFile;
+
+        private final int slots;
+
+        private final Map<String, Integer> blocks = new HashMap<String, Integer>();
+
+        private final RandomAccessFile data;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(8);
+
+        private DataOutputStream index;
+
+        MethodFile(File file, int slots) throws IOException {
+            this.slots = slots;
+            this.indexFile = getIndexFile(file);
+            File dir = file.getParentFile();
+            if (dir != null && !dir.exists()) {
+                dir.mkdirs();
+            }
+            if (indexFile.exists()) {
+                List<String[]> pairs = readIndex(indexFile, slots);
+                for (int i = 0; i < pairs.size(); i++) {
+                    blocks.put(pairs.get(i)[0] + "\0" + pairs.get(i)[1], i);
+                }
+            }
+            this.data = new RandomAccessFile(file, "rw");
+        }
+
+        void merge(String consumer, String provider, int side, int slot, MinuteStatistics statistics) throws IOException {
+            int block = getBlock(consumer, provider);
+            long[] values = statistics.getValues();
+            FileChannel channel = data.getChannel();
+            for (int type = 0; type < values.length; type++) {
+                long position = getPosition(slots, block, side, type, slot);
+                buffer.clear();
+                channel.read(buffer, position);
+                long value = buffer.getLong(0);
+                value = Statistics.isMax(type) ? Math.max(value, values[type]) : value + values[type];
+                buffer.clear();
+                buffer.putLong(0, value);
+                channel.write(buffer, position);
+            }
+        }
+
+        /**
+         * Zero the slots of the range in every block.
+         */
+        void clear(int fromSlot, int toSlot) throws IOException {
+            FileChannel channel = data.getChannel();
+            ByteBuffer zeros = ByteBuffer.allocate((toSlot - fromSlot) * 8);
+            for (int block = 0; block < blocks.size(); block++) {
+                for (int side = 0; side < SIDES.length; side++) {
+                    for (int type = 0; type < Statistics.TYPES.length; type++) {
+                        long position = getPosition(slots, block, side, type, fromSlot);
+                        zeros.clear();
+                        while (zeros.hasRemaining()) {
+                            position += channel.write(zeros, position);
+                        }
+                    }
+                }
+            }
+        }
+
+        private int getBlock(String consumer, String provider) throws IOException {
+            consumer = consumer == null ? "" : consumer;
+            provider = provider == null ? "" : provider;
+            String key = consumer + "\0" + provider;
+            Integer block = blocks.get(key);
+            if (block == null) {
+                block = blocks.size();
+                // extend the data before indexing the block, so readers never see an index without data
+                data.setLength((block + 1) * getBlockSize(slots));
+                if (index == null) {
+                    boolean created = !indexFile.exists() || indexFile.length() == 0;
+                    index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)));
+                    if (created) {
+                        index.writeInt(MAGIC);
+                        index.writeInt(VERSION);
+                        index.writeInt(slots);
+                    }
+                }
+                index.writeUTF(consumer);
+                index.writeUTF(provider);
+                blocks.put(key, block);
+            }
+            return block;
+        }
+
+        void close() {
+            try {
+                if (index != null) {
+                    index.close();
+                }
+            } catch (IOException e) {
+                logger.warn(e.getMessage(), e);
+            }
+            try {
+                data.close();
+            } catch (IOException e) {
+                logger.warn(e.getMessage(), e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.simple.common.CountUtils;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StatisticsSummary
+ * <p>
+ * The totals of a method over a range per side, optionally expanded by consumer or provider.
+ */
+public class StatisticsSummary {
+
+    private final long[] success = new long[StatisticsStore.SIDES.length];
+
+    private final long[] failure = new long[StatisticsStore.SIDES.length];
+
+    private final long[] elapsed = new long[StatisticsStore.SIDES.length];
+
+    private final long[] maxElapsed = new long[StatisticsStore.SIDES.length];
+
+    private final long[] maxConcurrent = new long[StatisticsStore.SIDES.length];
+
+    private final Map<String, StatisticsSummary> expands = new TreeMap<String, StatisticsSummary>();
+
+    /**
+     * Add the slots of the pair in the table.
+     *
+     * @param from the first slot, inclusive
+     * @param to   the last slot, exclusive
+     */
+    public void append(StatisticsTable table, int pair, int from, int to) {
+        long[] values = new long[to - from];
+        for (int side = 0; side < StatisticsStore.SIDES.length; side++) {
+            table.getValues(pair, side, Statistics.SUCCESS_INDEX, from, values);
+            success[side] += CountUtils.sum(values);
+            table.getValues(pair, side, Statistics.FAILURE_INDEX, from, values);
+            failure[side] += CountUtils.sum(values);
+            table.getValues(pair, side, Statistics.ELAPSED_INDEX, from, values);
+            elapsed[side] += CountUtils.sum(values);
+            table.getValues(pair, side, Statistics.MAX_ELAPSED_INDEX, from, values);
+            maxElapsed[side] = Math.max(maxElapsed[side], CountUtils.max(values));
+            table.getValues(pair, side, Statistics.MAX_CONCURRENT_INDEX, from, values);
+            maxConcurrent[side] = Math.max(maxConcurrent[side], CountUtils.max(values));
+        }
+    }
+
+    public long getSuccess(int side) {
+        return success[side];
+    }
+
+    public long getFailure(int side) {
+        return failure[side];
+    }
+
+    public long getElapsed(int side) {
+        return elapsed[side];
+    }
+
+    public long getAverageElapsed(int side) {
+        return success[side] == 0 ? 0 : elapsed[side] / success[side];
+    }
+
+    public long getMaxElapsed(int side) {
+        return maxElapsed[side];
+    }
+
+    public long getMaxConcurrent(int side) {
+        return maxConcurrent[side];
+    }
+
+    public StatisticsSummary getExpand(String key) {
+        StatisticsSummary summary = expands.get(key);
+        if (summary == null) {
+            summary = new StatisticsSummary();
+            expands.put(key, summary);
+        }
+        return summary;
+    }
+
+    public Map<String, StatisticsSummary> getExpands() {
+        return expands;
+    }
+
+}
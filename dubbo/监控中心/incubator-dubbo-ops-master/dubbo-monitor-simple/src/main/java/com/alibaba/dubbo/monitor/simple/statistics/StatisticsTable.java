@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.nio.LongBuffer;
+import java.util.List;
+
+/**
+ * StatisticsTable
+ * <p>
+ * A read-only view of one method file.
+ */
+public class StatisticsTable {
+
+    private final List<String[]> pairs;
+
+    // the mapped windows of the file, each of the same number of pairs but the last one
+    private final LongBuffer[] data;
+
+    private final int windowPairs;
+
+    private final int slots;
+
+    StatisticsTable(List<String[]> pairs, LongBuffer[] data, int windowPairs, int slots) {
+        this.pairs = pairs;
+        this.data = data;
+        this.windowPairs = windowPairs;
+        this.slots = slots;
+    }
+
+    public int size() {
+        return pairs.size();
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public String getConsumer(int pair) {
+        return pairs.get(pair)[0];
+    }
+
+    public String getProvider(int pair) {
+        return pairs.get(pair)[1];
+    }
+
+    public long get(int pair, int side, int type, int slot) {
+        return data[pair / windowPairs].get((int) (StatisticsStore.getPosition(slots, pair % windowPairs, side, type, slot) / 8));
+    }
+
+    /**
+     * Copy the column of the minute slots.
+     */
+    public long[] getValues(int pair, int side, int type) {
+        long[] values = new long[slots];
+        getValues(pair, side, type, 0, values);
+        return values;
+    }
+
+    /**
+     * Copy the column from the slot into the values, as many slots as the values hold.
+     */
+    public void getValues(int pair, int side, int type, int from, long[] values) {
+        LongBuffer column = data[pair / windowPairs].duplicate();
+        column.position((int) (StatisticsStore.getPosition(slots, pair % windowPairs, side, type, from) / 8));
+        column.get(values);
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.simple.common.DateFormats;
+
+import java.text.ParseException;
+import java.util.Calendar;
+
+/**
+ * StatisticsTier
+ * <p>
+ * The resolution of a statistics store and the period covered by one of its method files:
+ * minutes by day, 5 minutes by day, hours by month and days by year.
+ */
+public class StatisticsTier {
+
+    public static final StatisticsTier MINUTE = new StatisticsTier("1m", 60 * 1000L, Calendar.DATE, "yyyyMMdd", 24 * 60);
+
+    public static final StatisticsTier FIVE_MINUTES = new StatisticsTier("5m", 5 * 60 * 1000L, Calendar.DATE, "yyyyMMdd", 24 * 12);
+
+    public static final StatisticsTier HOUR = new StatisticsTier("1h", 60 * 60 * 1000L, Calendar.MONTH, "yyyyMM", 31 * 24);
+
+    public static final StatisticsTier DAY = new StatisticsTier("1d", 24 * 60 * 60 * 1000L, Calendar.YEAR, "yyyy", 366);
+
+    /**
+     * The tiers from the finest to the coarsest.
+     */
+    public static final StatisticsTier[] TIERS = {MINUTE, FIVE_MINUTES, HOUR, DAY};
+
+    private final String name;
+
+    private final long resolution;
+
+    private final int period;
+
+    private final String pattern;
+
+    private final int slots;
+
+    private StatisticsTier(String name, long resolution, int period, String pattern, int slots) {
+        this.name = name;
+        this.resolution = resolution;
+        this.period = period;
+        this.pattern = pattern;
+        this.slots = slots;
+    }
+
+    public static StatisticsTier getTier(String name) {
+        for (StatisticsTier tier : TIERS) {
+            if (tier.name.equals(name)) {
+                return tier;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The nominal millis of one slot.
+     */
+    public long getResolution() {
+        return resolution;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public boolean isPeriod(String name) {
+        if (name.length() != pattern.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getPeriod(long time) {
+        return DateFormats.get(pattern).format(time);
+    }
+
+    public int getSlot(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int minute = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+        if (period == Calendar.YEAR) {
+            return calendar.get(Calendar.DAY_OF_YEAR) - 1;
+        } else if (period == Calendar.MONTH) {
+            return (calendar.get(Calendar.DAY_OF_MONTH) - 1) * 24 + calendar.get(Calendar.HOUR_OF_DAY);
+        }
+        return (int) (minute * 60 * 1000L / resolution);
+    }
+
+    /**
+     * Get the start millis of the period.
+     */
+    public long getStart(String period) {
+        try {
+            return DateFormats.get(pattern).parse(period).getTime();
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Illegal " + name + " statistics period " + period);
+        }
+    }
+
+    /**
+     * Get the end millis of the period, exclusive.
+     */
+    public long getEnd(String period) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(getStart(period));
+        calendar.add(this.period, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Get the start millis of the slot in the period.
+     */
+    public long getTime(String period, int slot) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(getStart(period));
+        if (this.period == Calendar.YEAR) {
+            calendar.set(Calendar.DAY_OF_YEAR, slot + 1);
+        } else if (this.period == Calendar.MONTH) {
+            calendar.set(Calendar.DAY_OF_MONTH, slot / 24 + 1);
+            calendar.set(Calendar.HOUR_OF_DAY, slot % 24);
+        } else {
+            int minute = (int) (slot * resolution / (60 * 1000L));
+            calendar.set(Calendar.HOUR_OF_DAY, minute / 60);
+            calendar.set(Calendar.MINUTE, minute % 60);
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Get the end millis of the slot containing the time, exclusive.
+     */
+    public long getSlotEnd(long time) {
+        return getTime(getPeriod(time), getSlot(time) + 1);
+    }
+
+    /**
+     * Get the start millis of the slot containing the time.
+     */
+    public long getSlotStart(long time) {
+        return getTime(getPeriod(time), getSlot(time));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
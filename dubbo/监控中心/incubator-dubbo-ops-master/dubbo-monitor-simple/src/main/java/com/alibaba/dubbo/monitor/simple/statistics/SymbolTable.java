@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SymbolTable
+ * <p>
+ * Interns the service, method, application and host names of the reports into small int ids,
+ * so a queued record keeps no strings of its own and equal names share one instance.
+ * The names gone from the reports are reclaimed by the write thread, see {@link #reclaim(Set)},
+ * so the table stays as large as the names reported recently.
+ */
+public class SymbolTable {
+
+    private final ConcurrentMap<String, Symbol> symbols = new ConcurrentHashMap<String, Symbol>();
+
+    private volatile String[] names = new String[64];
+
+    private final List<Integer> free = new ArrayList<Integer>();
+
+    private int size;
+
+    private volatile int generation;
+
+    /**
+     * Get the id of the name, 0 stands for null.
+     */
+    public int getId(String name) {
+        if (name == null) {
+            return 0;
+        }
+        Symbol symbol = symbols.get(name);
+        if (symbol != null) {
+            int current = generation;
+            if (symbol.used != current) {
+                symbol.used = current;
+            }
+            // marked used before checking, so a symbol reclaimed meanwhile is interned again
+            if (!symbol.reclaimed) {
+                return symbol.id;
+            }
+        }
+        return add(name);
+    }
+
+    private synchronized int add(String name) {
+        Symbol symbol = symbols.get(name);
+        if (symbol != null) {
+            symbol.used = generation;
+            return symbol.id;
+        }
+        String[] current = names;
+        int next;
+        if (free.isEmpty()) {
+            if (size + 1 >= current.length) {
+                String[] grown = new String[current.length * 2];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            next = ++size;
+        } else {
+            next = free.remove(free.size() - 1);
+        }
+        current[next] = name;
+        // publish the name before the id, a reader holding the id always finds the name
+        names = current;
+        symbols.put(name, new Symbol(next, generation));
+        return next;
+    }
+
+    /**
+     * Reclaim the ids out of use and start a new generation, called by the write thread once a minute.
+     * An id is reclaimed if it is not live and was not interned in this generation nor the last one,
+     * so no record still queued holds it, then it may be given to another name.
+     *
+     * @param live the ids still held, e.g. by the {@link StatisticsIndex}
+     * @return the number of the ids reclaimed
+     */
+    public synchronized int reclaim(Set<Integer> live) {
+        int current = generation;
+        int reclaimed = 0;
+        for (Iterator<Map.Entry<String, Symbol>> iterator = symbols.entrySet().iterator(); iterator.hasNext(); ) {
+            Symbol symbol = iterator.next().getValue();
+            if (live.contains(symbol.id)) {
+                continue;
+            }
+            symbol.reclaimed = true;
+            if (symbol.used >= current - 1) {
+                symbol.reclaimed = false;
+                continue;
+            }
+            iterator.remove();
+            names[symbol.id] = null;
+            free.add(symbol.id);
+            reclaimed++;
+        }
+        generation = current + 1;
+        return reclaimed;
+    }
+
+    /**
+     * Get the id of the name without interning it.
+     *
+     * @return the id, 0 for null or -1 if the name is not interned
+     */
+    public int find(String name) {
+        if (name == null) {
+            return 0;
+        }
+        Symbol symbol = symbols.get(name);
+        return symbol == null ? -1 : symbol.id;
+    }
+
+    /**
+     * Get the interned name of the id, null for 0.
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    private static class Symbol {
+
+        private final int id;
+
+        // the generation the name was last interned in
+        private volatile int used;
+
+        private volatile boolean reclaimed;
+
+        Symbol(int id, int used) {
+            this.id = id;
+            this.used = used;
+        }
+
+    }
+
+}
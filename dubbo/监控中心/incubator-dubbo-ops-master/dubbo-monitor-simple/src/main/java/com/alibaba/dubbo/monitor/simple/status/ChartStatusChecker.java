@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.status;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
+import com.alibaba.dubbo.monitor.simple.statistics.DrawStatistics;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * ChartStatusChecker
+ */
+@Activate
+public class ChartStatusChecker implements StatusChecker {
+
+    public Status check() {
+        SimpleMonitorService monitorService = SimpleMonitorService.getInstance();
+        DrawStatistics draw = monitorService == null ? null : monitorService.getLastDraw();
+        if (draw == null) {
+            return new Status(Status.Level.UNKNOWN);
+        }
+        Status.Level level = draw.getFailed() > 0 || draw.getElapsed() > monitorService.getDrawPeriod() * 1000
+                ? Status.Level.WARN : Status.Level.OK;
+        return new Status(level, "last cycle: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(draw.getStart()))
+                + ", duration: " + draw.getElapsed() + "ms, rendered: " + draw.getRendered()
+                + ", skipped: " + draw.getSkipped() + ", failed: " + draw.getFailed());
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.status;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+import com.alibaba.dubbo.monitor.simple.SimpleMonitorService;
+
+/**
+ * QueueStatusChecker
+ */
+@Activate
+public class QueueStatusChecker implements StatusChecker {
+
+    private long lastOverflowed;
+
+    private long lastDropped;
+
+    public synchronized Status check() {
+        SimpleMonitorService monitorService = SimpleMonitorService.getInstance();
+        if (monitorService == null) {
+            return new Status(Status.Level.UNKNOWN);
+        }
+        long overflowed = monitorService.getOverflowed();
+        long dropped = monitorService.getDropped();
+        int pending = monitorService.getPending();
+        int capacity = monitorService.getCapacity();
+        // warn on the losses since the last check, or a queue filling up
+        Status.Level level = overflowed > lastOverflowed || dropped > lastDropped || pending >= capacity * 0.8
+                ? Status.Level.WARN : Status.Level.OK;
+        lastOverflowed = overflowed;
+        lastDropped = dropped;
+        return new Status(level, "collected: " + monitorService.getCollected() + ", pending: " + pending + "/" + capacity
+                + ", overflowed: " + overflowed + ", dropped: " + dropped);
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.status;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
+
+/**
+ * RegistryStatusChecker
+ */
+@Activate
+public class RegistryStatusChecker implements StatusChecker {
+
+    public Status check() {
+        RegistryContainer container = RegistryContainer.getInstance();
+        if (container == null) {
+            return new Status(Status.Level.UNKNOWN);
+        }
+        long notified = container.getNotified();
+        long time = container.getNotifyTime() / 1000;
+        return new Status(Status.Level.OK, "notified: " + notified + ", changed: " + container.getNotifyChanged()
+                + ", time: " + time / 1000 + "ms, average: " + (notified == 0 ? 0 : time / notified) + "us");
+    }
+
+}
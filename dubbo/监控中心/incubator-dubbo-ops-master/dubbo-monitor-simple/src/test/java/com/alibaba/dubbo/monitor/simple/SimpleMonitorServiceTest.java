@@ -18,17 +18,192 @@ package com.alibaba.dubbo.monitor.simple;
 
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.utils.NetUtils;
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.statistics.MethodStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.MinuteStatistics;
+import com.alibaba.dubbo.monitor.simple.statistics.StatisticsKey;
 
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * SimpleMonitorServiceTest
  */
 public class SimpleMonitorServiceTest {
 
+    private static final String SERVICE = "com.foo.FooService";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testMonitor() {
         new SimpleMonitorService().collect(new URL("dubbo", NetUtils.getLocalHost(), 0));
     }
 
+    @Test
+    public void testDrawIncrementally() throws Exception {
+        System.setProperty("dubbo.statistics.directory", folder.newFolder("statistics").getPath());
+        System.setProperty("dubbo.charts.directory", folder.newFolder("charts").getPath());
+        SimpleMonitorService monitor = new SimpleMonitorService();
+        try {
+            // the first cycle of the timer, the next one is a period away
+            awaitDraw(monitor);
+            Calendar calendar = Calendar.getInstance();
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            calendar.set(Calendar.MINUTE, 0);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+            long today = calendar.getTimeInMillis();
+            calendar.add(Calendar.DATE, -1);
+            long yesterday = calendar.getTimeInMillis();
+
+            SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets = new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+            buckets.put(yesterday + 600 * 60 * 1000L, newBucket());
+            buckets.put(today, newBucket());
+            monitor.flush(buckets);
+            monitor.draw();
+            Assert.assertEquals(2, monitor.getLastDraw().getRendered());
+            File chart = getChart(yesterday);
+            Assert.assertTrue(chart.exists());
+            long drawn = chart.lastModified() - 10000;
+            Assert.assertTrue(chart.setLastModified(drawn));
+
+            // nothing changed
+            monitor.draw();
+            Assert.assertEquals(0, monitor.getLastDraw().getRendered());
+
+            // only the day of the new minute is drawn again
+            monitor.flush(new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>(
+                    Collections.singletonMap(today + 60 * 1000L, newBucket())));
+            monitor.draw();
+            Assert.assertEquals(1, monitor.getLastDraw().getRendered());
+            Assert.assertEquals(drawn, chart.lastModified());
+            Assert.assertTrue(getChart(today).lastModified() > drawn);
+        } finally {
+            monitor.close();
+            System.clearProperty("dubbo.statistics.directory");
+            System.clearProperty("dubbo.charts.directory");
+        }
+    }
+
+    @Test
+    public void testDrawOnRenderPool() throws Exception {
+        System.setProperty("dubbo.statistics.directory", folder.newFolder("statistics").getPath());
+        System.setProperty("dubbo.charts.directory", folder.newFolder("charts").getPath());
+        System.setProperty("dubbo.charts.threads", "2");
+        final AtomicInteger rendering = new AtomicInteger();
+        final AtomicInteger maxRendering = new AtomicInteger();
+        final SimpleMonitorService monitor = new SimpleMonitorService() {
+            @Override
+            boolean draw(MethodStatistics statistics) throws IOException {
+                int count = rendering.incrementAndGet();
+                int max = maxRendering.get();
+                while (count > max && !maxRendering.compareAndSet(max, count)) {
+                    max = maxRendering.get();
+                }
+                try {
+                    Thread.sleep(500);
+                    return super.draw(statistics);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    rendering.decrementAndGet();
+                }
+            }
+        };
+        try {
+            awaitDraw(monitor);
+            long minute = System.currentTimeMillis() / 60000 * 60000 - 60000;
+            SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> buckets = new TreeMap<Long, Map<StatisticsKey, MinuteStatistics>>();
+            Map<StatisticsKey, MinuteStatistics> bucket = new HashMap<StatisticsKey, MinuteStatistics>();
+            for (String method : new String[]{"foo", "bar", "baz", "qux"}) {
+                bucket.putAll(newBucket(method));
+            }
+            buckets.put(minute, bucket);
+            monitor.flush(buckets);
+
+            Thread drawer = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        monitor.draw();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            drawer.start();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (rendering.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // the reports are collected and aggregated while the charts render
+            for (int i = 0; i < 1000; i++) {
+                monitor.collect(URL.valueOf("count://10.0.0.1:20880/com.foo.BarService/bar?interface=com.foo.BarService"
+                        + "&method=bar&consumer=10.0.0.2&success=1&elapsed=10"));
+            }
+            while (monitor.getPending() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1000, monitor.getCollected());
+            Assert.assertEquals(0, monitor.getPending());
+            Assert.assertTrue(drawer.isAlive());
+
+            // the cycle returns only once all its charts are rendered, two at a time
+            drawer.join(5000);
+            Assert.assertFalse(drawer.isAlive());
+            Assert.assertEquals(0, rendering.get());
+            Assert.assertEquals(2, maxRendering.get());
+            for (String method : new String[]{"foo", "bar", "baz", "qux"}) {
+                Assert.assertTrue(getChart(minute, method).exists());
+            }
+        } finally {
+            monitor.close();
+            System.clearProperty("dubbo.statistics.directory");
+            System.clearProperty("dubbo.charts.directory");
+            System.clearProperty("dubbo.charts.threads");
+        }
+    }
+
+    private static Map<StatisticsKey, MinuteStatistics> newBucket() {
+        return newBucket("foo");
+    }
+
+    private static Map<StatisticsKey, MinuteStatistics> newBucket(String method) {
+        MinuteStatistics statistics = new MinuteStatistics();
+        statistics.add(new long[]{10, 1, 100, 2, 20, 3});
+        return Collections.singletonMap(new StatisticsKey(SERVICE, method, "10.0.0.2", "10.0.0.1:20880",
+                MonitorService.PROVIDER), statistics);
+    }
+
+    private File getChart(long day) {
+        return getChart(day, "foo");
+    }
+
+    private File getChart(long day, String method) {
+        return new File(System.getProperty("dubbo.charts.directory"), new SimpleDateFormat("yyyyMMdd").format(day)
+                + "/" + SERVICE + "/" + method + "/success.png");
+    }
+
+    private static void awaitDraw(SimpleMonitorService monitor) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (monitor.getLastDraw() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(monitor.getLastDraw());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * MpscRingBufferTest
+ */
+public class MpscRingBufferTest {
+
+    @Test
+    public void testFullAndWrap() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<Integer>(3);
+        Assert.assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(4));
+        List<Integer> batch = new ArrayList<Integer>();
+        Assert.assertEquals(3, buffer.drain(batch, 3));
+        Assert.assertEquals(1, buffer.drain(batch, 10));
+        Assert.assertEquals(4, batch.size());
+        Assert.assertEquals(Integer.valueOf(4), batch.get(3));
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        final int producers = 4;
+        final int count = 100000;
+        final MpscRingBuffer<long[]> buffer = new MpscRingBuffer<long[]>(1024);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        long[] element = new long[]{producer, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        start.countDown();
+        long[] next = new long[producers];
+        List<long[]> batch = new ArrayList<long[]>();
+        long received = 0;
+        long deadline = System.currentTimeMillis() + 30000;
+        while (received < (long) producers * count && System.currentTimeMillis() < deadline) {
+            batch.clear();
+            buffer.drain(batch, 256);
+            for (long[] element : batch) {
+                // the elements of one producer keep their order
+                Assert.assertEquals(next[(int) element[0]]++, element[1]);
+                received++;
+            }
+        }
+        Assert.assertEquals((long) producers * count, received);
+    }
+
+}
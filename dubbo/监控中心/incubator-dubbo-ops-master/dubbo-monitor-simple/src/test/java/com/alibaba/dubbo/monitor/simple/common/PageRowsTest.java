@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PageRowsTest
+ */
+public class PageRowsTest {
+
+    // name, count, and an action column which can not be sorted nor filtered
+    private static final List<String[]> ITEMS = Arrays.asList(
+            new String[]{"foo", "3"},
+            new String[]{"bar", "1"},
+            new String[]{"baz", "2"},
+            new String[]{"qux", "5"},
+            new String[]{"foobar", "4"});
+
+    @Test
+    public void testPageBounds() {
+        PageRows<String[]> rows = newRows(ITEMS);
+        Assert.assertEquals(Arrays.asList("foo", "bar"), names(rows.getRows(0, 2)));
+        Assert.assertEquals(Arrays.asList("baz", "qux"), names(rows.getRows(2, 2)));
+        // the last page is partial
+        Assert.assertEquals(Arrays.asList("foobar"), names(rows.getRows(4, 2)));
+        // past the end
+        Assert.assertTrue(names(rows.getRows(5, 2)).isEmpty());
+        Assert.assertTrue(names(rows.getRows(Integer.MAX_VALUE, 2)).isEmpty());
+        // the end of the page must not overflow
+        Assert.assertEquals(Arrays.asList("qux", "foobar"), names(rows.getRows(3, Integer.MAX_VALUE)));
+        Assert.assertTrue(names(rows.getRows(0, 0)).isEmpty());
+        Assert.assertTrue(names(newRows(new ArrayList<String[]>()).getRows(0, 10)).isEmpty());
+    }
+
+    @Test
+    public void testSortOrder() {
+        PageRows<String[]> rows = newRows(ITEMS);
+        Assert.assertEquals(5, rows.select(null, 3, 0, false));
+        Assert.assertTrue(rows.isSortable(0));
+        Assert.assertEquals(Arrays.asList("bar", "baz", "foo", "foobar", "qux"), names(rows.getRows(0, 10)));
+
+        rows.select(null, 3, 1, true);
+        Assert.assertEquals(Arrays.asList("qux", "foobar", "foo", "baz", "bar"), names(rows.getRows(0, 10)));
+        // the page is taken after sorting
+        Assert.assertEquals(Arrays.asList("foo", "baz"), names(rows.getRows(2, 2)));
+
+        // the action column keeps the original order
+        rows.select(null, 3, 2, true);
+        Assert.assertFalse(rows.isSortable(2));
+        Assert.assertEquals(Arrays.asList("foo", "bar", "baz", "qux", "foobar"), names(rows.getRows(0, 10)));
+
+        // the items of the caller are never sorted in place
+        Assert.assertEquals("foo", ITEMS.get(0)[0]);
+    }
+
+    @Test
+    public void testFilter() {
+        PageRows<String[]> rows = newRows(ITEMS);
+        Assert.assertEquals(2, rows.select("foo", 3, 0, true));
+        Assert.assertEquals(Arrays.asList("foobar", "foo"), names(rows.getRows(0, 10)));
+        Assert.assertEquals(1, rows.select("4", 3, -1, false));
+        Assert.assertEquals(Arrays.asList("foobar"), names(rows.getRows(0, 10)));
+        Assert.assertEquals(0, rows.select("edit", 3, -1, false));
+        Assert.assertFalse(rows.isSortable(0));
+        Assert.assertEquals(5, rows.select("", 3, -1, false));
+    }
+
+    private static PageRows<String[]> newRows(List<String[]> items) {
+        return new PageRows<String[]>(items) {
+            @Override
+            protected String getText(String[] item, int column) {
+                return column < item.length ? item[column] : null;
+            }
+
+            @Override
+            protected void addCells(String[] item, List<String> row) {
+                row.add(item[0]);
+                row.add(item[1]);
+                row.add("<a href=\"edit?name=" + item[0] + "\">edit</a>");
+            }
+        };
+    }
+
+    private static List<String> names(Iterable<List<String>> rows) {
+        // the row is reused by the iterator, so only its first cell is kept
+        List<String> names = new ArrayList<String>();
+        for (List<String> row : rows) {
+            Assert.assertEquals(3, row.size());
+            names.add(row.get(0));
+        }
+        return names;
+    }
+
+}
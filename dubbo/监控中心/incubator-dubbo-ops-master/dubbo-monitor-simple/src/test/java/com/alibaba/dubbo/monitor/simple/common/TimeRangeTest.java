@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * TimeRangeTest
+ */
+public class TimeRangeTest {
+
+    @Test
+    public void testParseTime() {
+        long now = System.currentTimeMillis();
+        Assert.assertEquals(now - 15 * 60 * 1000L, TimeRange.parseTime("-15m", now));
+        Assert.assertEquals(now - 2 * 24 * 60 * 60 * 1000L, TimeRange.parseTime("-2d", now));
+        Assert.assertEquals(123456789L, TimeRange.parseTime("123456789", now));
+        for (String value : new String[]{"-", "-m", "-5", "-5x", "abc"}) {
+            try {
+                TimeRange.parseTime(value, now);
+                Assert.fail(value);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+}
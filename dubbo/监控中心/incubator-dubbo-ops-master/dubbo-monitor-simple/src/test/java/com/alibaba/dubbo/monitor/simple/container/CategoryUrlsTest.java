@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.container;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CategoryUrlsTest
+ */
+public class CategoryUrlsTest {
+
+    private static final String SERVICE = "com.foo.BarService";
+
+    private static final URL A1 = URL.valueOf("dubbo://10.0.0.1:20880/" + SERVICE + "?application=a");
+
+    private static final URL A2 = URL.valueOf("dubbo://10.0.0.2:20880/" + SERVICE + "?application=a");
+
+    private static final URL B1 = URL.valueOf("dubbo://10.0.0.1:20881/" + SERVICE + "?application=b");
+
+    @Test
+    public void testUpdate() {
+        Set<String> applications = new HashSet<String>();
+        CategoryUrls urls = new CategoryUrls(applications);
+        Assert.assertEquals(3, urls.update(SERVICE, Arrays.asList(A1, A2, B1)));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("a", "b")), applications);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("a", "b")), urls.getApplicationsByService(SERVICE));
+        Assert.assertEquals(2, urls.getUrlsByHost("10.0.0.1").size());
+
+        // only the flapping url is processed
+        Assert.assertEquals(1, urls.update(SERVICE, Arrays.asList(A1, B1)));
+        Assert.assertEquals(Collections.singletonList(A1), urls.getUrlsByApplication("a"));
+        Assert.assertEquals(Collections.singleton("10.0.0.1"), urls.getHosts());
+        Assert.assertEquals(0, urls.update(SERVICE, Arrays.asList(B1, A1)));
+
+        Assert.assertEquals(1, urls.update(SERVICE, Arrays.asList(A1)));
+        Assert.assertEquals(Collections.singleton("a"), urls.getApplicationsByService(SERVICE));
+        Assert.assertNull(urls.getServicesByApplication("b"));
+        Assert.assertTrue(applications.contains("b"));
+
+        Assert.assertEquals(1, urls.update(SERVICE, Collections.<URL>emptyList()));
+        Assert.assertNull(urls.getUrlsByService(SERVICE));
+        Assert.assertNull(urls.getApplicationsByService(SERVICE));
+        Assert.assertTrue(urls.getHosts().isEmpty());
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.container;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+/**
+ * RegistryContainerTest
+ */
+public class RegistryContainerTest {
+
+    private static final URL FOO1 = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?application=foo&category=providers");
+
+    private static final URL FOO2 = URL.valueOf("dubbo://10.0.0.2:20880/com.foo.FooService?application=foo&category=providers");
+
+    private static final URL BAR1 = URL.valueOf("dubbo://10.0.0.1:20881/com.foo.BarService?application=bar&category=providers");
+
+    private static final URL FOO_CONSUMER = URL.valueOf("consumer://10.0.0.3/com.foo.FooService?application=baz&category=consumers");
+
+    @Test
+    public void testNotifyAndUnregister() {
+        RegistryContainer container = new RegistryContainer();
+        container.notify(Arrays.asList(FOO1, FOO2));
+        container.notify(Arrays.asList(BAR1));
+        container.notify(Arrays.asList(FOO_CONSUMER));
+        Assert.assertEquals(3, container.getVersion());
+        Assert.assertEquals(new HashSet<URL>(Arrays.asList(FOO1, BAR1)), new HashSet<URL>(container.getProvidersByHost("10.0.0.1")));
+        Assert.assertEquals(new HashSet<URL>(Arrays.asList(FOO1, FOO2)), new HashSet<URL>(container.getProvidersByApplication("foo")));
+        Assert.assertEquals(Collections.singletonList(FOO_CONSUMER), container.getConsumersByHost("10.0.0.3"));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("10.0.0.1", "10.0.0.2", "10.0.0.3")), container.getHosts());
+        Assert.assertEquals(Collections.singleton("foo"), container.getDependencies("baz", false));
+        Assert.assertEquals(Collections.singleton("baz"), container.getDependencies("foo", true));
+
+        // the same urls again change nothing
+        container.notify(Arrays.asList(FOO2, FOO1));
+        Assert.assertEquals(3, container.getVersion());
+
+        // one provider of the service unregistered
+        container.notify(Arrays.asList(FOO1));
+        Assert.assertEquals(4, container.getVersion());
+        Assert.assertTrue(container.getProvidersByHost("10.0.0.2").isEmpty());
+        Assert.assertFalse(container.getHosts().contains("10.0.0.2"));
+        Assert.assertEquals(Collections.singletonList(FOO1), container.getProvidersByApplication("foo"));
+        Assert.assertEquals(new HashSet<URL>(Arrays.asList(FOO1, BAR1)), new HashSet<URL>(container.getProvidersByHost("10.0.0.1")));
+
+        // the last provider unregistered, the other service on the host is kept
+        container.notify(Arrays.asList(URL.valueOf("empty://10.0.0.1:20880/com.foo.FooService?category=providers")));
+        Assert.assertEquals(Collections.singletonList(BAR1), container.getProvidersByHost("10.0.0.1"));
+        Assert.assertTrue(container.getProvidersByApplication("foo").isEmpty());
+        Assert.assertNull(container.getProvidersByService("com.foo.FooService"));
+        Assert.assertTrue(container.getDependencies("baz", false).isEmpty());
+        Assert.assertEquals(Collections.singletonList(FOO_CONSUMER), container.getConsumersByApplication("baz"));
+
+        container.notify(Arrays.asList(URL.valueOf("empty://10.0.0.3/com.foo.FooService?category=consumers")));
+        Assert.assertTrue(container.getConsumersByHost("10.0.0.3").isEmpty());
+        Assert.assertEquals(Collections.singleton("10.0.0.1"), container.getHosts());
+        // the applications ever seen are kept
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("foo", "bar", "baz")), container.getApplications());
+    }
+
+}
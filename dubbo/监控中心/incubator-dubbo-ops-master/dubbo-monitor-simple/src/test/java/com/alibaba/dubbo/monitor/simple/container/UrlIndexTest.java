@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.container;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * UrlIndexTest
+ */
+public class UrlIndexTest {
+
+    private static final URL FOO = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService");
+
+    private static final URL BAR = URL.valueOf("dubbo://10.0.0.1:20881/com.foo.BarService");
+
+    @Test
+    public void testAddAndRemove() {
+        UrlIndex index = new UrlIndex();
+        index.add("10.0.0.1", FOO);
+        index.add("10.0.0.1", BAR);
+        index.add("10.0.0.1", FOO);
+        Assert.assertEquals(2, index.get("10.0.0.1").size());
+        // the urls without a key are not indexed
+        index.add(null, FOO);
+        index.add("", FOO);
+        Assert.assertEquals(Collections.singleton("10.0.0.1"), index.keys());
+
+        // a copy, not changed by the updates
+        List<URL> urls = index.get("10.0.0.1");
+        index.remove("10.0.0.1", FOO);
+        Assert.assertEquals(2, urls.size());
+        Assert.assertEquals(Collections.singletonList(BAR), index.get("10.0.0.1"));
+
+        // the key is dropped with its last url
+        index.remove("10.0.0.1", BAR);
+        index.remove("10.0.0.2", BAR);
+        Assert.assertTrue(index.keys().isEmpty());
+        Assert.assertTrue(index.get("10.0.0.1").isEmpty());
+        Assert.assertTrue(index.get(null).isEmpty());
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.servlet;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.simple.container.RegistryContainer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PageServletTest
+ */
+public class PageServletTest {
+
+    @Test
+    public void testNotModified() throws Exception {
+        RegistryContainer container = new RegistryContainer();
+        PageServlet servlet = new PageServlet();
+        Map<String, Object> headers = new HashMap<String, Object>();
+        Assert.assertFalse(servlet.isNotModified(newRequest(null), newResponse(headers)));
+        String etag = (String) headers.get("ETag");
+        Assert.assertNotNull(etag);
+
+        headers.clear();
+        Assert.assertTrue(servlet.isNotModified(newRequest(etag), newResponse(headers)));
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, headers.get("status"));
+        Assert.assertTrue(servlet.isNotModified(newRequest("\"other\", " + etag), newResponse(headers)));
+
+        // a change of the registry makes the page modified
+        notify(container);
+        headers.clear();
+        Assert.assertFalse(servlet.isNotModified(newRequest(etag), newResponse(headers)));
+        Assert.assertNull(headers.get("status"));
+        Assert.assertFalse(etag.equals(headers.get("ETag")));
+        Assert.assertTrue(servlet.isNotModified(newRequest((String) headers.get("ETag")), newResponse(headers)));
+        Assert.assertTrue(servlet.isNotModified(newRequest("*"), newResponse(headers)));
+    }
+
+    private static void notify(RegistryContainer container) throws Exception {
+        // the notification is package-private to the container
+        Method notify = RegistryContainer.class.getDeclaredMethod("notify", java.util.List.class);
+        notify.setAccessible(true);
+        notify.invoke(container, Collections.singletonList(
+                URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?application=foo&category=providers")));
+    }
+
+    private static HttpServletRequest newRequest(final String match) {
+        return (HttpServletRequest) Proxy.newProxyInstance(PageServletTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getHeader".equals(method.getName()) && "If-None-Match".equals(args[0])) {
+                            return match;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    private static HttpServletResponse newResponse(final Map<String, Object> headers) {
+        return (HttpServletResponse) Proxy.newProxyInstance(PageServletTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("setHeader".equals(method.getName())) {
+                            headers.put((String) args[0], args[1]);
+                        } else if ("setStatus".equals(method.getName())) {
+                            headers.put("status", args[0]);
+                        }
+                        return null;
+                    }
+                });
+    }
+
+}
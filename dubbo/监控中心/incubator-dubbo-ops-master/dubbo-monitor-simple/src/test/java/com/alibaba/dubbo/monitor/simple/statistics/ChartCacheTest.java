@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * ChartCacheTest
+ */
+public class ChartCacheTest {
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        ChartCache cache = new ChartCache(100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        Assert.assertNotNull(cache.get("a"));
+        cache.put("c", new byte[40]);
+        Assert.assertNotNull(cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertNotNull(cache.get("c"));
+        Assert.assertEquals(80, cache.size());
+        cache.put("d", new byte[200]);
+        Assert.assertNull(cache.get("d"));
+        Assert.assertEquals(80, cache.size());
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * StatisticsAggregatorTest
+ */
+public class StatisticsAggregatorTest {
+
+    @Test
+    public void testDrain() {
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        StatisticsKey key = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", "provider");
+        aggregator.add(60000, key, new long[]{1, 0, 10, 1, 10, 1});
+        aggregator.add(60000, new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", "provider"),
+                new long[]{2, 1, 30, 2, 20, 2});
+        aggregator.add(120000, key, new long[]{5, 0, 5, 1, 1, 1});
+
+        SortedMap<Long, Map<StatisticsKey, MinuteStatistics>> closed = aggregator.drain(120000);
+        Assert.assertEquals(1, closed.size());
+        Assert.assertArrayEquals(new long[]{3, 1, 40, 3, 20, 2}, closed.get(60000L).get(key).getValues());
+
+        closed = aggregator.drain(Long.MAX_VALUE);
+        Assert.assertEquals(1, closed.size());
+        Assert.assertArrayEquals(new long[]{5, 0, 5, 1, 1, 1}, closed.get(120000L).get(key).getValues());
+        Assert.assertTrue(aggregator.drain(Long.MAX_VALUE).isEmpty());
+    }
+
+}
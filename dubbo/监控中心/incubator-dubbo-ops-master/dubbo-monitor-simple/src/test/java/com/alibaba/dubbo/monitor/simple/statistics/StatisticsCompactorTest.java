@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.common.CountUtils;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * StatisticsCompactorTest
+ */
+public class StatisticsCompactorTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRollupAndRetention() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MAY, 1, 10, 31, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long minute = calendar.getTimeInMillis();
+        String day = StatisticsTier.MINUTE.getPeriod(minute);
+
+        Map<StatisticsTier, Long> retentions = new HashMap<StatisticsTier, Long>();
+        retentions.put(StatisticsTier.MINUTE, 2 * DAY);
+        StatisticsCompactor compactor = new StatisticsCompactor(folder.getRoot(), retentions);
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        StatisticsKey key = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", MonitorService.CONSUMER);
+        aggregator.add(minute, key, new long[]{3, 1, 30, 1, 20, 2});
+        aggregator.add(minute + 60000, key, new long[]{5, 0, 50, 1, 25, 3});
+        aggregator.add(minute + 60 * 60000, key, new long[]{2, 0, 20, 1, 10, 1});
+        compactor.getStore(StatisticsTier.MINUTE).write(aggregator.drain(Long.MAX_VALUE));
+
+        // the open day is not rolled up
+        compactor.compact(minute);
+        Assert.assertFalse(compactor.isRolled(day));
+
+        long now = StatisticsTier.MINUTE.getEnd(day) + DAY;
+        compactor.compact(now);
+        compactor.compact(now);
+        Assert.assertTrue(compactor.isRolled(day));
+        int side = StatisticsStore.getSideIndex(MonitorService.CONSUMER);
+        StatisticsTable fiveMinutes = compactor.getStore(StatisticsTier.FIVE_MINUTES).read(day, "com.foo.BarService", "sayHello");
+        Assert.assertEquals(8, fiveMinutes.get(0, side, Statistics.SUCCESS_INDEX, 10 * 12 + 6));
+        Assert.assertEquals(25, fiveMinutes.get(0, side, Statistics.MAX_ELAPSED_INDEX, 10 * 12 + 6));
+        StatisticsTable hours = compactor.getStore(StatisticsTier.HOUR).read("201805", "com.foo.BarService", "sayHello");
+        Assert.assertEquals(8, hours.get(0, side, Statistics.SUCCESS_INDEX, 10));
+        Assert.assertEquals(2, hours.get(0, side, Statistics.SUCCESS_INDEX, 11));
+        StatisticsTable days = compactor.getStore(StatisticsTier.DAY).read("2018", "com.foo.BarService", "sayHello");
+        Assert.assertEquals(10, CountUtils.sum(days.getValues(0, side, Statistics.SUCCESS_INDEX)));
+        Assert.assertEquals(10, days.get(0, side, Statistics.SUCCESS_INDEX, StatisticsTier.DAY.getSlot(minute)));
+        Assert.assertEquals(1, days.get(0, side, Statistics.FAILURE_INDEX, StatisticsTier.DAY.getSlot(minute)));
+
+        compactor.compact(now + 2 * DAY);
+        Assert.assertFalse(new File(folder.getRoot(), day).exists());
+        Assert.assertEquals(1, compactor.getStore(StatisticsTier.FIVE_MINUTES).getDays().size());
+    }
+
+    @Test
+    public void testRollupAgain() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MAY, 1, 10, 31, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long minute = calendar.getTimeInMillis();
+        String day = StatisticsTier.MINUTE.getPeriod(minute);
+        StatisticsCompactor compactor = new StatisticsCompactor(folder.getRoot(), new HashMap<StatisticsTier, Long>());
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        StatisticsKey foo = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", MonitorService.CONSUMER);
+        StatisticsKey bar = new StatisticsKey("com.foo.BarService", "sayBye", "10.0.0.1", "10.0.0.2", MonitorService.CONSUMER);
+        aggregator.add(minute, foo, new long[]{3, 1, 30, 1, 20, 2});
+        aggregator.add(minute, bar, new long[]{4, 0, 40, 1, 20, 2});
+        compactor.getStore(StatisticsTier.MINUTE).write(aggregator.drain(Long.MAX_VALUE));
+
+        long now = StatisticsTier.MINUTE.getEnd(day) + DAY;
+        compactor.compact(now);
+        // the process died before the day was marked, so it is rolled up again
+        Assert.assertTrue(new File(new File(folder.getRoot(), day), StatisticsCompactor.ROLLUP_MARKER).delete());
+        compactor.compact(now);
+        int side = StatisticsStore.getSideIndex(MonitorService.CONSUMER);
+        int slot = StatisticsTier.DAY.getSlot(minute);
+        StatisticsStore days = compactor.getStore(StatisticsTier.DAY);
+        Assert.assertEquals(3, days.read("2018", "com.foo.BarService", "sayHello").get(0, side, Statistics.SUCCESS_INDEX, slot));
+        Assert.assertEquals(4, days.read("2018", "com.foo.BarService", "sayBye").get(0, side, Statistics.SUCCESS_INDEX, slot));
+
+        // the minutes written late are rolled up with the day
+        aggregator.add(minute + 60000, foo, new long[]{2, 0, 20, 1, 10, 1});
+        compactor.getStore(StatisticsTier.MINUTE).write(aggregator.drain(Long.MAX_VALUE));
+        compactor.compact(now);
+        Assert.assertEquals(5, days.read("2018", "com.foo.BarService", "sayHello").get(0, side, Statistics.SUCCESS_INDEX, slot));
+        Assert.assertEquals(4, days.read("2018", "com.foo.BarService", "sayBye").get(0, side, Statistics.SUCCESS_INDEX, slot));
+        StatisticsTable hours = compactor.getStore(StatisticsTier.HOUR).read("201805", "com.foo.BarService", "sayHello");
+        Assert.assertEquals(5, CountUtils.sum(hours.getValues(0, side, Statistics.SUCCESS_INDEX)));
+    }
+
+    @Test
+    public void testSelect() {
+        Map<StatisticsTier, Long> retentions = new HashMap<StatisticsTier, Long>();
+        retentions.put(StatisticsTier.FIVE_MINUTES, 31 * DAY);
+        StatisticsCompactor compactor = new StatisticsCompactor(folder.getRoot(), retentions);
+        long now = System.currentTimeMillis();
+        Assert.assertSame(StatisticsTier.MINUTE, compactor.select(now - 60 * 60000, now, 100, now));
+        Assert.assertSame(StatisticsTier.FIVE_MINUTES, compactor.select(now - DAY, now, 100, now));
+        Assert.assertSame(StatisticsTier.HOUR, compactor.select(now - 7 * DAY, now, 100, now));
+        Assert.assertSame(StatisticsTier.DAY, compactor.select(now - 365 * DAY, now, 100, now));
+    }
+
+}
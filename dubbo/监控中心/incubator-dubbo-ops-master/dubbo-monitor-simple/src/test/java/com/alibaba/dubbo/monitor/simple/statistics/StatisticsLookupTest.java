@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.MonitorService;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * StatisticsLookupTest
+ */
+public class StatisticsLookupTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLookupIndexAndStore() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MAY, 1, 10, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long old = calendar.getTimeInMillis();
+        long start = old + 10 * MINUTE;
+
+        StatisticsCompactor compactor = new StatisticsCompactor(folder.getRoot(), Collections.<StatisticsTier, Long>emptyMap());
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        aggregator.add(old, new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", MonitorService.PROVIDER),
+                new long[]{3, 1, 30, 1, 20, 2});
+        compactor.getStore(StatisticsTier.MINUTE).write(aggregator.drain(Long.MAX_VALUE));
+
+        SymbolTable symbols = new SymbolTable();
+        StatisticsIndex index = new StatisticsIndex(symbols, 60 * MINUTE, start);
+        add(index, symbols, "count://10.0.0.2/com.foo.BarService?application=demo&method=sayHello&consumer=10.0.0.1:1234"
+                + "&success=5&elapsed=50&max.elapsed=25&timestamp=" + (start + MINUTE));
+        add(index, symbols, "count://10.0.0.2/com.foo.QuxService?application=qux&method=get&consumer=10.0.0.3"
+                + "&success=1&timestamp=" + (start + 2 * MINUTE));
+        // the open minute is not published
+        add(index, symbols, "count://10.0.0.2/com.foo.BarService?application=demo&method=sayHello&consumer=10.0.0.1"
+                + "&success=7&timestamp=" + (start + 5 * MINUTE));
+        index.publish(start + 5 * MINUTE);
+        Assert.assertEquals(2, index.size());
+
+        StatisticsLookup lookup = new StatisticsLookup(index, new StatisticsQuery(compactor, 0));
+        String range = "&from=" + old + "&to=" + (start + 10 * MINUTE);
+        List<URL> urls = lookup.lookup(URL.valueOf("count://0.0.0.0/com.foo.Bar*?side=provider" + range));
+        Assert.assertEquals(2, urls.size());
+        long success = 0;
+        for (URL url : urls) {
+            Assert.assertEquals("10.0.0.2", url.getHost());
+            Assert.assertEquals("10.0.0.1", url.getParameter(MonitorService.CONSUMER));
+            success += url.getParameter(MonitorService.SUCCESS, 0L);
+        }
+        Assert.assertEquals(8, success);
+
+        // the store keeps no application
+        urls = lookup.lookup(URL.valueOf("count://10.0.0.2/*?application=demo&method=say*" + range));
+        Assert.assertEquals(1, urls.size());
+        Assert.assertEquals("demo", urls.get(0).getParameter(MonitorService.APPLICATION));
+        Assert.assertEquals(25, urls.get(0).getParameter(MonitorService.MAX_ELAPSED, 0L));
+
+        Assert.assertTrue(lookup.lookup(URL.valueOf("count://0.0.0.0/com.foo.BazService" + range)).isEmpty());
+        Assert.assertTrue(lookup.lookup(URL.valueOf("count://0.0.0.0/*?side=consumer" + range)).isEmpty());
+
+        // a late record of a published minute is merged
+        add(index, symbols, "count://10.0.0.2/com.foo.QuxService?application=qux&method=get&consumer=10.0.0.3"
+                + "&success=2&timestamp=" + (start + 2 * MINUTE));
+        index.publish(start + 6 * MINUTE);
+        urls = lookup.lookup(URL.valueOf("count://0.0.0.0/com.foo.QuxService?consumer=10.0.0.3" + range));
+        Assert.assertEquals(1, urls.size());
+        Assert.assertEquals(3, urls.get(0).getParameter(MonitorService.SUCCESS, 0L));
+    }
+
+    private static void add(StatisticsIndex index, SymbolTable symbols, String report) {
+        StatisticsRecord record = StatisticsRecord.decode(URL.valueOf(report), symbols);
+        long[] values = Statistics.newValues();
+        record.copyValues(values);
+        index.add(record, values);
+    }
+
+}
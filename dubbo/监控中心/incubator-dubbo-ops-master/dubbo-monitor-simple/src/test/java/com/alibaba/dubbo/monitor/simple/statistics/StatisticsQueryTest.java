@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.MonitorService;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * StatisticsQueryTest
+ */
+public class StatisticsQueryTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testQueryAcrossTiers() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MAY, 1, 0, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long day = calendar.getTimeInMillis();
+        calendar.add(Calendar.DATE, 1);
+        long nextDay = calendar.getTimeInMillis();
+
+        StatisticsCompactor compactor = new StatisticsCompactor(folder.getRoot(), Collections.<StatisticsTier, Long>emptyMap());
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        StatisticsKey key = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", MonitorService.PROVIDER);
+        aggregator.add(day + 10 * 60 * MINUTE + 3 * MINUTE, key, new long[]{3, 1, 30, 1, 20, 2});
+        aggregator.add(day + 23 * 60 * MINUTE, key, new long[]{5, 0, 50, 1, 25, 3});
+        aggregator.add(nextDay + 7 * MINUTE, key, new long[]{2, 0, 20, 1, 10, 1});
+        compactor.getStore(StatisticsTier.MINUTE).write(aggregator.drain(Long.MAX_VALUE));
+        compactor.compact(nextDay + 2 * 60 * MINUTE);
+        Assert.assertEquals(nextDay, compactor.getRolledUntil());
+
+        StatisticsQuery query = new StatisticsQuery(compactor, 0);
+        long from = day + 10 * 60 * MINUTE + 2 * MINUTE;
+        long to = nextDay + 15 * MINUTE;
+        List<StatisticsQuery.Segment> segments = query.split(from, to, StatisticsTier.DAY, to, Long.MAX_VALUE);
+        // 3 minutes, 11 of 5 minutes, 13 hours of the rolled day, then 15 minutes of the next day
+        Assert.assertEquals(4, segments.size());
+        Assert.assertSame(StatisticsTier.MINUTE, segments.get(0).tier);
+        Assert.assertSame(StatisticsTier.FIVE_MINUTES, segments.get(1).tier);
+        Assert.assertSame(StatisticsTier.HOUR, segments.get(2).tier);
+        Assert.assertSame(StatisticsTier.MINUTE, segments.get(3).tier);
+
+        StatisticsResult result = query.summarize("com.foo.BarService", from, to, MonitorService.CONSUMER);
+        Assert.assertFalse(result.isPartial());
+        StatisticsSummary summary = result.getMethods().get("sayHello");
+        int side = StatisticsStore.getSideIndex(MonitorService.PROVIDER);
+        Assert.assertEquals(10, summary.getSuccess(side));
+        Assert.assertEquals(1, summary.getFailure(side));
+        Assert.assertEquals(25, summary.getMaxElapsed(side));
+        Assert.assertEquals(10, summary.getExpand("10.0.0.1").getSuccess(side));
+
+        // the minute before the range is excluded
+        result = query.summarize("com.foo.BarService", from + 2 * MINUTE, to, null);
+        Assert.assertEquals(7, result.getMethods().get("sayHello").getSuccess(side));
+
+        StatisticsSeries series = query.series("com.foo.BarService", "sayHello", day, to, 10);
+        Assert.assertSame(StatisticsTier.HOUR, series.getTier());
+        Assert.assertEquals(3, series.getPoints().size());
+        Assert.assertEquals(3, series.getPoints().get(day + 10 * 60 * MINUTE).getSuccess(side));
+        Assert.assertEquals(2, series.getPoints().get(nextDay).getSuccess(side));
+
+        // the range is narrowed to the stored data
+        long oldest = StatisticsTier.DAY.getStart("2018");
+        Assert.assertEquals(oldest, compactor.getOldest());
+        Assert.assertEquals(query.split(oldest, to, StatisticsTier.DAY, to, Long.MAX_VALUE).size(),
+                query.split(oldest - 3650 * 24 * 60 * MINUTE, to + 3650 * 24 * 60 * MINUTE, StatisticsTier.DAY, to, Long.MAX_VALUE).size());
+        Assert.assertNull(query.split(from, to, StatisticsTier.DAY, to, 0));
+    }
+
+}
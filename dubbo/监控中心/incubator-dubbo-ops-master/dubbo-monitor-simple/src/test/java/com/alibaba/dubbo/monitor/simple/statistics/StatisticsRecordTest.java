@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.monitor.MonitorService;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+
+/**
+ * StatisticsRecordTest
+ */
+public class StatisticsRecordTest {
+
+    @Test
+    public void testDecodeConsumer() throws Exception {
+        SymbolTable symbols = new SymbolTable();
+        URL url = URL.valueOf("count://10.0.0.1/com.foo.BarService?application=demo&method=sayHello"
+                + "&provider=10.0.0.2:20880&success=5&failure=1&elapsed=60&concurrent=2&max.elapsed=30&max.concurrent=3"
+                + "&timestamp=20180102030405");
+        StatisticsRecord record = StatisticsRecord.decode(url, symbols);
+        Assert.assertEquals(new SimpleDateFormat("yyyyMMddHHmmss").parse("20180102030405").getTime(), record.getTimestamp());
+        Assert.assertTrue(record.isConsumerSide());
+        Assert.assertEquals("10.0.0.2", symbols.getName(record.getProvider()));
+        Assert.assertEquals("demo", symbols.getName(record.getApplication()));
+        long[] values = Statistics.newValues();
+        record.copyValues(values);
+        Assert.assertArrayEquals(new long[]{5, 1, 60, 2, 30, 3}, values);
+        StatisticsKey key = record.getKey(symbols);
+        Assert.assertEquals(new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", MonitorService.CONSUMER), key);
+
+        StatisticsRecord other = StatisticsRecord.decode(url.addParameter("success", 7), symbols);
+        Assert.assertSame(key.getService(), other.getKey(symbols).getService());
+        Assert.assertEquals(5, symbols.size());
+    }
+
+    @Test
+    public void testDecodeProvider() {
+        SymbolTable symbols = new SymbolTable();
+        URL url = URL.valueOf("count://10.0.0.2/com.foo.BarService?method=sayHello&consumer=10.0.0.1&success=1&timestamp=1514862245000");
+        StatisticsRecord record = StatisticsRecord.decode(url, symbols);
+        Assert.assertFalse(record.isConsumerSide());
+        Assert.assertEquals(1514862245000L, record.getTimestamp());
+        Assert.assertEquals(0, record.getApplication());
+        Assert.assertNull(symbols.getName(record.getApplication()));
+        Assert.assertEquals("10.0.0.1", symbols.getName(record.getConsumer()));
+        Assert.assertEquals("10.0.0.2", symbols.getName(record.getProvider()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeMalformed() {
+        StatisticsRecord.decode(URL.valueOf("count://10.0.0.2/com.foo.BarService?method=sayHello&success=x"), new SymbolTable());
+    }
+
+}
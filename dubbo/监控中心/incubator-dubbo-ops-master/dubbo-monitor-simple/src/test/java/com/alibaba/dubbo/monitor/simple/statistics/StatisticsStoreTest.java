@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import com.alibaba.dubbo.monitor.MonitorService;
+import com.alibaba.dubbo.monitor.simple.common.CountUtils;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+
+/**
+ * StatisticsStoreTest
+ */
+public class StatisticsStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MAY, 1, 10, 30, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long minute = calendar.getTimeInMillis();
+        String day = new SimpleDateFormat("yyyyMMdd").format(calendar.getTime());
+
+        StatisticsStore store = new StatisticsStore(folder.getRoot());
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        StatisticsKey consumer = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.2", MonitorService.CONSUMER);
+        StatisticsKey provider = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0.1", "10.0.0.3", MonitorService.PROVIDER);
+        aggregator.add(minute, consumer, new long[]{3, 1, 30, 1, 20, 2});
+        aggregator.add(minute + 60000, consumer, new long[]{5, 0, 50, 1, 25, 3});
+        aggregator.add(minute, provider, new long[]{4, 0, 40, 1, 15, 2});
+        store.write(aggregator.drain(Long.MAX_VALUE));
+        // a late report of the same minute is merged into the slot
+        aggregator.add(minute, consumer, new long[]{1, 1, 1, 1, 100, 1});
+        store.write(aggregator.drain(Long.MAX_VALUE));
+
+        Assert.assertEquals(1, store.getDays().size());
+        Assert.assertEquals("com.foo.BarService", store.getServices(day).get(0));
+        Assert.assertEquals("sayHello", store.getMethods(day, "com.foo.BarService").get(0));
+
+        StatisticsTable table = store.read(day, "com.foo.BarService", "sayHello");
+        Assert.assertEquals(2, table.size());
+        int pair = "10.0.0.2".equals(table.getProvider(0)) ? 0 : 1;
+        Assert.assertEquals("10.0.0.2", table.getProvider(pair));
+        int side = StatisticsStore.getSideIndex(MonitorService.CONSUMER);
+        Assert.assertEquals(4, table.get(pair, side, Statistics.SUCCESS_INDEX, 630));
+        Assert.assertEquals(9, CountUtils.sum(table.getValues(pair, side, Statistics.SUCCESS_INDEX)));
+        Assert.assertEquals(100, CountUtils.max(table.getValues(pair, side, Statistics.MAX_ELAPSED_INDEX)));
+        Assert.assertEquals(4, CountUtils.sum(table.getValues(1 - pair, StatisticsStore.getSideIndex(MonitorService.PROVIDER), Statistics.SUCCESS_INDEX)));
+        Assert.assertNull(store.read(day, "com.foo.BarService", "sayBye"));
+    }
+
+    @Test
+    public void testReadInWindows() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.MAY, 1, 10, 30, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long minute = calendar.getTimeInMillis();
+        String day = new SimpleDateFormat("yyyyMMdd").format(calendar.getTime());
+
+        StatisticsStore store = new StatisticsStore(folder.getRoot());
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        for (int i = 1; i <= 5; i++) {
+            StatisticsKey key = new StatisticsKey("com.foo.BarService", "sayHello", "10.0.0." + i, "10.0.1." + i, MonitorService.CONSUMER);
+            aggregator.add(minute, key, new long[]{i, 0, i * 10, 1, i * 5, 1});
+        }
+        store.write(aggregator.drain(Long.MAX_VALUE));
+
+        // 2 pairs a window, the last window holds 1
+        int slots = StatisticsTier.MINUTE.getSlots();
+        StatisticsTable table = StatisticsStore.read(store.getFile(day, "com.foo.BarService", "sayHello"), slots,
+                2 * StatisticsStore.getBlockSize(slots) + 8);
+        Assert.assertEquals(5, table.size());
+        int side = StatisticsStore.getSideIndex(MonitorService.CONSUMER);
+        for (int pair = 0; pair < table.size(); pair++) {
+            long expected = Long.parseLong(table.getConsumer(pair).substring("10.0.0.".length()));
+            Assert.assertEquals(expected, table.get(pair, side, Statistics.SUCCESS_INDEX, 630));
+            Assert.assertEquals(expected, CountUtils.sum(table.getValues(pair, side, Statistics.SUCCESS_INDEX)));
+            Assert.assertEquals(expected * 5, table.get(pair, side, Statistics.MAX_ELAPSED_INDEX, 630));
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.monitor.simple.statistics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * SymbolTableTest
+ */
+public class SymbolTableTest {
+
+    @Test
+    public void testReclaim() {
+        SymbolTable symbols = new SymbolTable();
+        int foo = symbols.getId("com.foo.FooService");
+        int bar = symbols.getId("com.foo.BarService");
+        Assert.assertEquals(foo, symbols.getId("com.foo.FooService"));
+        Assert.assertEquals(0, symbols.getId(null));
+
+        // interned in this generation or the last one, a queued record may hold them
+        Assert.assertEquals(0, symbols.reclaim(Collections.<Integer>emptySet()));
+        Assert.assertEquals(0, symbols.reclaim(Collections.<Integer>emptySet()));
+        symbols.getId("com.foo.BarService");
+        Assert.assertEquals(0, symbols.reclaim(Collections.singleton(foo)));
+        Assert.assertEquals(0, symbols.reclaim(Collections.singleton(foo)));
+        Assert.assertEquals(1, symbols.reclaim(Collections.singleton(foo)));
+        Assert.assertEquals(-1, symbols.find("com.foo.BarService"));
+        Assert.assertEquals("com.foo.FooService", symbols.getName(foo));
+        Assert.assertEquals(1, symbols.size());
+
+        // the reclaimed id is given to the next name
+        Assert.assertEquals(bar, symbols.getId("com.foo.BazService"));
+        Assert.assertEquals("com.foo.BazService", symbols.getName(bar));
+        Assert.assertEquals(2, symbols.size());
+    }
+
+}
@@ -0,0 +1,382 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.registry.simple;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
+import com.alibaba.dubbo.registry.NotifyListener;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NotificationDispatcher
+ * <p>
+ * Delivers the notifications on a bounded pool of threads shared by all the listeners, the notifications of a
+ * listener are queued and delivered one by one in order. The changes of a service are coalesced per listener over a
+ * window, and the listener is notified once with the state of the service at the delivery. A subscription to all the
+ * services is notified service by service from a snapshot, a chunk of services at a time.
+ */
+abstract class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    // the notifications of a listener delivered in a row before giving the thread to the other listeners
+    private static final int BATCH = 16;
+
+    private final ConcurrentMap<Notification, Notification> pending = new ConcurrentHashMap<Notification, Notification>();
+
+    private final ConcurrentMap<NotifyListener, ListenerQueue> queues = new ConcurrentHashMap<NotifyListener, ListenerQueue>();
+
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(1, new NamedThreadFactory("DubboRegistryNotifyTimer", true));
+
+    private final ExecutorService executor;
+
+    private final long window;
+
+    private final int chunk;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong latency = new AtomicLong();
+
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private volatile boolean destroyed;
+
+    /**
+     * @param window  the milliseconds to coalesce the changes over
+     * @param threads the number of the threads delivering the notifications
+     * @param chunk   the number of the services notified in a row to a subscription of all the services
+     */
+    NotificationDispatcher(long window, int threads, int chunk) {
+        this.window = window;
+        this.chunk = chunk;
+        this.executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("DubboRegistryNotifier", true));
+    }
+
+    /**
+     * Get the urls to notify the listener with.
+     *
+     * @param categories the changed categories
+     * @return the urls, or null if the listener is no longer subscribed
+     */
+    protected abstract List<URL> lookup(URL subscribed, NotifyListener listener, String service, Set<String> categories);
+
+    /**
+     * Get the registered services.
+     */
+    protected abstract List<String> getServices();
+
+    /**
+     * Schedule to notify the listener of the change of the service in the category.
+     */
+    public void dispatch(URL subscribed, NotifyListener listener, String service, String category) {
+        if (destroyed) {
+            return;
+        }
+        Notification notification = new Notification(subscribed, listener, service);
+        notification.add(category);
+        while (true) {
+            final Notification previous = pending.putIfAbsent(notification, notification);
+            if (previous == null) {
+                final Notification scheduled = notification;
+                try {
+                    timer.schedule(new Runnable() {
+                        public void run() {
+                            scheduled.close();
+                            submit(scheduled.listener, scheduled);
+                        }
+                    }, window, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // destroyed meanwhile
+                    scheduled.close();
+                }
+                return;
+            }
+            // false if the previous one is already closed, it is removed by then
+            if (previous.add(category)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notify the listener of all the registered services, one by one.
+     */
+    public void dispatchAll(URL subscribed, NotifyListener listener) {
+        if (destroyed) {
+            return;
+        }
+        submit(listener, new Snapshot(subscribed, listener, getServices(), 0, System.nanoTime()));
+    }
+
+    private void submit(NotifyListener listener, Runnable task) {
+        if (destroyed) {
+            return;
+        }
+        while (true) {
+            ListenerQueue queue = queues.get(listener);
+            if (queue == null) {
+                queue = new ListenerQueue(listener);
+                ListenerQueue previous = queues.putIfAbsent(listener, queue);
+                if (previous != null) {
+                    queue = previous;
+                }
+            }
+            if (queue.add(task)) {
+                return;
+            }
+        }
+    }
+
+    private void deliver(NotifyListener listener, String service, List<URL> urls, long start) {
+        try {
+            listener.notify(urls);
+        } catch (Throwable e) {
+            logger.warn("Discard to notify " + service + " to listener " + listener + ", cause: " + e.getMessage(), e);
+        }
+        long elapsed = System.nanoTime() - start;
+        delivered.incrementAndGet();
+        latency.addAndGet(elapsed);
+        long max = maxLatency.get();
+        while (elapsed > max && !maxLatency.compareAndSet(max, elapsed)) {
+            max = maxLatency.get();
+        }
+    }
+
+    /**
+     * The number of the notifications waiting for a thread.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * The number of the notifications delivered.
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * The total nanoseconds from the changes to the deliveries of the notifications.
+     */
+    public long getLatency() {
+        return latency.get();
+    }
+
+    /**
+     * The max nanoseconds from a change to the delivery of its notification.
+     */
+    public long getMaxLatency() {
+        return maxLatency.get();
+    }
+
+    /**
+     * Stop the threads, the notifications dispatched afterwards are dropped.
+     */
+    public void destroy() {
+        destroyed = true;
+        timer.shutdown();
+        executor.shutdown();
+    }
+
+    /**
+     * The notifications of a listener, it is dropped once empty so a new one is created for the next notification.
+     */
+    private class ListenerQueue implements Runnable {
+
+        private final NotifyListener listener;
+
+        private final Queue<Runnable> tasks = new LinkedList<Runnable>();
+
+        private boolean running;
+
+        private boolean closed;
+
+        ListenerQueue(NotifyListener listener) {
+            this.listener = listener;
+        }
+
+        synchronized boolean add(Runnable task) {
+            if (closed) {
+                return false;
+            }
+            if (!running) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // destroyed meanwhile, the notification is dropped
+                    return true;
+                }
+                running = true;
+            }
+            tasks.add(task);
+            queued.incrementAndGet();
+            return true;
+        }
+
+        public void run() {
+            for (int i = 0; ; i++) {
+                Runnable task;
+                synchronized (this) {
+                    if (i == BATCH && !tasks.isEmpty()) {
+                        try {
+                            executor.execute(this);
+                            return;
+                        } catch (RejectedExecutionException e) {
+                            // destroyed meanwhile, the rest are dropped
+                            queued.addAndGet(-tasks.size());
+                            tasks.clear();
+                        }
+                    }
+                    task = tasks.poll();
+                    if (task == null) {
+                        running = false;
+                        closed = true;
+                        queues.remove(listener, this);
+                        return;
+                    }
+                }
+                queued.decrementAndGet();
+                task.run();
+            }
+        }
+
+    }
+
+    /**
+     * The coalesced changes of a service to notify a listener of.
+     */
+    private class Notification implements Runnable {
+
+        private final URL subscribed;
+
+        private final NotifyListener listener;
+
+        private final String service;
+
+        private final Set<String> categories = new HashSet<String>();
+
+        private final long created = System.nanoTime();
+
+        private boolean closed;
+
+        Notification(URL subscribed, NotifyListener listener, String service) {
+            this.subscribed = subscribed;
+            this.listener = listener;
+            this.service = service;
+        }
+
+        synchronized boolean add(String category) {
+            if (closed) {
+                return false;
+            }
+            categories.add(category);
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.remove(this);
+        }
+
+        public void run() {
+            List<URL> urls = lookup(subscribed, listener, service, categories);
+            if (urls != null) {
+                deliver(listener, service, urls, created);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return (subscribed.hashCode() * 31 + listener.hashCode()) * 31 + service.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Notification)) {
+                return false;
+            }
+            Notification other = (Notification) obj;
+            return subscribed.equals(other.subscribed) && listener.equals(other.listener) && service.equals(other.service);
+        }
+
+    }
+
+    /**
+     * A chunk of the services to notify a subscription of all the services of, it queues the next chunk when done so
+     * the other notifications of the listener are not held behind the whole snapshot.
+     */
+    private class Snapshot implements Runnable {
+
+        private final URL subscribed;
+
+        private final NotifyListener listener;
+
+        private final List<String> services;
+
+        private final int offset;
+
+        private final long created;
+
+        Snapshot(URL subscribed, NotifyListener listener, List<String> services, int offset, long created) {
+            this.subscribed = subscribed;
+            this.listener = listener;
+            this.services = services;
+            this.offset = offset;
+            this.created = created;
+        }
+
+        public void run() {
+            int end = Math.min(offset + chunk, services.size());
+            for (int i = offset; i < end; i++) {
+                String service = services.get(i);
+                List<URL> urls = lookup(subscribed, listener, service, Collections.<String>emptySet());
+                if (urls == null) {
+                    return;
+                }
+                if (!urls.isEmpty()) {
+                    deliver(listener, service, urls, created);
+                }
+            }
+            if (end < services.size()) {
+                submit(listener, new Snapshot(subscribed, listener, services, end, created));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.registry.simple;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+
+/**
+ * NotifierStatusChecker
+ */
+@Activate
+public class NotifierStatusChecker implements StatusChecker {
+
+    private long lastDelivered;
+
+    public synchronized Status check() {
+        SimpleRegistryService registryService = SimpleRegistryService.getInstance();
+        if (registryService == null) {
+            return new Status(Status.Level.UNKNOWN);
+        }
+        NotificationDispatcher dispatcher = registryService.getDispatcher();
+        int queued = dispatcher.getQueued();
+        long delivered = dispatcher.getDelivered();
+        // warn on the notifications waiting while none was delivered since the last check
+        Status.Level level = queued > 0 && delivered == lastDelivered ? Status.Level.WARN : Status.Level.OK;
+        lastDelivered = delivered;
+        long average = delivered == 0 ? 0 : dispatcher.getLatency() / delivered;
+        return new Status(level, "queued: " + queued + ", delivered: " + delivered
+                + ", latency: " + average / 1000000 + "ms, max latency: " + dispatcher.getMaxLatency() / 1000000 + "ms");
+    }
+
+}
@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.registry.simple;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RegistryStore
+ * <p>
+ * Persists the registered urls of the clients as a binary snapshot and an append-only change log since the snapshot.
+ * Both are read in a single pass on start, and the snapshot is rewritten periodically to compact the log: the log is
+ * switched under the lock, and the snapshot is written outside it while the changes go to the new log. Replaying a
+ * change twice leaves the same urls, so the logs of an interrupted snapshot are simply replayed on the older one.
+ * <p>
+ * The urls are written field by field rather than as their full strings, so loading creates them directly
+ * instead of parsing each one again, which dominates the start of a registry holding many urls. The snapshot
+ * writes each distinct string once and refers to it by index afterwards, as the urls share most of their keys
+ * and values.
+ */
+abstract class RegistryStore {
+
+    static final byte REGISTER = 1;
+
+    static final byte UNREGISTER = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistryStore.class);
+
+    private static final int MAGIC = 0x44525332;
+
+    private static final int MAX_LENGTH = 1024 * 1024;
+
+    private final File snapshotFile;
+
+    private final File tempFile;
+
+    private final File logFile;
+
+    // the log before the last switch, until the snapshot including it is written
+    private final File oldLogFile;
+
+    // held while a snapshot is written, so only one is written at a time
+    private final Object snapshotLock = new Object();
+
+    private DataOutputStream log;
+
+    private boolean closed;
+
+    RegistryStore(File dir) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalStateException("Failed to create registry store directory " + dir.getAbsolutePath());
+        }
+        this.snapshotFile = new File(dir, "registry.snapshot");
+        this.tempFile = new File(dir, "registry.snapshot.tmp");
+        this.logFile = new File(dir, "registry.log");
+        this.oldLogFile = new File(dir, "registry.log.old");
+    }
+
+    /**
+     * Get the registered urls by client, called with the store locked so no change is missed by the snapshot.
+     */
+    protected abstract Map<String, ? extends Collection<URL>> getRegistered();
+
+    /**
+     * Load the snapshot and replay the change logs on it.
+     *
+     * @return the registered urls by client
+     */
+    public synchronized Map<String, Set<URL>> load() throws IOException {
+        Map<String, Set<URL>> registered = new HashMap<String, Set<URL>>();
+        // the new snapshot is complete if the old one was deleted but not replaced yet
+        File file = snapshotFile.exists() || !tempFile.exists() ? snapshotFile : tempFile;
+        if (file.exists()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Invalid registry snapshot " + file.getAbsolutePath());
+                }
+                List<String> strings = new ArrayList<String>();
+                int clients = in.readInt();
+                for (int i = 0; i < clients; i++) {
+                    String client = readString(in, strings);
+                    int size = in.readInt();
+                    Set<URL> urls = getUrls(registered, client);
+                    for (int j = 0; j < size; j++) {
+                        urls.add(readUrl(in, strings));
+                    }
+                }
+            } finally {
+                in.close();
+            }
+        }
+        replay(oldLogFile, registered);
+        replay(logFile, registered);
+        return registered;
+    }
+
+    private static void replay(File file, Map<String, Set<URL>> registered) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            while (true) {
+                int op = in.read();
+                if (op < 0) {
+                    break;
+                }
+                if (op != REGISTER && op != UNREGISTER) {
+                    throw new IOException("Invalid operation " + op);
+                }
+                String client = readString(in, null);
+                URL url = readUrl(in, null);
+                if (op == REGISTER) {
+                    getUrls(registered, client).add(url);
+                } else {
+                    Set<URL> urls = registered.get(client);
+                    if (urls != null) {
+                        urls.remove(url);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the changes being appended on a crash are lost
+            logger.warn("Ignore the broken tail of registry log " + file.getAbsolutePath() + ", cause: " + e.getMessage());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Move the files failed to load aside as <code>*.broken</code>, so the next snapshot starts the store afresh.
+     */
+    public synchronized void discard() {
+        for (File file : new File[]{snapshotFile, tempFile, oldLogFile, logFile}) {
+            if (file.exists()) {
+                File broken = new File(file.getPath() + ".broken");
+                if (broken.exists() && !broken.delete() || !file.renameTo(broken)) {
+                    logger.warn("Failed to move aside the registry file " + file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    private static Set<URL> getUrls(Map<String, Set<URL>> registered, String client) {
+        Set<URL> urls = registered.get(client);
+        if (urls == null) {
+            urls = new LinkedHashSet<URL>();
+            registered.put(client, urls);
+        }
+        return urls;
+    }
+
+    /**
+     * Append the change to the log.
+     */
+    public synchronized void append(byte op, String client, URL url) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.writeByte(op);
+            writeString(log, client, null);
+            writeUrl(log, url, null);
+            log.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to append to registry log " + logFile.getAbsolutePath() + ", cause: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write the snapshot of the registered urls and start a new change log.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            Map<String, ? extends Collection<URL>> registered;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                registered = getRegistered();
+                switchLog();
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024));
+            try {
+                out.writeInt(MAGIC);
+                Map<String, Integer> strings = new HashMap<String, Integer>();
+                out.writeInt(registered.size());
+                for (Map.Entry<String, ? extends Collection<URL>> entry : registered.entrySet()) {
+                    writeString(out, entry.getKey(), strings);
+                    Collection<URL> urls = entry.getValue();
+                    out.writeInt(urls.size());
+                    for (URL url : urls) {
+                        writeUrl(out, url, strings);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            if (snapshotFile.exists() && !snapshotFile.delete() || !tempFile.renameTo(snapshotFile)) {
+                throw new IOException("Failed to replace registry snapshot " + snapshotFile.getAbsolutePath());
+            }
+            if (oldLogFile.exists() && !oldLogFile.delete()) {
+                throw new IOException("Failed to delete registry log " + oldLogFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Move the log to the old log and start a new one, called with the store locked.
+     * The log is opened again even if the move fails, so no change is dropped.
+     */
+    private void switchLog() throws IOException {
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            if (logFile.exists()) {
+                if (oldLogFile.exists()) {
+                    // left by a failed snapshot, the changes since go after it
+                    copy(logFile, oldLogFile);
+                    if (!logFile.delete()) {
+                        throw new IOException("Failed to delete registry log " + logFile.getAbsolutePath());
+                    }
+                } else if (!logFile.renameTo(oldLogFile)) {
+                    throw new IOException("Failed to move registry log " + logFile.getAbsolutePath());
+                }
+            }
+        } finally {
+            log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+        }
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        FileInputStream in = new FileInputStream(from);
+        try {
+            FileOutputStream out = new FileOutputStream(to, true);
+            try {
+                byte[] buffer = new byte[64 * 1024];
+                int count;
+                while ((count = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, count);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Close the change log, no snapshot is written as the clients may be disconnecting by then.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                logger.warn(e.getMessage(), e);
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * @param strings the indexes of the strings written before, or null to write every string
+     */
+    private static void writeUrl(DataOutputStream out, URL url, Map<String, Integer> strings) throws IOException {
+        writeString(out, url.getProtocol(), strings);
+        writeString(out, url.getUsername(), strings);
+        writeString(out, url.getPassword(), strings);
+        writeString(out, url.getHost(), strings);
+        out.writeInt(url.getPort());
+        writeString(out, url.getPath(), strings);
+        Map<String, String> parameters = url.getParameters();
+        out.writeInt(parameters.size());
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            writeString(out, entry.getKey(), strings);
+            writeString(out, entry.getValue(), strings);
+        }
+    }
+
+    /**
+     * @param strings the strings read before, or null if every string is written
+     */
+    private static URL readUrl(DataInputStream in, List<String> strings) throws IOException {
+        String protocol = readString(in, strings);
+        String username = readString(in, strings);
+        String password = readString(in, strings);
+        String host = readString(in, strings);
+        int port = in.readInt();
+        String path = readString(in, strings);
+        int size = in.readInt();
+        if (size < 0 || size > MAX_LENGTH) {
+            throw new IOException("Invalid parameter count " + size);
+        }
+        Map<String, String> parameters = new HashMap<String, String>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            parameters.put(readString(in, strings), readString(in, strings));
+        }
+        return new URL(protocol, username, password, host, port, path, parameters);
+    }
+
+    /**
+     * Write the length and the bytes of the string, -1 for null, or -2 - index for a string written before.
+     */
+    private static void writeString(DataOutputStream out, String value, Map<String, Integer> strings) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        if (strings != null) {
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeInt(-2 - index);
+                return;
+            }
+            strings.put(value, strings.size());
+        }
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < -1) {
+            int index = -2 - length;
+            if (strings == null || index >= strings.size()) {
+                throw new IOException("Invalid string index " + index);
+            }
+            return strings.get(index);
+        }
+        if (length > MAX_LENGTH) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        String value = new String(bytes, "UTF-8");
+        if (strings != null) {
+            strings.add(value);
+        }
+        return value;
+    }
+
+}
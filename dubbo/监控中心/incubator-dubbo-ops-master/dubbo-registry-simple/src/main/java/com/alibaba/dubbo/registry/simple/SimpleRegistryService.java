@@ -21,6 +21,8 @@ import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
 import com.alibaba.dubbo.common.utils.ConcurrentHashSet;
+import com.alibaba.dubbo.common.utils.ConfigUtils;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
 import com.alibaba.dubbo.common.utils.NetUtils;
 import com.alibaba.dubbo.common.utils.UrlUtils;
 import com.alibaba.dubbo.registry.NotifyListener;
@@ -28,25 +30,176 @@ import com.alibaba.dubbo.registry.RegistryService;
 import com.alibaba.dubbo.registry.support.AbstractRegistry;
 import com.alibaba.dubbo.rpc.RpcContext;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SimpleRegistryService
  */
 public class SimpleRegistryService extends AbstractRegistry {
 
+    public static final String NOTIFY_WINDOW = "dubbo.registry.notify.window";
+    public static final String NOTIFY_THREADS = "dubbo.registry.notify.threads";
+    public static final String NOTIFY_CHUNK = "dubbo.registry.notify.chunk";
+    public static final String STORE_DIR = "dubbo.registry.store.dir";
+    public static final String STORE_INTERVAL = "dubbo.registry.store.interval";
+    public static final String STORE_TIMEOUT = "dubbo.registry.store.timeout";
+    private static SimpleRegistryService INSTANCE;
     private final static Logger logger = LoggerFactory.getLogger(SimpleRegistryService.class);
     private final ConcurrentMap<String, Set<URL>> remoteRegistered = new ConcurrentHashMap<String, Set<URL>>();
     private final ConcurrentMap<String, ConcurrentMap<URL, Set<NotifyListener>>> remoteSubscribed = new ConcurrentHashMap<String, ConcurrentMap<URL, Set<NotifyListener>>>();
+    private final ConcurrentMap<String, Set<URL>> serviceRegistered = new ConcurrentHashMap<String, Set<URL>>();
+    private final SubscriptionIndex subscriptions = new SubscriptionIndex();
+    // the urls recovered from the store by their previous clients, until registered again or timed out
+    private final ConcurrentMap<URL, String> provisional = new ConcurrentHashMap<URL, String>();
+    private RegistryStore store;
+    private ScheduledExecutorService storeExecutor;
+    private Thread storeShutdownHook;
+    private final NotificationDispatcher dispatcher = new NotificationDispatcher(
+            Long.parseLong(ConfigUtils.getProperty(NOTIFY_WINDOW, "50")),
+            Integer.parseInt(ConfigUtils.getProperty(NOTIFY_THREADS, "4")),
+            Integer.parseInt(ConfigUtils.getProperty(NOTIFY_CHUNK, "100"))) {
+        @Override
+        protected List<URL> lookup(URL subscribed, NotifyListener listener, String service, Set<String> categories) {
+            Set<NotifyListener> listeners = getSubscribed().get(subscribed);
+            if (listeners == null || !listeners.contains(listener)) {
+                return null;
+            }
+            return getNotifyUrls(subscribed, service, categories);
+        }
+
+        @Override
+        protected List<String> getServices() {
+            return new ArrayList<String>(serviceRegistered.keySet());
+        }
+    };
 
     public SimpleRegistryService() {
         super(new URL("dubbo", NetUtils.getLocalHost(), 0, RegistryService.class.getName(), "file", "N/A"));
+        INSTANCE = this;
+        String dir = ConfigUtils.getProperty(STORE_DIR);
+        if (dir != null && dir.length() > 0) {
+            initStore(new File(dir));
+        }
+    }
+
+    private void initStore(File dir) {
+        store = new RegistryStore(dir) {
+            @Override
+            protected Map<String, ? extends Collection<URL>> getRegistered() {
+                Map<String, List<URL>> registered = new HashMap<String, List<URL>>();
+                for (Map.Entry<String, Set<URL>> entry : remoteRegistered.entrySet()) {
+                    if (!entry.getValue().isEmpty()) {
+                        registered.put(entry.getKey(), new ArrayList<URL>(entry.getValue()));
+                    }
+                }
+                for (Map.Entry<URL, String> entry : provisional.entrySet()) {
+                    List<URL> urls = registered.get(entry.getValue());
+                    if (urls == null) {
+                        urls = new ArrayList<URL>();
+                        registered.put(entry.getValue(), urls);
+                    }
+                    urls.add(entry.getKey());
+                }
+                return registered;
+            }
+        };
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try {
+            for (Map.Entry<String, Set<URL>> entry : store.load().entrySet()) {
+                for (URL url : entry.getValue()) {
+                    provisional.put(url, entry.getKey());
+                    super.register(url);
+                    addRegistered(url);
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to recover the registered urls from " + dir.getAbsolutePath() + ", cause: " + e.getMessage(), e);
+            store.discard();
+        }
+        try {
+            // starts the log, also after a failed recovery
+            store.snapshot();
+        } catch (IOException e) {
+            logger.error("Failed to write the registry snapshot, cause: " + e.getMessage(), e);
+        }
+        long timeout = Long.parseLong(ConfigUtils.getProperty(STORE_TIMEOUT, "180000"));
+        if (logger.isWarnEnabled()) {
+            logger.warn("Recovered " + count + " registered urls in " + (System.currentTimeMillis() - start)
+                    + "ms, they are provisional until registered again in " + timeout + "ms");
+        }
+        long interval = Long.parseLong(ConfigUtils.getProperty(STORE_INTERVAL, "60000"));
+        storeExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("DubboRegistryStore", true));
+        storeExecutor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    store.snapshot();
+                } catch (Throwable t) {
+                    logger.warn("Failed to write the registry snapshot, cause: " + t.getMessage(), t);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        storeExecutor.schedule(new Runnable() {
+            public void run() {
+                expireProvisional();
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        // the clients are disconnected on shutdown, the store is closed before their urls are unregistered
+        storeShutdownHook = new Thread(new Runnable() {
+            public void run() {
+                store.close();
+            }
+        }, "DubboRegistryStoreShutdownHook");
+        Runtime.getRuntime().addShutdownHook(storeShutdownHook);
+    }
+
+    /**
+     * Unregister the recovered urls no client registered again.
+     */
+    private void expireProvisional() {
+        int count = 0;
+        for (Map.Entry<URL, String> entry : provisional.entrySet()) {
+            URL url = entry.getKey();
+            if (provisional.remove(url, entry.getValue())) {
+                store.append(RegistryStore.UNREGISTER, entry.getValue(), url);
+                super.unregister(url);
+                removeRegistered(url);
+                unregistered(url);
+                count++;
+            }
+        }
+        if (count > 0 && logger.isWarnEnabled()) {
+            logger.warn("Unregistered " + count + " recovered urls not registered again");
+        }
+    }
+
+    /**
+     * Whether the url was recovered from the store and not registered again yet.
+     */
+    public boolean isProvisional(URL url) {
+        return provisional.containsKey(url);
+    }
+
+    public static SimpleRegistryService getInstance() {
+        return INSTANCE;
+    }
+
+    NotificationDispatcher getDispatcher() {
+        return dispatcher;
     }
 
     public boolean isAvailable() {
@@ -54,15 +207,40 @@ public class SimpleRegistryService extends AbstractRegistry {
     }
 
     public List<URL> lookup(URL url) {
+        Collection<URL> registered;
+        if (Constants.ANY_VALUE.equals(url.getServiceInterface())) {
+            registered = getRegistered();
+        } else {
+            registered = serviceRegistered.get(url.getServiceInterface());
+        }
         List<URL> urls = new ArrayList<URL>();
-        for (URL u : getRegistered()) {
-            if (UrlUtils.isMatch(url, u)) {
-                urls.add(u);
+        if (registered != null) {
+            for (URL u : registered) {
+                if (UrlUtils.isMatch(url, u)) {
+                    urls.add(u);
+                }
             }
         }
         return urls;
     }
 
+    private void addRegistered(URL url) {
+        String service = url.getServiceInterface();
+        Set<URL> urls = serviceRegistered.get(service);
+        if (urls == null) {
+            serviceRegistered.putIfAbsent(service, new ConcurrentHashSet<URL>());
+            urls = serviceRegistered.get(service);
+        }
+        urls.add(url);
+    }
+
+    private void removeRegistered(URL url) {
+        Set<URL> urls = serviceRegistered.get(url.getServiceInterface());
+        if (urls != null) {
+            urls.remove(url);
+        }
+    }
+
     public void register(URL url) {
         String client = RpcContext.getContext().getRemoteAddressString();
         Set<URL> urls = remoteRegistered.get(client);
@@ -71,17 +249,42 @@ public class SimpleRegistryService extends AbstractRegistry {
             urls = remoteRegistered.get(client);
         }
         urls.add(url);
+        if (store != null) {
+            String previous = provisional.remove(url);
+            if (previous != null && !previous.equals(client)) {
+                store.append(RegistryStore.UNREGISTER, previous, url);
+            }
+            store.append(RegistryStore.REGISTER, client, url);
+        }
         super.register(url);
+        addRegistered(url);
         registered(url);
     }
 
     public void unregister(URL url) {
-        String client = RpcContext.getContext().getRemoteAddressString();
+        unregister(RpcContext.getContext().getRemoteAddressString(), url, true);
+    }
+
+    /**
+     * @param persist whether to log the change, the urls of a disconnected client are only dropped from the store by
+     *                the next snapshot, or time out as provisional after a restart
+     */
+    private void unregister(String client, URL url, boolean persist) {
         Set<URL> urls = remoteRegistered.get(client);
         if (urls != null && urls.size() > 0) {
             urls.remove(url);
         }
+        if (store != null) {
+            String previous = provisional.remove(url);
+            if (previous != null && !previous.equals(client)) {
+                store.append(RegistryStore.UNREGISTER, previous, url);
+            }
+            if (persist) {
+                store.append(RegistryStore.UNREGISTER, client, url);
+            }
+        }
         super.unregister(url);
+        removeRegistered(url);
         unregistered(url);
     }
 
@@ -92,6 +295,7 @@ public class SimpleRegistryService extends AbstractRegistry {
                     && RegistryService.class.getName().equals(registryUrl.getPath())) {
                 super.setUrl(registryUrl);
                 super.register(registryUrl);
+                addRegistered(registryUrl);
             }
         }
         String client = RpcContext.getContext().getRemoteAddressString();
@@ -107,6 +311,7 @@ public class SimpleRegistryService extends AbstractRegistry {
         }
         listeners.add(listener);
         super.subscribe(url, listener);
+        subscriptions.add(url);
         subscribed(url, listener);
     }
 
@@ -123,57 +328,67 @@ public class SimpleRegistryService extends AbstractRegistry {
                 listeners.remove(listener);
             }
         }
+        super.unsubscribe(url, listener);
+        Set<NotifyListener> remaining = getSubscribed().get(url);
+        if (remaining == null || remaining.isEmpty()) {
+            subscriptions.remove(url);
+        }
     }
 
     protected void registered(URL url) {
-        for (Map.Entry<URL, Set<NotifyListener>> entry : getSubscribed().entrySet()) {
-            URL key = entry.getKey();
-            if (UrlUtils.isMatch(key, url)) {
-                List<URL> list = lookup(key);
-                for (NotifyListener listener : entry.getValue()) {
-                    listener.notify(list);
+        notifySubscribers(url);
+    }
+
+    protected void unregistered(URL url) {
+        notifySubscribers(url);
+    }
+
+    /**
+     * Notify the subscribers matching the changed url, the changes are coalesced and delivered asynchronously.
+     */
+    private void notifySubscribers(URL url) {
+        List<URL> matched = subscriptions.match(url);
+        if (matched.isEmpty()) {
+            return;
+        }
+        String service = url.getServiceInterface();
+        String category = url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+        for (URL key : matched) {
+            Set<NotifyListener> listeners = getSubscribed().get(key);
+            if (listeners != null) {
+                for (NotifyListener listener : listeners) {
+                    dispatcher.dispatch(key, listener, service, category);
                 }
             }
         }
     }
 
-    protected void unregistered(URL url) {
-        for (Map.Entry<URL, Set<NotifyListener>> entry : getSubscribed().entrySet()) {
-            URL key = entry.getKey();
-            if (UrlUtils.isMatch(key, url)) {
-                List<URL> list = lookup(key);
-                for (NotifyListener listener : entry.getValue()) {
-                    listener.notify(list);
+    /**
+     * Get the urls of the service the subscriber subscribed, a changed category is notified as empty if none of its
+     * urls is left.
+     */
+    private List<URL> getNotifyUrls(URL subscribed, String service, Set<String> categories) {
+        Set<URL> registered = serviceRegistered.get(service);
+        List<URL> list = new ArrayList<URL>();
+        Set<String> empty = new HashSet<String>(categories);
+        if (registered != null) {
+            for (URL u : registered) {
+                if (UrlUtils.isMatch(subscribed, u)) {
+                    list.add(u);
+                    empty.remove(u.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY));
                 }
             }
         }
+        for (String category : empty) {
+            list.add(subscribed.setProtocol(Constants.EMPTY_PROTOCOL).setPath(service)
+                    .removeParameter(Constants.INTERFACE_KEY).addParameter(Constants.CATEGORY_KEY, category));
+        }
+        return list;
     }
 
     protected void subscribed(final URL url, final NotifyListener listener) {
         if (Constants.ANY_VALUE.equals(url.getServiceInterface())) {
-            new Thread(new Runnable() {
-                public void run() {
-                    Map<String, List<URL>> map = new HashMap<String, List<URL>>();
-                    for (URL u : getRegistered()) {
-                        if (UrlUtils.isMatch(url, u)) {
-                            String service = u.getServiceInterface();
-                            List<URL> list = map.get(service);
-                            if (list == null) {
-                                list = new ArrayList<URL>();
-                                map.put(service, list);
-                            }
-                            list.add(u);
-                        }
-                    }
-                    for (List<URL> list : map.values()) {
-                        try {
-                            listener.notify(list);
-                        } catch (Throwable e) {
-                            logger.warn("Discard to notify " + url.getServiceKey() + " to listener " + listener);
-                        }
-                    }
-                }
-            }, "DubboMonitorNotifier").start();
+            dispatcher.dispatchAll(url, listener);
         } else {
             List<URL> list = lookup(url);
             try {
@@ -184,6 +399,22 @@ public class SimpleRegistryService extends AbstractRegistry {
         }
     }
 
+    @Override
+    public void destroy() {
+        // closed first, the urls unregistered on destroy stay in the store for the next start
+        if (store != null) {
+            storeExecutor.shutdown();
+            store.close();
+            try {
+                Runtime.getRuntime().removeShutdownHook(storeShutdownHook);
+            } catch (IllegalStateException e) {
+                // destroyed by the shutdown hooks
+            }
+        }
+        super.destroy();
+        dispatcher.destroy();
+    }
+
     public void disconnect() {
         String client = RpcContext.getContext().getRemoteAddressString();
         if (logger.isInfoEnabled()) {
@@ -192,7 +423,7 @@ public class SimpleRegistryService extends AbstractRegistry {
         Set<URL> urls = remoteRegistered.get(client);
         if (urls != null && urls.size() > 0) {
             for (URL url : urls) {
-                unregister(url);
+                unregister(client, url, false);
             }
         }
         Map<URL, Set<NotifyListener>> listeners = remoteSubscribed.get(client);
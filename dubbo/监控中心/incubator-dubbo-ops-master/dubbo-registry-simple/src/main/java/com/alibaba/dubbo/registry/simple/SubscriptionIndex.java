@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.registry.simple;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.utils.ConcurrentHashSet;
+import com.alibaba.dubbo.common.utils.UrlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * SubscriptionIndex
+ * <p>
+ * The subscribed urls indexed by interface, then by the exact category, group and version they accept. The
+ * subscriptions with patterns, e.g. <code>group=*</code> or <code>category=-routers</code>, are kept apart per interface
+ * and the ones of any interface are kept in a wildcard bucket, so a registered url is only matched against the
+ * subscriptions that may accept it.
+ */
+class SubscriptionIndex {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Set<URL>>> exact = new ConcurrentHashMap<String, ConcurrentMap<String, Set<URL>>>();
+
+    private final ConcurrentMap<String, Set<URL>> patterns = new ConcurrentHashMap<String, Set<URL>>();
+
+    private final Set<URL> wildcards = new ConcurrentHashSet<URL>();
+
+    public void add(URL subscribed) {
+        String service = subscribed.getServiceInterface();
+        if (Constants.ANY_VALUE.equals(service)) {
+            wildcards.add(subscribed);
+            return;
+        }
+        List<String> keys = getKeys(subscribed);
+        if (keys == null) {
+            Set<URL> urls = patterns.get(service);
+            if (urls == null) {
+                patterns.putIfAbsent(service, new ConcurrentHashSet<URL>());
+                urls = patterns.get(service);
+            }
+            urls.add(subscribed);
+            return;
+        }
+        ConcurrentMap<String, Set<URL>> serviceUrls = exact.get(service);
+        if (serviceUrls == null) {
+            exact.putIfAbsent(service, new ConcurrentHashMap<String, Set<URL>>());
+            serviceUrls = exact.get(service);
+        }
+        for (String key : keys) {
+            Set<URL> urls = serviceUrls.get(key);
+            if (urls == null) {
+                serviceUrls.putIfAbsent(key, new ConcurrentHashSet<URL>());
+                urls = serviceUrls.get(key);
+            }
+            urls.add(subscribed);
+        }
+    }
+
+    public void remove(URL subscribed) {
+        String service = subscribed.getServiceInterface();
+        if (Constants.ANY_VALUE.equals(service)) {
+            wildcards.remove(subscribed);
+            return;
+        }
+        List<String> keys = getKeys(subscribed);
+        if (keys == null) {
+            Set<URL> urls = patterns.get(service);
+            if (urls != null) {
+                urls.remove(subscribed);
+            }
+            return;
+        }
+        ConcurrentMap<String, Set<URL>> serviceUrls = exact.get(service);
+        if (serviceUrls != null) {
+            for (String key : keys) {
+                Set<URL> urls = serviceUrls.get(key);
+                if (urls != null) {
+                    urls.remove(subscribed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the subscribed urls matching the registered url.
+     */
+    public List<URL> match(URL registered) {
+        String service = registered.getServiceInterface();
+        List<URL> matched = new ArrayList<URL>();
+        ConcurrentMap<String, Set<URL>> serviceUrls = exact.get(service);
+        if (serviceUrls != null) {
+            Set<URL> urls = serviceUrls.get(getKey(registered.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY),
+                    registered.getParameter(Constants.GROUP_KEY), registered.getParameter(Constants.VERSION_KEY)));
+            match(registered, urls, matched);
+        }
+        match(registered, patterns.get(service), matched);
+        match(registered, wildcards, matched);
+        return matched;
+    }
+
+    private static void match(URL registered, Set<URL> candidates, List<URL> matched) {
+        if (candidates != null) {
+            for (URL subscribed : candidates) {
+                // the category, group and version are already matched, but not the classifier nor the enabled state
+                if (UrlUtils.isMatch(subscribed, registered)) {
+                    matched.add(subscribed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the exact keys accepted by the subscribed url, or null if it accepts a pattern.
+     */
+    private static List<String> getKeys(URL subscribed) {
+        String group = subscribed.getParameter(Constants.GROUP_KEY);
+        String version = subscribed.getParameter(Constants.VERSION_KEY);
+        if (group != null && (group.contains(Constants.ANY_VALUE) || group.contains(","))
+                || Constants.ANY_VALUE.equals(version)) {
+            return null;
+        }
+        List<String> keys = new ArrayList<String>();
+        for (String category : Constants.COMMA_SPLIT_PATTERN.split(
+                subscribed.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY))) {
+            if (category.contains(Constants.ANY_VALUE) || category.startsWith(Constants.REMOVE_VALUE_PREFIX)) {
+                return null;
+            }
+            keys.add(getKey(category, group, version));
+        }
+        return keys;
+    }
+
+    private static String getKey(String category, String group, String version) {
+        return category + "/" + (group == null ? "" : group) + ":" + (version == null ? "" : version);
+    }
+
+}
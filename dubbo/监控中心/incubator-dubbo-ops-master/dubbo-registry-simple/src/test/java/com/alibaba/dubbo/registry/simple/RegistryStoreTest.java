@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.registry.simple;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RegistryStoreTest
+ */
+public class RegistryStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReplayInterruptedSnapshot() throws Exception {
+        URL foo = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService");
+        URL bar = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BarService");
+        final Map<String, Collection<URL>> registered = new HashMap<String, Collection<URL>>();
+        RegistryStore store = new RegistryStore(temporaryFolder.getRoot()) {
+            @Override
+            protected Map<String, ? extends Collection<URL>> getRegistered() {
+                return registered;
+            }
+        };
+        store.snapshot();
+        store.append(RegistryStore.REGISTER, "10.0.0.1:1234", foo);
+        store.append(RegistryStore.REGISTER, "10.0.0.1:1234", bar);
+        store.close();
+        // the log was switched, then the process died before the new snapshot was written
+        File log = new File(temporaryFolder.getRoot(), "registry.log");
+        Assert.assertTrue(log.renameTo(new File(temporaryFolder.getRoot(), "registry.log.old")));
+
+        store = new RegistryStore(temporaryFolder.getRoot()) {
+            @Override
+            protected Map<String, ? extends Collection<URL>> getRegistered() {
+                return registered;
+            }
+        };
+        Map<String, Set<URL>> loaded = store.load();
+        Assert.assertEquals(2, loaded.get("10.0.0.1:1234").size());
+        registered.putAll(loaded);
+        store.snapshot();
+        Assert.assertFalse(new File(temporaryFolder.getRoot(), "registry.log.old").exists());
+        store.append(RegistryStore.UNREGISTER, "10.0.0.1:1234", bar);
+        store.close();
+
+        Assert.assertEquals(Collections.singleton(foo), store.load().get("10.0.0.1:1234"));
+    }
+
+    @Test
+    public void testLoadLargeSnapshot() throws Exception {
+        // 1000 providers of 100 services each, about the size of a large cluster
+        final Map<String, Collection<URL>> registered = new HashMap<String, Collection<URL>>();
+        for (int i = 0; i < 1000; i++) {
+            String host = "10.0." + (i / 250) + "." + (i % 250 + 1);
+            Set<URL> urls = new HashSet<URL>();
+            for (int j = 0; j < 100; j++) {
+                urls.add(URL.valueOf("dubbo://" + host + ":20880/com.foo.Service" + j + "?anyhost=true&application=app" + j
+                        + "&dubbo=2.6.2&generic=false&interface=com.foo.Service" + j + "&methods=get,put,remove,list"
+                        + "&pid=" + (1000 + i) + "&side=provider&timestamp=1525104000000&version=1.0.0"));
+            }
+            registered.put(host + ":" + (30000 + i), urls);
+        }
+        RegistryStore store = new RegistryStore(temporaryFolder.getRoot()) {
+            @Override
+            protected Map<String, ? extends Collection<URL>> getRegistered() {
+                return registered;
+            }
+        };
+        store.snapshot();
+        store.close();
+
+        long start = System.currentTimeMillis();
+        Map<String, Set<URL>> loaded = store.load();
+        long elapsed = System.currentTimeMillis() - start;
+        Assert.assertEquals(registered, loaded);
+        Assert.assertTrue("Loaded 100000 urls in " + elapsed + "ms", elapsed < 1000);
+    }
+
+}
@@ -16,16 +16,194 @@
  */
 package com.alibaba.dubbo.registry.simple;
 
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.registry.NotifyListener;
+
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * SimpleRegistryServiceTest
  */
 public class SimpleRegistryServiceTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testRegistry() {
         new SimpleRegistryService();
     }
 
+    @Test
+    public void testNotifyMatchedSubscribers() throws Exception {
+        SimpleRegistryService registry = new SimpleRegistryService();
+        RecordingListener admin = new RecordingListener();
+        registry.subscribe(URL.valueOf("admin://10.0.0.3/*?group=*&version=*&classifier=*&category=providers,consumers&check=false"), admin);
+        URL foo = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService?version=1.0.0");
+        URL bar = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BarService?version=1.0.0");
+        registry.register(foo);
+        registry.register(bar);
+        // the admin is notified with the urls of each service
+        Assert.assertEquals(1, admin.await(2).size());
+        RecordingListener consumer = new RecordingListener();
+        registry.subscribe(URL.valueOf("consumer://10.0.0.2/com.foo.FooService?version=1.0.0&category=providers,routers"), consumer);
+        RecordingListener other = new RecordingListener();
+        registry.subscribe(URL.valueOf("consumer://10.0.0.2/com.foo.FooService?version=2.0.0"), other);
+        Assert.assertEquals(1, consumer.await(1).size());
+
+        URL foo2 = foo.setHost("10.0.0.4");
+        registry.register(foo2);
+        Assert.assertEquals(2, consumer.await(2).size());
+        Assert.assertEquals(2, admin.await(3).size());
+
+        // coalesced into a single notification
+        registry.unregister(foo);
+        registry.unregister(foo2);
+        List<URL> last = consumer.await(3);
+        Assert.assertEquals(1, last.size());
+        Assert.assertEquals("empty", last.get(0).getProtocol());
+        Thread.sleep(200);
+        Assert.assertEquals(3, consumer.size());
+        Assert.assertEquals(1, other.size());
+        registry.destroy();
+    }
+
+    @Test
+    public void testNotifyAllServices() throws Exception {
+        SimpleRegistryService registry = new SimpleRegistryService();
+        for (int i = 0; i < 250; i++) {
+            registry.register(URL.valueOf("dubbo://10.0.0.1:20880/com.foo.Service" + i));
+        }
+        RecordingListener admin = new RecordingListener();
+        registry.subscribe(URL.valueOf("admin://10.0.0.3/*?group=*&version=*&classifier=*&category=providers,consumers&check=false"), admin);
+        admin.await(250);
+        Set<String> services = new HashSet<String>();
+        for (List<URL> urls : admin.notified) {
+            Assert.assertEquals(1, urls.size());
+            services.add(urls.get(0).getServiceInterface());
+        }
+        Assert.assertEquals(250, services.size());
+        // counted after the listener returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.getDispatcher().getDelivered() < 250 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(250, registry.getDispatcher().getDelivered());
+        registry.destroy();
+    }
+
+    @Test
+    public void testNotifyAfterDestroy() throws Exception {
+        SimpleRegistryService registry = new SimpleRegistryService();
+        RecordingListener consumer = new RecordingListener();
+        URL subscribed = URL.valueOf("consumer://10.0.0.2/com.foo.FooService?category=providers");
+        registry.subscribe(subscribed, consumer);
+        consumer.await(1);
+        registry.destroy();
+        // dropped instead of rejected by the stopped threads
+        registry.register(URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService"));
+        registry.getDispatcher().dispatchAll(subscribed, consumer);
+        Thread.sleep(200);
+        Assert.assertEquals(1, consumer.size());
+    }
+
+    @Test
+    public void testRecoverFromStore() throws Exception {
+        System.setProperty(SimpleRegistryService.STORE_DIR, temporaryFolder.getRoot().getPath());
+        System.setProperty(SimpleRegistryService.STORE_TIMEOUT, "500");
+        try {
+            SimpleRegistryService registry = new SimpleRegistryService();
+            URL foo = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService");
+            URL bar = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BarService");
+            URL baz = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.BazService");
+            registry.register(foo);
+            registry.register(bar);
+            registry.register(baz);
+            registry.unregister(bar);
+            registry.destroy();
+
+            SimpleRegistryService recovered = new SimpleRegistryService();
+            Assert.assertEquals(Collections.singletonList(foo), recovered.lookup(URL.valueOf("consumer://10.0.0.2/com.foo.FooService")));
+            Assert.assertTrue(recovered.lookup(URL.valueOf("consumer://10.0.0.2/com.foo.BarService")).isEmpty());
+            Assert.assertTrue(recovered.isProvisional(foo));
+            recovered.register(foo);
+            Assert.assertFalse(recovered.isProvisional(foo));
+            Assert.assertTrue(recovered.isProvisional(baz));
+
+            // the urls not registered again time out
+            Thread.sleep(1000);
+            Assert.assertFalse(recovered.isProvisional(baz));
+            Assert.assertTrue(recovered.lookup(URL.valueOf("consumer://10.0.0.2/com.foo.BazService")).isEmpty());
+            Assert.assertEquals(1, recovered.lookup(URL.valueOf("consumer://10.0.0.2/com.foo.FooService")).size());
+            recovered.destroy();
+        } finally {
+            System.clearProperty(SimpleRegistryService.STORE_DIR);
+            System.clearProperty(SimpleRegistryService.STORE_TIMEOUT);
+        }
+    }
+
+    @Test
+    public void testRecoverFromBrokenStore() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "registry.snapshot");
+        FileOutputStream out = new FileOutputStream(snapshot);
+        try {
+            out.write("broken".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        System.setProperty(SimpleRegistryService.STORE_DIR, temporaryFolder.getRoot().getPath());
+        try {
+            SimpleRegistryService registry = new SimpleRegistryService();
+            Assert.assertTrue(new File(temporaryFolder.getRoot(), "registry.snapshot.broken").exists());
+            // the changes are logged after the failed recovery
+            URL foo = URL.valueOf("dubbo://10.0.0.1:20880/com.foo.FooService");
+            registry.register(foo);
+            registry.destroy();
+
+            SimpleRegistryService recovered = new SimpleRegistryService();
+            Assert.assertEquals(Collections.singletonList(foo), recovered.lookup(URL.valueOf("consumer://10.0.0.2/com.foo.FooService")));
+            recovered.destroy();
+        } finally {
+            System.clearProperty(SimpleRegistryService.STORE_DIR);
+        }
+    }
+
+    private static class RecordingListener implements NotifyListener {
+
+        private final List<List<URL>> notified = new ArrayList<List<URL>>();
+
+        public synchronized void notify(List<URL> urls) {
+            notified.add(urls);
+            notifyAll();
+        }
+
+        synchronized int size() {
+            return notified.size();
+        }
+
+        /**
+         * Wait for the count of notifications and get the last one.
+         */
+        synchronized List<URL> await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (notified.size() < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            Assert.assertEquals(count, notified.size());
+            return notified.get(count - 1);
+        }
+
+    }
+
 }
\ No newline at end of file